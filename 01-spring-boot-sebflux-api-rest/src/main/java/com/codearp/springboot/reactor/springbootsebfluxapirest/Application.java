@@ -2,6 +2,7 @@ package com.codearp.springboot.reactor.springbootsebfluxapirest;
 
 import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.generators.SyntheticDataGenerator;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.CategoryDao;
@@ -11,6 +12,7 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import reactor.core.publisher.Flux;
 
 import java.util.Date;
 import java.util.List;
@@ -21,6 +23,7 @@ public class Application implements ApplicationRunner {
 
     private final CategoryDao categoryDao;
     private final ProductDao productDao;
+    private final SyntheticDataGenerator syntheticDataGenerator;
 
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
@@ -29,15 +32,12 @@ public class Application implements ApplicationRunner {
     @Override
     public void run(ApplicationArguments args) throws Exception {
 
-        productDao.findAll().then( productDao.deleteAll() ).block();
-        categoryDao.findAll().then( categoryDao.deleteAll() ).block();
+        // Un único flujo encadenado: primero se vacían las colecciones y después se insertan los datos
+        var wipe = productDao.deleteAll().then( categoryDao.deleteAll() );
 
-
-        for(CATEGORY cat : CATEGORY.values()) {
-            Category category = new Category();
-            category.setName( cat.name() );
-
-            categoryDao.save( category ).subscribe();
+        if( syntheticDataGenerator.isEnabled() ) {
+            wipe.then( syntheticDataGenerator.generate() ).block();
+            return;
         }
 
         List<ProductDto> products = List.of(
@@ -52,20 +52,27 @@ public class Application implements ApplicationRunner {
                 ProductDto.builder().name("TV Sony Bravia OLED 4K Ultra HD").category(CATEGORY.ELECTRONICS).price(2255.89).build()
         );
 
-        for( ProductDto p : products ) {
-            categoryDao.findByName( p.getCategory().name() )
-                    .flatMap( cat -> {
-                        Product pNew = new Product();
-                        pNew.setName( p.getName() );
-                        pNew.setPrice( p.getPrice() );
-                        pNew.setCategory( cat );
-                        pNew.setCategory( cat );
-                        pNew.setCreateAt( new Date() );
-
-                        return productDao.save( pNew );
-                    })
-                    .subscribe();
-
-        }
+        wipe.thenMany( Flux.fromArray( CATEGORY.values() )
+                        .map( cat -> {
+                            Category category = new Category();
+                            category.setName( cat.name() );
+                            return category;
+                        })
+                        .collectList()
+                        .flatMapMany( categoryDao::saveAll ) )
+                .collectMap( Category::getName )
+                .flatMapMany( categories -> Flux.fromIterable( products )
+                        .map( p -> {
+                            Product pNew = new Product();
+                            pNew.setName( p.getName() );
+                            pNew.setPrice( p.getPrice() );
+                            pNew.setCategory( categories.get( p.getCategory().name() ) );
+                            pNew.setCreateAt( new Date() );
+                            return pNew;
+                        })
+                        .collectList()
+                        .flatMapMany( productDao::saveAll ) )
+                .then()
+                .block();
     }
 }
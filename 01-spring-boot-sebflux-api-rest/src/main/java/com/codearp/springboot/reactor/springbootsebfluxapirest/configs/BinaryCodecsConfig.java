@@ -0,0 +1,202 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.configs;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.BinaryMediaTypes;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.AbstractJacksonDecoder;
+import org.springframework.http.codec.AbstractJacksonEncoder;
+import org.springframework.http.codec.HttpMessageDecoder;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.JacksonCborDecoder;
+import org.springframework.http.codec.cbor.JacksonCborEncoder;
+import org.springframework.http.codec.smile.JacksonSmileDecoder;
+import org.springframework.http.codec.smile.JacksonSmileEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codecs Smile ({@code application/x-jackson-smile}) y CBOR ({@code application/cbor}) para la API de productos,
+ * negociados por {@code Accept} / {@code Content-Type} junto a JSON (ver {@link BinaryMediaTypes}).
+ * <p>
+ * Son los codecs Jackson 3 de Spring ({@code JacksonSmile*}, {@code JacksonCbor*}) con mappers que registran los
+ * módulos del classpath, como el {@code JsonMapper} de Spring Boot para JSON.
+ * <p>
+ * Un {@code Flux} se escribe como un único array (se agrega antes de codificar) salvo en
+ * {@code application/stream+x-jackson-smile}, el equivalente a NDJSON, donde cada elemento se envía según llega:
+ * el encoder Jackson une los elementos de un {@code Flux} con los separadores de un array JSON, que no valen en
+ * Smile, y el de CBOR no admite {@code Flux}. El decoder CBOR tampoco: los cuerpos {@code Flux} en CBOR se leen
+ * como un array completo, limitado por {@code spring.codec.max-in-memory-size}.
+ */
+@Configuration
+@Slf4j
+public class BinaryCodecsConfig implements WebFluxConfigurer {
+
+    private final int maxInMemorySize;
+
+    public BinaryCodecsConfig(@Value("${spring.codec.max-in-memory-size:256KB}") DataSize maxInMemorySize) {
+        this.maxInMemorySize = (int) maxInMemorySize.toBytes();
+    }
+
+    // Públicos para que ProductSerializationBenchmark mida los mismos mappers
+    public static SmileMapper smileMapper() {
+        return SmileMapper.builder().findAndAddModules().build();
+    }
+
+    public static CBORMapper cborMapper() {
+        return CBORMapper.builder().findAndAddModules().build();
+    }
+
+    // Sustituyen a los codecs Smile/CBOR por defecto, que Spring registra al estar los formatos en el classpath
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        JacksonSmileDecoder smileDecoder = new JacksonSmileDecoder(smileMapper());
+        smileDecoder.setMaxInMemorySize(maxInMemorySize);
+        configurer.defaultCodecs().jacksonSmileDecoder(smileDecoder);
+        configurer.defaultCodecs().jacksonSmileEncoder(new AggregatingEncoder(new JacksonSmileEncoder(smileMapper())));
+
+        JacksonCborDecoder cborDecoder = new JacksonCborDecoder(cborMapper());
+        cborDecoder.setMaxInMemorySize(maxInMemorySize);
+        configurer.defaultCodecs().jacksonCborDecoder(new AggregatingDecoder(cborDecoder));
+        configurer.defaultCodecs().jacksonCborEncoder(new AggregatingEncoder(new JacksonCborEncoder(cborMapper())));
+
+        log.info("Binary codecs registered: {}, {}, {}", BinaryMediaTypes.APPLICATION_SMILE,
+                BinaryMediaTypes.APPLICATION_STREAM_SMILE, BinaryMediaTypes.APPLICATION_CBOR);
+    }
+
+    private static ResolvableType listOf(ResolvableType elementType) {
+        return ResolvableType.forClassWithGenerics(List.class, elementType);
+    }
+
+    // Codifica cada valor con encodeValue, que el codec CBOR sí admite, y un Flux como una lista (un único
+    // documento) salvo en los tipos de streaming del codec
+    private static final class AggregatingEncoder implements HttpMessageEncoder<Object> {
+
+        private final AbstractJacksonEncoder<?> delegate;
+
+        AggregatingEncoder(AbstractJacksonEncoder<?> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (isStreaming(mimeType)) {
+                return delegate.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            if (inputStream instanceof Mono) {
+                return Mono.from(inputStream)
+                        .map(value -> delegate.encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                        .flux();
+            }
+            return Flux.from(inputStream)
+                    .collectList()
+                    .map(list -> delegate.encodeValue(list, bufferFactory, listOf(elementType), mimeType, hints))
+                    .flux();
+        }
+
+        @Override
+        public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                      MimeType mimeType, Map<String, Object> hints) {
+            return delegate.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+        }
+
+        @Override
+        public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+            return delegate.canEncode(elementType, mimeType);
+        }
+
+        @Override
+        public List<MimeType> getEncodableMimeTypes() {
+            return delegate.getEncodableMimeTypes();
+        }
+
+        @Override
+        public List<MimeType> getEncodableMimeTypes(ResolvableType elementType) {
+            return delegate.getEncodableMimeTypes(elementType);
+        }
+
+        @Override
+        public List<MediaType> getStreamingMediaTypes() {
+            return delegate.getStreamingMediaTypes();
+        }
+
+        @Override
+        public Map<String, Object> getEncodeHints(ResolvableType actualType, ResolvableType elementType,
+                                                  MediaType mediaType, ServerHttpRequest request,
+                                                  ServerHttpResponse response) {
+            return delegate.getEncodeHints(actualType, elementType, mediaType, request, response);
+        }
+
+        private boolean isStreaming(MimeType mimeType) {
+            return mimeType != null
+                    && delegate.getStreamingMediaTypes().stream().anyMatch(type -> type.isCompatibleWith(mimeType));
+        }
+    }
+
+    // Decodifica un Flux leyendo el cuerpo completo como una lista, para codecs sin lectura en streaming (CBOR)
+    private static final class AggregatingDecoder implements HttpMessageDecoder<Object> {
+
+        private final AbstractJacksonDecoder<?> delegate;
+
+        AggregatingDecoder(AbstractJacksonDecoder<?> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+            return delegate.decodeToMono(inputStream, listOf(elementType), mimeType, hints)
+                    .flatMapMany(list -> Flux.fromIterable((List<?>) list));
+        }
+
+        @Override
+        public Mono<Object> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                                         MimeType mimeType, Map<String, Object> hints) {
+            return delegate.decodeToMono(inputStream, elementType, mimeType, hints);
+        }
+
+        @Override
+        public Object decode(DataBuffer buffer, ResolvableType targetType, MimeType mimeType,
+                             Map<String, Object> hints) {
+            return delegate.decode(buffer, targetType, mimeType, hints);
+        }
+
+        @Override
+        public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+            return delegate.canDecode(elementType, mimeType);
+        }
+
+        @Override
+        public List<MimeType> getDecodableMimeTypes() {
+            return delegate.getDecodableMimeTypes();
+        }
+
+        @Override
+        public List<MimeType> getDecodableMimeTypes(ResolvableType targetType) {
+            return delegate.getDecodableMimeTypes(targetType);
+        }
+
+        @Override
+        public Map<String, Object> getDecodeHints(ResolvableType actualType, ResolvableType elementType,
+                                                  ServerHttpRequest request, ServerHttpResponse response) {
+            return delegate.getDecodeHints(actualType, elementType, request, response);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.configs;
 
 import com.codearp.springboot.reactor.springbootsebfluxapirest.handlers.ProductHandler;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.BinaryMediaTypes;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.server.RequestPredicates;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
@@ -22,10 +24,21 @@ public class EndpointFunctionalConfig {
 //        );
 //    }
 
+    // Misma API de productos que ProductRestController sobre el modelo funcional (/api/v2/products).
+    // La petición JSON (o Smile/CBOR) y la multipart comparten POST y se distinguen por Content-Type.
+    // El listado va con patrón "": un GET sin patrón dentro de path() casa con cualquier subruta y taparía /{id}.
     @Bean
     public RouterFunction<ServerResponse> routes(ProductHandler productHandler) {
-        return RouterFunctions.route(RequestPredicates.GET("/api/v2/")
-                        .or(RequestPredicates.GET("/api/v2/products")),
-                request -> productHandler.listPeople(request) );
+        return RouterFunctions.route()
+                .GET("/api/v2/", productHandler::listPeople)
+                .path("/api/v2/products", builder -> builder
+                        .GET("/{id}", productHandler::recoverProductById)
+                        .GET("", productHandler::listPeople)
+                        .POST(RequestPredicates.contentType(MediaType.MULTIPART_FORM_DATA), productHandler::saveProductWithImage)
+                        .POST(RequestPredicates.contentType(MediaType.APPLICATION_JSON,
+                                BinaryMediaTypes.APPLICATION_SMILE, BinaryMediaTypes.APPLICATION_CBOR), productHandler::saveProduct)
+                        .DELETE("/{id}", productHandler::deleteProduct))
+                .onError(Throwable.class, productHandler::handleError)
+                .build();
     }
 }
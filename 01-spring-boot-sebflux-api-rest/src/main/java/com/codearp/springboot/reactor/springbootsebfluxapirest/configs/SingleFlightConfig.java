@@ -0,0 +1,17 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.configs;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SingleFlightConfig {
+
+    // Búsquedas simultáneas del mismo producto (picos de tráfico) comparten un único findById
+    @Bean
+    public SingleFlight<String, Product> productLookups(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("products.findById", meterRegistry);
+    }
+}
@@ -1,16 +1,23 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.controllers;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.UploadSessionRequestDto;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.files.FileStorageFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ChunkedUploadService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.util.UUID;
 
 
 @RestController
@@ -19,6 +26,7 @@ import reactor.core.publisher.Mono;
 public class FileRestController {
 
     private final FileStorageFacade fileStorageFacade;
+    private final FileRangeResponses fileRangeResponses;
 
     @PostMapping("/add")
     public Mono<ResponseEntity<FileStorageService.ResourceUUID>> addFile(@RequestPart("file") FilePart filePart) {
@@ -34,28 +42,32 @@ public class FileRestController {
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
     }
 
+    // Admite Range/If-Range: 206 con un rango, multipart/byteranges con varios y 416 si no son satisfacibles.
+    // El fichero completo y los rangos simples se envían con zero-copy (sendfile) cuando el servidor lo permite.
     @GetMapping("/download/{id}")
-    public Mono<ResponseEntity<Flux<DataBuffer>>> download(@PathVariable String id) {
-        return Mono.just(
-                ResponseEntity.ok()
-                        .header("Content-Disposition", "attachment; filename=\"" + id + "\"")
-                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                        .body(fileStorageFacade.downloadFile(id))
-        );
+    public Mono<Void> download(@PathVariable String id, ServerWebExchange exchange) {
+        return fileStorageFacade.getPathFileByResourceId(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found: " + id)))
+                .flatMap(path -> fileRangeResponses.write(
+                        exchange,
+                        path,
+                        MediaType.APPLICATION_OCTET_STREAM,
+                        "attachment; filename=\"" + id + "\""
+                ));
     }
 
     @GetMapping("/download-full/{id}")
-    public Mono<ResponseEntity<Flux<DataBuffer>>> downloadWithName(
-            @PathVariable String id) {
-
-        return fileStorageFacade.downloadFileFull(id)
-                .map(file -> ResponseEntity.ok()
-                        .header("Content-Disposition",
-                                "attachment; filename=\"" + file.getFirst() + "\"")
-                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                        .body(file.getSecond())
-                )
-                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
+    public Mono<Void> downloadWithName(
+            @PathVariable String id, ServerWebExchange exchange) {
+
+        return fileStorageFacade.getResourceContent(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found: " + id)))
+                .flatMap(file -> fileRangeResponses.write(
+                        exchange,
+                        file.filePath(),
+                        MediaType.APPLICATION_OCTET_STREAM,
+                        "attachment; filename=\"" + file.name() + "\""
+                ));
     }
 
     @DeleteMapping("/delete/{id}")
@@ -64,4 +76,40 @@ public class FileRestController {
                 .thenReturn(ResponseEntity.noContent().build());
     }
 
+    // Subidas reanudables por trozos para ficheros grandes:
+    // POST /uploads -> PUT /uploads/{id}?offset=N (cuerpo binario, en cualquier orden) -> GET /uploads/{id}
+    // para ver los rangos recibidos tras un corte -> POST /uploads/{id}/complete. DELETE /uploads/{id} la cancela.
+    @PostMapping("/uploads")
+    public Mono<ResponseEntity<ChunkedUploadService.UploadSession>> createUpload(@RequestBody UploadSessionRequestDto request) {
+        return fileStorageFacade.createUpload(request.getFilename(), request.getContentType(), request.getSize(), request.getReplaces())
+                .map(session -> ResponseEntity
+                        .created(URI.create("/api/files/uploads/" + session.uploadId()))
+                        .body(session));
+    }
+
+    @PutMapping("/uploads/{uploadId}")
+    public Mono<ChunkedUploadService.UploadSession> uploadChunk(@PathVariable UUID uploadId,
+                                                               @RequestParam("offset") long offset,
+                                                               @RequestBody Flux<DataBuffer> content) {
+        return fileStorageFacade.uploadChunk(uploadId, offset, content);
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public Mono<ChunkedUploadService.UploadSession> getUploadStatus(@PathVariable UUID uploadId) {
+        return fileStorageFacade.getUploadStatus(uploadId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found: " + uploadId)));
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public Mono<ResponseEntity<FileStorageService.ResourceUUID>> completeUpload(@PathVariable UUID uploadId) {
+        return fileStorageFacade.completeUpload(uploadId)
+                .map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public Mono<ResponseEntity<Void>> abortUpload(@PathVariable UUID uploadId) {
+        return fileStorageFacade.abortUpload(uploadId)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
 }
@@ -19,18 +19,7 @@ public class GlobalExceptionHandler {
         log.error("ResponseStatusException: {}", ex.getMessage(), ex);
 
         HttpStatusCode status = ex.getStatusCode();
-        String reason;
-        if (status instanceof HttpStatus hs) {
-            reason = hs.getReasonPhrase();
-        } else {
-            reason = status.toString();
-        }
-
-        ErrorResponse body = new ErrorResponse();
-        body.setStatus(status.value());
-        body.setError(reason);
-        body.setMessage(ex.getReason());
-        return Mono.just(ResponseEntity.status(status).body(body));
+        return Mono.just(ResponseEntity.status(status).body(ErrorResponse.of(status, ex.getReason())));
     }
 
 
@@ -39,10 +28,6 @@ public class GlobalExceptionHandler {
         log.error("Unhandled exception: {}", ex.getMessage(), ex);
 
         HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
-        ErrorResponse body = new ErrorResponse();
-        body.setStatus(status.value());
-        body.setError(status.getReasonPhrase());
-        body.setMessage(ex.getMessage());
-        return Mono.just(ResponseEntity.status(status).body(body));
+        return Mono.just(ResponseEntity.status(status).body(ErrorResponse.of(status, ex.getMessage())));
     }
 }
\ No newline at end of file
@@ -1,31 +1,50 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.controllers;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductBatchDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductBatchRequestDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductChangeEventDto;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductImportSummaryDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductPageDto;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacade;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.files.FileStorageFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.BinaryMediaTypes;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
-@RequiredArgsConstructor
 public class ProductRestController {
 
     private final ShopFacade shopFacade;
     private final FileStorageFacade fileStorageFacade;
 
+    private final Duration changesHeartbeat;
+
+    public ProductRestController(ShopFacade shopFacade,
+                                 FileStorageFacade fileStorageFacade,
+                                 @Value("${config.products.changes.heartbeat:PT15S}") Duration changesHeartbeat) {
+        this.shopFacade = shopFacade;
+        this.fileStorageFacade = fileStorageFacade;
+        this.changesHeartbeat = changesHeartbeat;
+    }
+
     // La forma más simple y reactiva (streaming, sin ResponseEntity):
     @GetMapping({"","/"})
     public Flux<ProductDto> recoverAllProducts() {
@@ -73,6 +92,66 @@ public class ProductRestController {
                 );
     }
 
+    /*****************
+     *  Paginación por cursor (keyset) y streaming NDJSON
+     *
+     *****************/
+    // Devuelve una página acotada y un token opaco (nextCursor) para pedir la siguiente: ?cursor=...&size=...
+    @GetMapping("/page")
+    public Mono<ProductPageDto> recoverProductPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        return shopFacade.recoverProductPage(cursor, size);
+    }
+
+    // Emite cada producto según sale del cursor de Mongo, una línea JSON por producto (application/x-ndjson)
+    // o un documento Smile por producto (application/stream+x-jackson-smile)
+    @GetMapping(value = "/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, BinaryMediaTypes.APPLICATION_STREAM_SMILE_VALUE })
+    public Flux<ProductDto> streamAllProducts() {
+        return shopFacade.recoverAllProducts();
+    }
+
+    /*****************
+     *  Feed de cambios (Server-Sent Events)
+     *
+     *****************/
+    // Sustituye al sondeo de GET /api/products: cada alta/modificación/baja llega como un evento con id
+    // creciente; al reconectar, EventSource envía Last-Event-ID y se reciben los eventos perdidos.
+    // El comentario periódico mantiene viva la conexión a través de proxies.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProductChangeEventDto>> productChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        Flux<ServerSentEvent<ProductChangeEventDto>> events = shopFacade.productChanges(lastEventId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(Long.toString(event.getSequence()))
+                        .event(event.getType().name())
+                        .build());
+
+        Flux<ServerSentEvent<ProductChangeEventDto>> heartbeat = Flux.interval(changesHeartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<ProductChangeEventDto>builder().comment("heartbeat").build());
+
+        return Flux.merge(events, heartbeat);
+    }
+
+    /*****************
+     *  Consulta por lote de ids
+     *
+     *****************/
+    // Un carrito o lista de deseos se resuelve con una petición y un único $in en Mongo, en lugar de N GET /{id}.
+    // Respeta el orden pedido y devuelve los ids inexistentes en notFound; máximo config.products.batch.max-ids.
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProductBatchDto> recoverProductsByIds(@RequestBody ProductBatchRequestDto request) {
+        return shopFacade.recoverProductsByIds(request.getIds());
+    }
+
+    // Misma consulta para clientes que prefieren GET cacheable: /batch?ids=a,b,c
+    @GetMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProductBatchDto> recoverProductsByIdsParam(@RequestParam("ids") List<String> ids) {
+        return shopFacade.recoverProductsByIds(ids);
+    }
+
     /*****************
      *  Find product by ID
      *
@@ -81,7 +160,9 @@ public class ProductRestController {
     public Mono<ProductDto> recoverProductById(@PathVariable String id) {
         // Implement logic to retrieve a single product by ID using the shopFacade
         return shopFacade.recoverProductById(id)
-                .onErrorMap(e -> new RuntimeException("Failed to retrieve product with id: " + id, e));
+                // El 404 del servicio llega tal cual a GlobalExceptionHandler
+                .onErrorMap(e -> !(e instanceof ResponseStatusException),
+                        e -> new RuntimeException("Failed to retrieve product with id: " + id, e));
     }
 
     @GetMapping("/v2/{id}")
@@ -95,16 +176,30 @@ public class ProductRestController {
                 .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()));
     }
 
+    // Cuerpo en JSON, Smile o CBOR; la respuesta usa el formato que pida Accept (JSON por defecto)
     @PostMapping({"","/"})
     public Mono<ResponseEntity<ResponseEntity<ProductDto>>> saveProduct(@RequestBody ProductDto productDto) {
         return shopFacade.saveProduct(productDto)
-                .map(savedProduct -> ResponseEntity.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(savedProduct))
+                .map(savedProduct -> ResponseEntity.ok().body(savedProduct))
                 .map(ResponseEntity::ok) // envuelve el ResponseEntity<ProductDto> en otro ResponseEntity
                 .onErrorMap(e -> new RuntimeException("Failed to save product: " + productDto.getName(), e));
     }
 
+    // Importación masiva: el cuerpo (array JSON o NDJSON, array Smile o stream Smile) se decodifica elemento a
+    // elemento y se inserta por lotes; un array CBOR se lee completo antes de empezar
+    @PostMapping(
+            value = "/import",
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+                    BinaryMediaTypes.APPLICATION_SMILE_VALUE, BinaryMediaTypes.APPLICATION_STREAM_SMILE_VALUE,
+                    BinaryMediaTypes.APPLICATION_CBOR_VALUE },
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<ProductImportSummaryDto> importProducts(
+            @RequestBody Flux<ProductDto> products,
+            @RequestParam(value = "batchSize", required = false) Integer batchSize) {
+        return shopFacade.importProducts(products, batchSize);
+    }
+
     @PostMapping(
             value = "/v2",
             consumes = { MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE },
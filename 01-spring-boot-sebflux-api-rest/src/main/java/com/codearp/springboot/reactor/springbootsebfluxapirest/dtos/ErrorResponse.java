@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 
 import java.time.Instant;
 
@@ -18,4 +20,13 @@ public class ErrorResponse {
     private String error;
     private String message;
 
-}
\ No newline at end of file
+    // Mismo cuerpo de error para los controladores anotados y las rutas funcionales
+    public static ErrorResponse of(HttpStatusCode status, String message) {
+        ErrorResponse body = new ErrorResponse();
+        body.setStatus(status.value());
+        body.setError(status instanceof HttpStatus hs ? hs.getReasonPhrase() : status.toString());
+        body.setMessage(message);
+        return body;
+    }
+
+}
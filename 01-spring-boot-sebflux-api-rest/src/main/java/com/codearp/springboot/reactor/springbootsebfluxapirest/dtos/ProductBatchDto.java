@@ -0,0 +1,24 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una consulta por lote de ids.
+ * <p>
+ * {@code items} sigue el orden de los ids pedidos (sin repetidos); {@code notFound} lista los ids
+ * que no existen, en el mismo orden.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductBatchDto {
+
+    private List<ProductDto> items;
+    private List<String> notFound;
+}
@@ -0,0 +1,20 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ids de productos a recuperar en una sola petición (carrito, lista de deseos...).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductBatchRequestDto {
+
+    private List<String> ids;
+}
@@ -0,0 +1,33 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Cambio en el catálogo emitido por el feed de productos. {@code sequence} es creciente y se envía como
+ * id del evento SSE, de modo que el cliente puede reanudar con {@code Last-Event-ID}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductChangeEventDto {
+
+    public enum Type {
+        UPSERT,
+        DELETE,
+        // El cliente ha perdido eventos (ya no están en el buffer): debe volver a descargar el catálogo
+        RESET
+    }
+
+    private long sequence;
+    private Type type;
+    private String productId;
+    // null en DELETE y RESET
+    private ProductDto product;
+    private Date timestamp;
+}
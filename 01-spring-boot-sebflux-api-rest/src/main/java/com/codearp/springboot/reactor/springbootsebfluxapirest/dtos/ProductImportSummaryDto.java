@@ -0,0 +1,39 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva de productos: totales y resultado de cada lote.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductImportSummaryDto {
+
+    private long received;
+    private long inserted;
+    private long rejected;
+    private long elapsedMillis;
+    private List<BatchResult> batches;
+    // Motivo por el que la importación terminó antes de leer todo el cuerpo; null si se leyó completo
+    private String error;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class BatchResult {
+        private long batch;
+        private int received;
+        private int inserted;
+        private int rejected;
+        // Se limita el número de errores por lote para no inflar la respuesta
+        private List<String> errors;
+    }
+}
@@ -0,0 +1,25 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de productos obtenida por keyset (cursor) sobre el _id.
+ * <p>
+ * {@code nextCursor} es un token opaco que el cliente debe reenviar para pedir la
+ * siguiente página; es {@code null} cuando no quedan más productos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductPageDto {
+
+    private List<ProductDto> items;
+    private int size;
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Alta de una subida por trozos: nombre y tipo del fichero final, tamaño total en bytes y,
+ * opcionalmente, el recurso que sustituye al finalizar.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UploadSessionRequestDto {
+
+    private String filename;
+    private String contentType;
+    private long size;
+    private String replaces;
+}
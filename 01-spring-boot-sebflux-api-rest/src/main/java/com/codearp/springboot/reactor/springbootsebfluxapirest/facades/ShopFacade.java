@@ -1,15 +1,26 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.facades;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductBatchDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductChangeEventDto;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductImportSummaryDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductPageDto;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface ShopFacade {
 
     Flux<ProductDto> recoverAllProducts();
+    Mono<ProductPageDto> recoverProductPage(String cursor, Integer size);
     Mono<ProductDto> recoverProductById(String id);
+    Mono<ProductBatchDto> recoverProductsByIds(List<String> ids);
 
     Mono<ProductDto> saveProduct(ProductDto productDto);
+    Mono<ProductImportSummaryDto> importProducts(Flux<ProductDto> products, Integer batchSize);
 
     Mono<Void> deleteProductById(String id);
+
+    Flux<ProductChangeEventDto> productChanges(Long lastEventId);
 }
@@ -1,18 +1,28 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.facades;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductBatchDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductChangeEventDto;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductImportSummaryDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductPageDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductChangeFeed;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+import java.util.Comparator;
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ShopFacadeImpl implements ShopFacade {
     private final ProductService productService;
+    private final ProductChangeFeed productChangeFeed;
 
     @Override
     public Flux<ProductDto> recoverAllProducts() {
@@ -23,6 +33,15 @@ public class ShopFacadeImpl implements ShopFacade {
                 });
     }
 
+    @Override
+    public Mono<ProductPageDto> recoverProductPage(String cursor, Integer size) {
+        return productService.recoverProductPage(cursor, size)
+                .onErrorResume(e -> {
+                    log.error("Error in ShopFacade while retrieving product page with cursor {}: {}", cursor, e.getMessage());
+                    return Mono.error(e);
+                });
+    }
+
     @Override
     public Mono<ProductDto> recoverProductById(String id) {
         return productService.recoverProductById(id)
@@ -32,6 +51,15 @@ public class ShopFacadeImpl implements ShopFacade {
                 });
     }
 
+    @Override
+    public Mono<ProductBatchDto> recoverProductsByIds(List<String> ids) {
+        return productService.recoverProductsByIds(ids)
+                .onErrorResume(e -> {
+                    log.error("Error in ShopFacade while retrieving product batch: {}", e.getMessage());
+                    return Mono.error(e);
+                });
+    }
+
     @Override
     public Mono<ProductDto> saveProduct(ProductDto productDto) {
         return productService.saveProduct(productDto)
@@ -41,6 +69,43 @@ public class ShopFacadeImpl implements ShopFacade {
                 });
     }
 
+    @Override
+    public Mono<ProductImportSummaryDto> importProducts(Flux<ProductDto> products, Integer batchSize) {
+        final long start = System.currentTimeMillis();
+
+        // materialize: un error del cuerpo no descarta los lotes ya guardados, se informa en el resumen
+        return productService.importProducts(products, batchSize)
+                .materialize()
+                .collectList()
+                .map(signals -> {
+                    List<ProductImportSummaryDto.BatchResult> batches = signals.stream()
+                            .filter(Signal::isOnNext)
+                            .map(Signal::get)
+                            .sorted(Comparator.comparingLong(ProductImportSummaryDto.BatchResult::getBatch))
+                            .toList();
+                    String error = signals.stream()
+                            .filter(Signal::isOnError)
+                            .findFirst()
+                            .map(signal -> "Import stopped: " + signal.getThrowable().getMessage())
+                            .orElse(null);
+                    return ProductImportSummaryDto.builder()
+                            .received(batches.stream().mapToLong(ProductImportSummaryDto.BatchResult::getReceived).sum())
+                            .inserted(batches.stream().mapToLong(ProductImportSummaryDto.BatchResult::getInserted).sum())
+                            .rejected(batches.stream().mapToLong(ProductImportSummaryDto.BatchResult::getRejected).sum())
+                            .elapsedMillis(System.currentTimeMillis() - start)
+                            .batches(batches)
+                            .error(error)
+                            .build();
+                })
+                .doOnNext(summary -> {
+                    log.info("Product import finished: {} received, {} inserted, {} rejected in {} ms",
+                            summary.getReceived(), summary.getInserted(), summary.getRejected(), summary.getElapsedMillis());
+                    if (summary.getError() != null) {
+                        log.warn("Product import ended early: {}", summary.getError());
+                    }
+                });
+    }
+
     @Override
     public Mono<Void> deleteProductById(String id) {
         return productService.deleteProductById(id)
@@ -50,4 +115,9 @@ public class ShopFacadeImpl implements ShopFacade {
                 });
     }
 
+    @Override
+    public Flux<ProductChangeEventDto> productChanges(Long lastEventId) {
+        return productChangeFeed.changes(lastEventId);
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.facades.files;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ChunkedUploadService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.util.Pair;
@@ -7,6 +8,9 @@ import org.springframework.http.codec.multipart.FilePart;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+import java.util.UUID;
+
 public interface FileStorageFacade {
 
     Mono<FileStorageService.ResourceUUID> saveFile(FilePart filePart);
@@ -15,5 +19,15 @@ public interface FileStorageFacade {
     Flux<DataBuffer> downloadFile(String resourceId);
     Mono<Pair<String, Flux<DataBuffer>>> downloadFileFull(String resourceId);
 
+    Mono<Path> getPathFileByResourceId(String resourceId);
+    Mono<FileStorageService.ResourceContent> getResourceContent(String resourceId);
+
     Mono<Void> deleteFile(String resourceId);
+
+    // Subidas reanudables por trozos
+    Mono<ChunkedUploadService.UploadSession> createUpload(String filename, String contentType, long size, String replaces);
+    Mono<ChunkedUploadService.UploadSession> uploadChunk(UUID uploadId, long offset, Flux<DataBuffer> content);
+    Mono<ChunkedUploadService.UploadSession> getUploadStatus(UUID uploadId);
+    Mono<FileStorageService.ResourceUUID> completeUpload(UUID uploadId);
+    Mono<Void> abortUpload(UUID uploadId);
 }
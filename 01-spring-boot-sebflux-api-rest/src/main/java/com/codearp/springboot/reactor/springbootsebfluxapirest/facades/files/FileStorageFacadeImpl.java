@@ -1,5 +1,6 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.facades.files;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ChunkedUploadService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageReadService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageRemoveService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
@@ -14,6 +15,9 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 public class FileStorageFacadeImpl implements FileStorageFacade {
@@ -21,6 +25,7 @@ public class FileStorageFacadeImpl implements FileStorageFacade {
     private final FileStorageWriterService fileStorageWriterService;
     private final FileStorageReadService fileStorageReadService;
     private final FileStorageRemoveService fileStorageRemoveService;
+    private final ChunkedUploadService chunkedUploadService;
 
     @Override
     public Mono<FileStorageService.ResourceUUID> saveFile(FilePart filePart) {
@@ -45,16 +50,51 @@ public class FileStorageFacadeImpl implements FileStorageFacade {
 
                     Flux<DataBuffer> data = DataBufferUtils.read(
                             resource.filePath(),
-                            new DefaultDataBufferFactory(),
-                            4096
+                            DefaultDataBufferFactory.sharedInstance,
+                            FileStorageService.BUFFER_SIZE_FILE_READ
                     );
 
                     return Pair.of(resource.name(), data);
                 });
     }
 
+    @Override
+    public Mono<Path> getPathFileByResourceId(String resourceId) {
+        return fileStorageReadService.getPathFileByResourceId(resourceId);
+    }
+
+    @Override
+    public Mono<FileStorageService.ResourceContent> getResourceContent(String resourceId) {
+        return fileStorageReadService.getResourceContentByResourceId(resourceId);
+    }
+
     @Override
     public Mono<Void> deleteFile(String resourceId) {
         return fileStorageRemoveService.deleteFile(resourceId);
     }
+
+    @Override
+    public Mono<ChunkedUploadService.UploadSession> createUpload(String filename, String contentType, long size, String replaces) {
+        return chunkedUploadService.create(filename, contentType, size, replaces);
+    }
+
+    @Override
+    public Mono<ChunkedUploadService.UploadSession> uploadChunk(UUID uploadId, long offset, Flux<DataBuffer> content) {
+        return chunkedUploadService.writeChunk(uploadId, offset, content);
+    }
+
+    @Override
+    public Mono<ChunkedUploadService.UploadSession> getUploadStatus(UUID uploadId) {
+        return chunkedUploadService.status(uploadId);
+    }
+
+    @Override
+    public Mono<FileStorageService.ResourceUUID> completeUpload(UUID uploadId) {
+        return chunkedUploadService.complete(uploadId);
+    }
+
+    @Override
+    public Mono<Void> abortUpload(UUID uploadId) {
+        return chunkedUploadService.abort(uploadId);
+    }
 }
@@ -0,0 +1,237 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.generators;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.CategoryDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.ProductDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageWriterService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de un dataset sintético para pruebas de carga.
+ * <p>
+ * Crea N categorías, M productos y K ficheros subidos con tamaños y distribuciones realistas
+ * (categorías con reparto tipo Zipf, precios log-normales, ficheros de 20 KB a 5 MB) mediante
+ * inserciones por lotes, e informa del progreso y del throughput.
+ * <p>
+ * Se activa con {@code config.generator.enabled=true}; en ese caso sustituye a los datos de ejemplo.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SyntheticDataGenerator {
+
+    private static final String[] BRANDS = {"Sony", "Apple", "Samsung", "HP", "Lenovo", "Bosch", "Philips", "Nike", "Adidas", "Lego", "Canon", "Xiaomi"};
+    private static final String[] NOUNS = {"Notebook", "Camara", "Televisor", "Bicicleta", "Zapatillas", "Auriculares", "Cafetera", "Libro", "Guitarra", "Patinete", "Lampara", "Reloj"};
+    private static final String[] ADJECTIVES = {"Pro", "Ultra HD", "Mini", "Max", "Lite", "Plus", "Deluxe", "Digital", "Classic", "Smart"};
+    private static final String[] PICTURE_TYPES = {"image/jpeg", "image/png", "image/webp"};
+
+    private static final int MIN_FILE_SIZE = 20 * 1024;
+    private static final int MAX_FILE_SIZE = 5 * 1024 * 1024;
+    private static final int FILE_CHUNK_SIZE = 64 * 1024;
+
+    private final ProductDao productDao;
+    private final CategoryDao categoryDao;
+    private final FileStorageWriterService fileStorageWriterService;
+
+    private final DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
+
+    @Getter
+    @Value("${config.generator.enabled:false}")
+    private boolean enabled;
+
+    @Value("${config.generator.categories:11}")
+    private int categories;
+
+    @Value("${config.generator.products:100000}")
+    private int products;
+
+    @Value("${config.generator.files:100}")
+    private int files;
+
+    @Value("${config.generator.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${config.generator.concurrency:4}")
+    private int concurrency;
+
+    @Value("${config.generator.seed:42}")
+    private long seed;
+
+    public Mono<Void> generate() {
+        final SplittableRandom random = new SplittableRandom(seed);
+        final long start = System.nanoTime();
+
+        return generateCategories()
+                .flatMap(savedCategories -> generateFiles(random.split())
+                        .flatMap(pictures -> generateProducts(random.split(), savedCategories, pictures)))
+                .doOnSuccess(v -> log.info("Synthetic dataset generated in {} ms", (System.nanoTime() - start) / 1_000_000))
+                .doOnError(e -> log.error("Error generating synthetic dataset: {}", e.getMessage()));
+    }
+
+    // Las categorías salen del enum CATEGORY (CATEGORY.fromCategory no acepta otros nombres): se crean las N primeras
+    private Mono<List<Category>> generateCategories() {
+        int total = Math.max(1, Math.min(categories, CATEGORY.values().length));
+        if (total < categories) {
+            log.warn("Requested {} categories but only {} are defined in CATEGORY", categories, total);
+        }
+
+        return Flux.fromArray(Arrays.copyOf(CATEGORY.values(), total))
+                .map(cat -> Category.builder().name(cat.name()).build())
+                .collectList()
+                .flatMapMany(categoryDao::saveAll)
+                .collectList()
+                .doOnNext(saved -> log.info("Generated {} categories", saved.size()));
+    }
+
+    private Mono<List<String>> generateFiles(SplittableRandom random) {
+        if (files <= 0) {
+            return Mono.just(List.of());
+        }
+
+        // Se precalculan los tamaños para que el resultado sea reproducible con la misma semilla
+        List<Integer> sizes = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            sizes.add(logNormalSize(random));
+        }
+        ThroughputReporter reporter = new ThroughputReporter("files", files);
+        AtomicLong bytes = new AtomicLong();
+
+        return Flux.range(0, files)
+                .flatMap(i -> {
+                    int size = sizes.get(i);
+                    String contentType = PICTURE_TYPES[i % PICTURE_TYPES.length];
+                    String filename = "picture-" + i + "." + contentType.substring("image/".length());
+                    return fileStorageWriterService.saveContent(filename, contentType, randomContent(size, seed + i))
+                            .doOnNext(r -> {
+                                bytes.addAndGet(size);
+                                reporter.add(1);
+                            });
+                }, Math.max(1, concurrency))
+                .map(resource -> resource.uuid().toString())
+                .collectList()
+                .doOnNext(ids -> log.info("Generated {} files ({} MB)", ids.size(), bytes.get() / (1024 * 1024)));
+    }
+
+    private Mono<Void> generateProducts(SplittableRandom random, List<Category> savedCategories, List<String> pictures) {
+        ThroughputReporter reporter = new ThroughputReporter("products", products);
+        Category[] byRank = savedCategories.toArray(Category[]::new);
+
+        return Flux.range(0, products)
+                .map(i -> buildProduct(random, i, byRank, pictures))
+                .buffer(Math.max(1, batchSize))
+                .flatMap(batch -> productDao.saveAll(batch)
+                        .count()
+                        .doOnNext(reporter::add), Math.max(1, concurrency))
+                .then();
+    }
+
+    private Product buildProduct(SplittableRandom random, int index, Category[] categoriesByRank, List<String> pictures) {
+        String name = BRANDS[random.nextInt(BRANDS.length)] + " "
+                + NOUNS[random.nextInt(NOUNS.length)] + " "
+                + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + index;
+
+        // Precio log-normal centrado en ~60 con cola larga hacia productos caros
+        double price = Math.round(Math.exp(4.1 + random.nextGaussian() * 0.9) * 100.0) / 100.0;
+
+        // ~1 de cada 3 productos tiene imagen
+        String picture = !pictures.isEmpty() && random.nextInt(3) == 0
+                ? pictures.get(random.nextInt(pictures.size()))
+                : null;
+
+        // Fecha de alta repartida en el último año
+        Date createAt = new Date(System.currentTimeMillis() - random.nextLong(365L * 24 * 3600 * 1000));
+
+        return Product.builder()
+                .withName(name)
+                .withPrice(Math.max(0.99, price))
+                .withCreateAt(createAt)
+                .withCategory(categoriesByRank[zipfIndex(random, categoriesByRank.length)])
+                .withPicture(picture)
+                .build();
+    }
+
+    // Distribución tipo Zipf (s=1): la primera categoría es la más frecuente
+    private static int zipfIndex(SplittableRandom random, int n) {
+        double harmonic = 0;
+        for (int i = 1; i <= n; i++) {
+            harmonic += 1.0 / i;
+        }
+        double target = random.nextDouble() * harmonic;
+        double acc = 0;
+        for (int i = 1; i <= n; i++) {
+            acc += 1.0 / i;
+            if (acc >= target) {
+                return i - 1;
+            }
+        }
+        return n - 1;
+    }
+
+    // Tamaño log-normal con mediana ~200 KB, acotado a [20 KB, 5 MB]
+    private static int logNormalSize(SplittableRandom random) {
+        double size = Math.exp(Math.log(200 * 1024) + random.nextGaussian() * 1.0);
+        return (int) Math.max(MIN_FILE_SIZE, Math.min(MAX_FILE_SIZE, size));
+    }
+
+    private Flux<DataBuffer> randomContent(int size, long contentSeed) {
+        return Flux.defer(() -> {
+            SplittableRandom random = new SplittableRandom(contentSeed);
+            int chunks = (size + FILE_CHUNK_SIZE - 1) / FILE_CHUNK_SIZE;
+            return Flux.range(0, chunks).map(chunk -> {
+                int length = Math.min(FILE_CHUNK_SIZE, size - chunk * FILE_CHUNK_SIZE);
+                byte[] bytes = new byte[length];
+                for (int i = 0; i < length; i += 8) {
+                    long value = random.nextLong();
+                    for (int b = 0; b < 8 && i + b < length; b++) {
+                        bytes[i + b] = (byte) (value >>> (b * 8));
+                    }
+                }
+                return dataBufferFactory.wrap(bytes);
+            });
+        });
+    }
+
+    /**
+     * Acumula elementos procesados y registra el progreso cada 10% con el throughput medio.
+     */
+    private static final class ThroughputReporter {
+        private final String what;
+        private final long total;
+        private final long step;
+        private final long start = System.nanoTime();
+        private final AtomicLong done = new AtomicLong();
+
+        private ThroughputReporter(String what, long total) {
+            this.what = what;
+            this.total = total;
+            this.step = Math.max(1, total / 10);
+        }
+
+        private void add(long count) {
+            long before = done.getAndAdd(count);
+            long after = before + count;
+            if (after / step != before / step || after == total) {
+                double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+                log.info("Generated {}/{} {} ({} /s)", after, total, what, Math.round(after / seconds));
+            }
+        }
+    }
+}
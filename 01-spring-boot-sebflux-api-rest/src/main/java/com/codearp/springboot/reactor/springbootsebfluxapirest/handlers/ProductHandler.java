@@ -1,22 +1,220 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.handlers;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ErrorResponse;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
-import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.files.FileStorageFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.BinaryMediaTypes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FormFieldPart;
+import org.springframework.http.codec.multipart.Part;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.NotAcceptableStatusException;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handlers de las rutas funcionales {@code /api/v2/products} (ver {@code EndpointFunctionalConfig}).
+ * <p>
+ * Mismo contrato que {@code ProductRestController} pero sin la resolución de argumentos por reflexión
+ * del modelo anotado: los parámetros se leen del {@link ServerRequest} y la validación del alta
+ * multipart se hace aquí, ya que {@code @Valid} no aplica a las rutas funcionales.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class ProductHandler {
 
-    private final ProductService productService;
+    // Formatos de respuesta de los productos, por orden de preferencia ante un Accept genérico
+    private static final List<MediaType> PRODUCT_MEDIA_TYPES =
+            List.of(MediaType.APPLICATION_JSON, BinaryMediaTypes.APPLICATION_SMILE, BinaryMediaTypes.APPLICATION_CBOR);
+
+    private final ShopFacade shopFacade;
+    private final FileStorageFacade fileStorageFacade;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
 
+    // JSON, Smile o CBOR según Accept (ver BinaryCodecsConfig)
     public Mono<ServerResponse> listPeople(ServerRequest request) {
-        return ServerResponse.ok()
-                .body(productService.recoverALlProduct(), ProductDto.class);
+        return productMediaType(request)
+                .flatMap(mediaType -> ServerResponse.ok()
+                        .contentType(mediaType)
+                        .body(shopFacade.recoverAllProducts(), ProductDto.class));
+    }
+
+    public Mono<ServerResponse> recoverProductById(ServerRequest request) {
+        return productMediaType(request)
+                .flatMap(mediaType -> shopFacade.recoverProductById(request.pathVariable("id"))
+                        .flatMap(productDto -> ServerResponse.ok()
+                                .contentType(mediaType)
+                                .bodyValue(productDto))
+                        .switchIfEmpty(ServerResponse.notFound().build()));
+    }
+
+    // Como POST /api/products: sin validación, el servicio completa fecha y categoría por defecto.
+    // El formato de respuesta se negocia antes de guardar: un 406 no deja un producto guardado
+    public Mono<ServerResponse> saveProduct(ServerRequest request) {
+        return productMediaType(request)
+                .flatMap(mediaType -> request.bodyToMono(ProductDto.class)
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product body is required")))
+                        .flatMap(shopFacade::saveProduct)
+                        .flatMap(savedProduct -> ServerResponse.ok()
+                                .contentType(mediaType)
+                                .bodyValue(savedProduct)));
+    }
+
+    // Partes "product" (JSON) e "image" (opcional), como POST /api/products/v2
+    public Mono<ServerResponse> saveProductWithImage(ServerRequest request) {
+        return request.multipartData()
+                .flatMap(parts -> {
+                    Part productPart = parts.getFirst("product");
+                    if (productPart == null) {
+                        return badRequest(List.of("product: part is required"));
+                    }
+                    Part imagePart = parts.getFirst("image");
+
+                    return readProduct(productPart)
+                            .flatMap(productDto -> {
+                                List<String> errors = validate(productDto);
+                                if (!errors.isEmpty()) {
+                                    return badRequest(errors);
+                                }
+
+                                Mono<ProductDto> saved;
+                                String message;
+                                if (imagePart instanceof FilePart image) {
+                                    // Primero se guarda la imagen y su id se asocia al producto
+                                    saved = fileStorageFacade.saveFile(image)
+                                            .flatMap(fileId -> {
+                                                productDto.setPicture(fileId.uuid().toString());
+                                                return shopFacade.saveProduct(productDto);
+                                            });
+                                    message = "Product saved successfully with image";
+                                } else {
+                                    saved = shopFacade.saveProduct(productDto);
+                                    message = "Product saved successfully without image";
+                                }
+
+                                return saved.flatMap(savedProduct -> {
+                                    Map<String, Object> response = new HashMap<>();
+                                    response.put("product", savedProduct);
+                                    response.put("message", message);
+                                    return ServerResponse.ok()
+                                            .contentType(MediaType.APPLICATION_JSON)
+                                            .bodyValue(response);
+                                });
+                            });
+                });
+    }
+
+    public Mono<ServerResponse> deleteProduct(ServerRequest request) {
+        return shopFacade.deleteProductById(request.pathVariable("id"))
+                .then(ServerResponse.noContent().build());
     }
 
+    // Equivalente a GlobalExceptionHandler, que sólo aplica a los controladores anotados
+    public Mono<ServerResponse> handleError(Throwable ex, ServerRequest request) {
+        HttpStatusCode status;
+        String message;
+        if (ex instanceof ResponseStatusException rse) {
+            log.error("ResponseStatusException on {} {}: {}", request.method(), request.path(), rse.getMessage());
+            status = rse.getStatusCode();
+            message = rse.getReason();
+        } else {
+            log.error("Unhandled exception on {} {}: {}", request.method(), request.path(), ex.getMessage(), ex);
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            message = ex.getMessage();
+        }
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ErrorResponse.of(status, message));
+    }
+
+    private Mono<ProductDto> readProduct(Part part) {
+        Mono<ProductDto> product;
+        if (part instanceof FormFieldPart field) {
+            product = Mono.fromCallable(() -> objectMapper.readValue(field.value(), ProductDto.class));
+        } else {
+            product = DataBufferUtils.join(part.content())
+                    .flatMap(buffer -> Mono.fromCallable(() -> {
+                        try (InputStream in = buffer.asInputStream(true)) {
+                            return objectMapper.readValue(in, ProductDto.class);
+                        }
+                    }));
+        }
+        return product.onErrorMap(IOException.class,
+                e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid product part: " + e.getMessage(), e));
+    }
+
+    // Las rutas funcionales no negocian el formato: sin Content-Type el cuerpo lo escribe el primer codec
+    // capaz (JSON), así que se elige aquí el formato producible con mayor q en Accept; a igual q, el primero
+    // de PRODUCT_MEDIA_TYPES. Sin Accept, JSON; si ninguno es aceptable (q=0 o sin coincidencia), 406
+    private static Mono<MediaType> productMediaType(ServerRequest request) {
+        List<MediaType> accepted = request.headers().accept();
+        if (accepted.isEmpty()) {
+            return Mono.just(MediaType.APPLICATION_JSON);
+        }
+        MediaType best = null;
+        double bestQuality = 0;
+        for (MediaType mediaType : PRODUCT_MEDIA_TYPES) {
+            double quality = qualityOf(mediaType, accepted);
+            if (quality > bestQuality) {
+                best = mediaType;
+                bestQuality = quality;
+            }
+        }
+        return best != null
+                ? Mono.just(best)
+                : Mono.error(new NotAcceptableStatusException(PRODUCT_MEDIA_TYPES));
+    }
+
+    // q del rango de Accept más específico que incluye el tipo (application/json;q=0 gana a */*); 0 si ninguno
+    private static double qualityOf(MediaType mediaType, List<MediaType> accepted) {
+        MediaType match = null;
+        for (MediaType range : accepted) {
+            if (range.includes(mediaType) && (match == null || specificity(range) > specificity(match))) {
+                match = range;
+            }
+        }
+        return match != null ? match.getQualityValue() : 0;
+    }
+
+    // MediaType.isMoreSpecific antepone la q, aquí sólo cuenta el rango: */* < application/* < application/json
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    private List<String> validate(ProductDto productDto) {
+        return validator.validate(productDto).stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .toList();
+    }
+
+    // Mismo cuerpo que el 400 de validación de ProductRestController
+    private static Mono<ServerResponse> badRequest(List<String> errors) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("errors", errors);
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        return ServerResponse.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(response);
+    }
 }
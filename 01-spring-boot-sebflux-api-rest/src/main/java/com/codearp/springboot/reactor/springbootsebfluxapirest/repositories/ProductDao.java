@@ -1,9 +1,16 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 
 @Repository
 public interface ProductDao extends ReactiveCrudRepository<com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product, String> {
 
+    // Paginación por keyset sobre _id: primera página
+    Flux<com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product> findAllByOrderByIdAsc(Limit limit);
+
+    // Paginación por keyset sobre _id: páginas siguientes (id > ultimo id devuelto)
+    Flux<com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
 }
@@ -0,0 +1,26 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.inmemory;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.CategoryDao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Repository
+@Profile("inmem")
+public class InMemoryCategoryDao extends InMemoryReactiveRepository<Category> implements CategoryDao {
+
+    public InMemoryCategoryDao(@Value("${config.inmem.latency:PT0S}") Duration latency,
+                               @Value("${config.inmem.stripes:64}") int stripes) {
+        super(Category::getId, Category::setId, latency, stripes);
+    }
+
+    // Pocas categorías: basta recorrerlas, sin índice secundario
+    @Override
+    public Mono<Category> findByName(String name) {
+        return delayed(() -> store.findFirst(category -> name != null && name.equals(category.getName())));
+    }
+}
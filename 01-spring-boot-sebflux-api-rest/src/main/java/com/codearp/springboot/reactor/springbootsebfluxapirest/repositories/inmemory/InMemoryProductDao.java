@@ -0,0 +1,31 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.inmemory;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.ProductDao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+@Repository
+@Profile("inmem")
+public class InMemoryProductDao extends InMemoryReactiveRepository<Product> implements ProductDao {
+
+    public InMemoryProductDao(@Value("${config.inmem.latency:PT0S}") Duration latency,
+                              @Value("${config.inmem.stripes:64}") int stripes) {
+        super(Product::getId, Product::setId, latency, stripes);
+    }
+
+    @Override
+    public Flux<Product> findAllByOrderByIdAsc(Limit limit) {
+        return delayedMany(() -> store.firstAfter(null, maxOf(limit)));
+    }
+
+    @Override
+    public Flux<Product> findByIdGreaterThanOrderByIdAsc(String id, Limit limit) {
+        return delayedMany(() -> store.firstAfter(id, maxOf(limit)));
+    }
+}
@@ -0,0 +1,188 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.inmemory;
+
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link ReactiveCrudRepository} en memoria para el perfil {@code inmem}: mide controladores, serialización
+ * y Netty sin Mongo. Los documentos se guardan en un {@link StripedStore} y cada operación puede añadir una
+ * latencia artificial ({@code config.inmem.latency}) que simula el round trip a la base de datos.
+ * <p>
+ * A diferencia de Mongo, se devuelven las mismas instancias guardadas (no copias).
+ */
+public abstract class InMemoryReactiveRepository<T> implements ReactiveCrudRepository<T, String> {
+
+    protected final StripedStore<T> store;
+
+    private final Function<T, String> idOf;
+    private final BiConsumer<T, String> assignId;
+    private final Duration latency;
+
+    protected InMemoryReactiveRepository(Function<T, String> idOf, BiConsumer<T, String> assignId,
+                                         Duration latency, int stripes) {
+        this.idOf = idOf;
+        this.assignId = assignId;
+        this.latency = latency == null || latency.isNegative() ? Duration.ZERO : latency;
+        this.store = new StripedStore<>(Math.max(1, stripes));
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        Assert.notNull(entity, "Entity must not be null");
+        return delayed(() -> put(entity));
+    }
+
+    // Como insertMany: un único round trip para el lote
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        Assert.notNull(entities, "The given Iterable of entities must not be null");
+        return delayedMany(() -> {
+            List<S> saved = new ArrayList<>();
+            entities.forEach(entity -> saved.add(put(entity)));
+            return saved;
+        });
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+        Assert.notNull(entityStream, "The given Publisher of entities must not be null");
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<T> findById(String id) {
+        Assert.notNull(id, "The given id must not be null");
+        return delayed(() -> store.get(id));
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        Assert.notNull(id, "The given id must not be null");
+        return delayed(() -> store.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return delayedMany(store::values);
+    }
+
+    // Como $in: un único round trip; los ids que no existen se omiten
+    @Override
+    public Flux<T> findAllById(Iterable<String> ids) {
+        Assert.notNull(ids, "The given Iterable of ids must not be null");
+        return delayedMany(() -> {
+            List<T> found = new ArrayList<>();
+            for (String id : ids) {
+                T value = store.get(id);
+                if (value != null) {
+                    found.add(value);
+                }
+            }
+            return found;
+        });
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return delayed(() -> (long) store.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        Assert.notNull(id, "The given id must not be null");
+        return delayedRun(() -> store.remove(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        Assert.notNull(entity, "The given entity must not be null");
+        return deleteById(idOf.apply(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        Assert.notNull(ids, "The given Iterable of ids must not be null");
+        return delayedRun(() -> ids.forEach(store::remove));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        Assert.notNull(entities, "The given Iterable of entities must not be null");
+        return delayedRun(() -> entities.forEach(entity -> store.remove(idOf.apply(entity))));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+        return Flux.from(entityStream)
+                .map(idOf)
+                .collectList()
+                .flatMap(this::deleteAllById);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return delayedRun(store::clear);
+    }
+
+    protected <R> Mono<R> delayed(Supplier<R> operation) {
+        Mono<R> result = Mono.fromSupplier(operation);
+        return latency.isZero() ? result : Mono.delay(latency).then(result);
+    }
+
+    protected <R> Flux<R> delayedMany(Supplier<? extends Iterable<R>> operation) {
+        Flux<R> result = Flux.defer(() -> Flux.fromIterable(operation.get()));
+        return latency.isZero() ? result : Mono.delay(latency).thenMany(result);
+    }
+
+    protected Mono<Void> delayedRun(Runnable operation) {
+        Mono<Void> result = Mono.fromRunnable(operation);
+        return latency.isZero() ? result : Mono.delay(latency).then(result);
+    }
+
+    protected static int maxOf(Limit limit) {
+        return limit == null || limit.isUnlimited() ? Integer.MAX_VALUE : limit.max();
+    }
+
+    // Ids con el mismo formato y orden (por instante de creación) que los que genera Mongo
+    private <S extends T> S put(S entity) {
+        String id = idOf.apply(entity);
+        if (id == null) {
+            id = new ObjectId().toHexString();
+            assignId.accept(entity, id);
+        }
+        store.put(id, entity);
+        return entity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache en memoria de los documentos {@link Category} indexada por {@link CATEGORY}.
+ * <p>
+ * Las categorías salen de un enum fijo y casi nunca cambian, así que resolverlas en cada
+ * escritura de producto contra Mongo es un round trip innecesario.
+ */
+public interface CategoryCacheService {
+
+    /**
+     * Devuelve la categoría desde memoria; si no está cargada, la lee de Mongo y la guarda.
+     *
+     * @return la categoría, o {@link Mono#empty()} si no existe en base de datos
+     */
+    Mono<Category> findByCategory(CATEGORY category);
+
+    /** Recarga todas las categorías desde Mongo reemplazando las entradas existentes. */
+    Mono<Void> refreshAll();
+
+    void invalidate(CATEGORY category);
+
+    void invalidateAll();
+}
@@ -0,0 +1,25 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductChangeEventDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import reactor.core.publisher.Flux;
+
+/**
+ * Feed en proceso de los cambios del catálogo (altas, modificaciones y bajas de productos).
+ * <p>
+ * Guarda los últimos {@code config.products.changes.replay-size} eventos para que un cliente que se
+ * reconecta reciba lo que se perdió. Si lo perdido ya no está en el buffer recibe un evento
+ * {@link ProductChangeEventDto.Type#RESET} y debe volver a descargar el catálogo completo.
+ */
+public interface ProductChangeFeed {
+
+    void publishUpsert(ProductDto product);
+
+    void publishDelete(String productId);
+
+    /**
+     * @param lastEventId última secuencia recibida por el cliente; null para recibir sólo los cambios nuevos
+     * @return eventos con secuencia mayor que {@code lastEventId}, seguidos de los cambios en vivo
+     */
+    Flux<ProductChangeEventDto> changes(Long lastEventId);
+}
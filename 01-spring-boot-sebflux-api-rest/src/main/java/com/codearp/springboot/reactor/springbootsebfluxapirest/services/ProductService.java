@@ -1,14 +1,22 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.services;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductBatchDto;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductImportSummaryDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductPageDto;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface ProductService {
 
     Flux<ProductDto> recoverALlProduct();
+    Mono<ProductPageDto> recoverProductPage(String cursor, Integer size);
     Mono<ProductDto> recoverProductById(String id);
+    Mono<ProductBatchDto> recoverProductsByIds(List<String> ids);
 
     Mono<ProductDto> saveProduct(ProductDto productDto);
+    Flux<ProductImportSummaryDto.BatchResult> importProducts(Flux<ProductDto> products, Integer batchSize);
     Mono<Void> deleteProductById(String id);
 }
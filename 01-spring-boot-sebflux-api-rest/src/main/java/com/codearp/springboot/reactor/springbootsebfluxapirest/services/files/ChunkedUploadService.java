@@ -0,0 +1,63 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Subidas reanudables por trozos para ficheros grandes.
+ * <p>
+ * Protocolo: se crea una sesión indicando nombre, tipo y tamaño total; el cliente envía trozos en cualquier
+ * orden indicando su offset, consulta los rangos ya recibidos si se corta la conexión y reenvía sólo lo que
+ * falta; al finalizar, el fichero se promociona al almacenamiento de {@link FileStorageWriterService}.
+ * Los trozos se escriben con escrituras posicionales sobre un fichero {@code .part} reservado con el tamaño
+ * final, así que no hace falta reensamblar nada. La sesión se persiste en disco junto al {@code .part} y
+ * sobrevive a reinicios hasta que caduca.
+ */
+public interface ChunkedUploadService {
+
+    /** Rango de bytes recibido, ambos extremos inclusive (como en {@code Content-Range}) **/
+    record ByteRange(long start, long end) {
+        public long length() {
+            return end - start + 1;
+        }
+    }
+
+    /**
+     * Estado de una subida.
+     *
+     * @param replaces     recurso que se sustituye al finalizar (como {@code updateFile}); null en altas
+     * @param received     rangos recibidos, ordenados y fusionados
+     * @param expiresAt    epoch millis a partir del cual la sesión se descarta
+     */
+    // "complete" se expone en la API pero se deriva de received al leer la sesión persistida
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record UploadSession(UUID uploadId, String filename, String contentType, long size, String replaces,
+                         List<ByteRange> received, long expiresAt) {
+
+        public long receivedBytes() {
+            return received.stream().mapToLong(ByteRange::length).sum();
+        }
+
+        public boolean isComplete() {
+            return receivedBytes() == size;
+        }
+    }
+
+    Mono<UploadSession> create(String filename, String contentType, long size, String replaces);
+
+    /** Escribe un trozo a partir de {@code offset}; el trozo no puede sobrepasar el tamaño declarado **/
+    Mono<UploadSession> writeChunk(UUID uploadId, long offset, Flux<DataBuffer> content);
+
+    /** Vacío si la sesión no existe o ha caducado **/
+    Mono<UploadSession> status(UUID uploadId);
+
+    /** Promociona el fichero completo al almacenamiento y cierra la sesión **/
+    Mono<FileStorageService.ResourceUUID> complete(UUID uploadId);
+
+    Mono<Void> abort(UUID uploadId);
+}
@@ -0,0 +1,143 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * E/S de contenido y metadatos de ficheros sobre {@link AsynchronousFileChannel} con
+ * {@code DataBufferUtils.write}/{@code readAsynchronousFileChannel}: cada lectura o escritura se encadena
+ * por completion handlers, sin un hilo bloqueado por operación en curso.
+ * <p>
+ * Los canales se abren sobre un pool propio ({@code file-aio}, {@code config.uploads.aio.threads}, por defecto
+ * uno por núcleo) en vez del pool por defecto de la JVM, que no tiene límite de hilos; se publica con las
+ * métricas de executor de Micrometer con nombre {@code file.storage.aio}. Las señales de los flujos llegan en
+ * esos hilos: no se debe bloquear aguas abajo sin cambiar de scheduler.
+ * <p>
+ * Borrado y tamaño no tienen API asíncrona en NIO: se ejecutan en {@link FileStorageScheduler#io()}.
+ */
+@Component
+@Slf4j
+public class FileStorageIO {
+
+    private static final Set<OpenOption> READ = Set.of(StandardOpenOption.READ);
+    private static final Set<OpenOption> REPLACE =
+            Set.of(StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    private static final int JSON_BUFFER_SIZE = 4096;
+
+    private final ObjectMapper objectMapper;
+    private final FileStorageScheduler fileStorageScheduler;
+    private final ExecutorService delegate;
+    private final ExecutorService executor;
+
+    public FileStorageIO(ObjectMapper objectMapper,
+                         FileStorageScheduler fileStorageScheduler,
+                         MeterRegistry meterRegistry,
+                         @Value("${config.uploads.aio.threads:0}") int threads) {
+        this.objectMapper = objectMapper;
+        this.fileStorageScheduler = fileStorageScheduler;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.delegate = Executors.newFixedThreadPool(size, Thread.ofPlatform().name("file-aio-", 0).daemon().factory());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, delegate, "file.storage.aio", Tags.empty());
+        log.info("File storage async channel pool: {} threads", size);
+    }
+
+    /** Lee el fichero completo en buffers de {@code bufferSize}; el consumidor libera cada buffer **/
+    public Flux<DataBuffer> read(Path file, int bufferSize) {
+        return DataBufferUtils.readAsynchronousFileChannel(
+                () -> AsynchronousFileChannel.open(file, READ, executor),
+                DefaultDataBufferFactory.sharedInstance,
+                bufferSize);
+    }
+
+    /**
+     * Escribe {@code content} en {@code target} (opciones como {@code Files.newOutputStream}; por defecto
+     * crea o trunca) y libera los buffers. Emite los bytes escritos.
+     */
+    public Mono<Long> write(Publisher<DataBuffer> content, Path target, OpenOption... options) {
+        Set<OpenOption> optionSet = options.length > 0 ? Set.of(options) : REPLACE;
+        return Mono.defer(() -> {
+            AtomicLong written = new AtomicLong();
+            Flux<DataBuffer> counted = Flux.from(content).doOnNext(buffer -> written.addAndGet(buffer.readableByteCount()));
+            return Flux.using(
+                            () -> AsynchronousFileChannel.open(target, optionSet, executor),
+                            channel -> DataBufferUtils.write(counted, channel),
+                            FileStorageIO::closeQuietly)
+                    .doOnNext(DataBufferUtils::release)
+                    .then(Mono.fromSupplier(written::get));
+        });
+    }
+
+    /** Serializa {@code value} con el ObjectMapper y lo escribe en {@code target}, reemplazándolo **/
+    public Mono<Long> writeJson(Path target, Object value) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(value))
+                .flatMap(bytes -> write(Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes)), target));
+    }
+
+    /** Lee y deserializa un JSON; vacío si el fichero no existe **/
+    public <T> Mono<T> readJson(Path file, Class<T> type) {
+        return DataBufferUtils.join(read(file, JSON_BUFFER_SIZE))
+                .map(buffer -> {
+                    try (InputStream in = buffer.asInputStream(true)) {
+                        return objectMapper.readValue(in, type);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Error parsing JSON " + file + ": " + e.getMessage(), e);
+                    }
+                })
+                .onErrorResume(NoSuchFileException.class, e -> Mono.empty());
+    }
+
+    /** Borra los ficheros que existan; sin API asíncrona en NIO, en el scheduler de I/O **/
+    public Mono<Void> deleteIfExists(Path... files) {
+        return Mono.fromCallable(() -> {
+                    for (Path file : files) {
+                        Files.deleteIfExists(file);
+                    }
+                    return files.length;
+                })
+                .subscribeOn(fileStorageScheduler.io())
+                .then();
+    }
+
+    public Mono<Long> size(Path file) {
+        return Mono.fromCallable(() -> Files.size(file)).subscribeOn(fileStorageScheduler.io());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        delegate.shutdown();
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Error closing file channel: {}", e.getMessage());
+        }
+    }
+}
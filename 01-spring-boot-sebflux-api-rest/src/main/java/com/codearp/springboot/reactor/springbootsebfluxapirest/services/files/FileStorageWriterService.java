@@ -1,11 +1,24 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+
 public interface FileStorageWriterService {
 
     Mono<FileStorageService.ResourceUUID> saveFile( FilePart filePart );
 
     Mono<FileStorageService.ResourceUUID> updateFile(String resourceIdOld, FilePart filePart);
+
+    /** Guarda contenido que no llega como multipart (generadores, procesos internos) **/
+    Mono<FileStorageService.ResourceUUID> saveContent(String filename, String contentType, Flux<DataBuffer> content);
+
+    /**
+     * Promociona un fichero ya escrito en el mismo volumen (p. ej. una subida por trozos) moviéndolo
+     * atómicamente al almacenamiento. Si {@code resourceIdOld} no es null, lo sustituye como {@link #updateFile}.
+     */
+    Mono<FileStorageService.ResourceUUID> promoteFile(String filename, String contentType, Path source, String resourceIdOld);
 }
@@ -0,0 +1,396 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ChunkedUploadService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageWriterService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageScheduler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+@Service
+@Slf4j
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final String CHUNKS_DIR = "chunks";
+
+    private final ObjectMapper objectMapper;
+    private final FileStorageWriterService fileStorageWriterService;
+    private final FileStorageScheduler fileStorageScheduler;
+    private final Path chunksDir;
+    private final long maxSize;
+    private final Duration sessionTtl;
+
+    // Sesiones activas; compute() sobre el uploadId serializa el registro de trozos de una misma subida.
+    // Las que no están en memoria (reinicio) se cargan de <uploadId>.json bajo demanda.
+    private final Map<UUID, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    // Un StampedLock por subida (no pertenece a ningún hilo, así que se libera desde cualquier señal reactiva):
+    // los trozos lo toman en modo lectura y pueden escribirse en paralelo; completar, abortar y purgar lo toman
+    // en modo escritura, así que no se finaliza ni se borra un .part mientras un trozo lo está escribiendo.
+    private final Map<UUID, StampedLock> locks = new ConcurrentHashMap<>();
+
+    private Disposable purgeTask;
+
+    public ChunkedUploadServiceImpl(ObjectMapper objectMapper,
+                                    FileStorageWriterService fileStorageWriterService,
+                                    FileStorageScheduler fileStorageScheduler,
+                                    @Value("${file.storage.path:../uploads}") String uploadDir,
+                                    @Value("${config.uploads.chunked.max-size:4294967296}") long maxSize,
+                                    @Value("${config.uploads.chunked.session-ttl:PT24H}") Duration sessionTtl) {
+        this.objectMapper = objectMapper;
+        this.fileStorageWriterService = fileStorageWriterService;
+        this.fileStorageScheduler = fileStorageScheduler;
+        // Dentro del directorio de uploads: la promoción final es un rename en el mismo volumen
+        this.chunksDir = Path.of(uploadDir).toAbsolutePath().normalize().resolve(CHUNKS_DIR);
+        this.maxSize = maxSize;
+        this.sessionTtl = sessionTtl;
+    }
+
+    // Limpia al arrancar las subidas abandonadas y después periódicamente
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedulePurge() {
+        purgeTask = Flux.interval(Duration.ZERO, Duration.ofHours(1))
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::purgeExpired)
+                        .subscribeOn(fileStorageScheduler.io())
+                        .onErrorResume(e -> {
+                            log.error("Error purging expired chunked uploads: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (purgeTask != null) {
+            purgeTask.dispose();
+        }
+    }
+
+    @Override
+    public Mono<UploadSession> create(String filename, String contentType, long size, String replaces) {
+        if (filename == null || filename.isBlank()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filename is required"));
+        }
+        if (size <= 0 || size > maxSize) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be between 1 and " + maxSize + " bytes"));
+        }
+        if (replaces != null && !FileStorageService.isValidUUID(replaces)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid resource ID to replace: " + replaces));
+        }
+
+        UploadSession session = new UploadSession(
+                UUID.randomUUID(),
+                filename,
+                contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                size,
+                replaces,
+                List.of(),
+                expiry()
+        );
+
+        return Mono.fromCallable(() -> {
+                    Files.createDirectories(chunksDir);
+                    // Reserva el tamaño final: cada trozo se escribe en su posición sin reensamblar
+                    try (RandomAccessFile file = new RandomAccessFile(partPath(session.uploadId()).toFile(), "rw")) {
+                        file.setLength(size);
+                    }
+                    persist(session);
+                    sessions.put(session.uploadId(), session);
+                    return session;
+                })
+                .subscribeOn(fileStorageScheduler.io())
+                .doOnSuccess(s -> log.info("Chunked upload {} created for {} ({} bytes)", s.uploadId(), filename, size));
+    }
+
+    @Override
+    public Mono<UploadSession> writeChunk(UUID uploadId, long offset, Flux<DataBuffer> content) {
+        return session(uploadId)
+                .switchIfEmpty(Mono.error(notFound(uploadId)))
+                .flatMap(session -> {
+                    if (offset < 0 || offset >= session.size()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+                                "Offset " + offset + " outside upload of " + session.size() + " bytes"));
+                    }
+
+                    long limit = session.size() - offset;
+                    AtomicLong written = new AtomicLong();
+                    Flux<DataBuffer> limited = content.handle((buffer, sink) -> {
+                        if (written.addAndGet(buffer.readableByteCount()) > limit) {
+                            DataBufferUtils.release(buffer);
+                            sink.error(new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+                                    "Chunk exceeds declared size of " + session.size() + " bytes"));
+                        } else {
+                            sink.next(buffer);
+                        }
+                    });
+
+                    StampedLock lock = lock(uploadId);
+                    long stamp = lock.tryReadLock();
+                    if (stamp == 0L) {
+                        return Mono.error(busy(uploadId));
+                    }
+                    Runnable unlock = unlockOnce(() -> lock.unlockRead(stamp));
+
+                    // Escritura posicional: trozos de la misma subida pueden llegar en paralelo y en cualquier orden.
+                    // El canal se abre en boundedElastic, nunca en el hilo de la petición.
+                    return Mono.fromCallable(() -> AsynchronousFileChannel.open(partPath(uploadId), StandardOpenOption.WRITE))
+                            .subscribeOn(fileStorageScheduler.io())
+                            .flatMapMany(channel -> DataBufferUtils.write(limited, channel, offset)
+                                    .doFinally(signal -> closeQuietly(channel)))
+                            .doOnNext(DataBufferUtils::release)
+                            // Sólo se registra el trozo completo: si la conexión se corta a mitad, el cliente lo reenvía entero
+                            .then(Mono.fromCallable(() -> record(uploadId, offset, written.get()))
+                                    .subscribeOn(fileStorageScheduler.io()))
+                            // Se libera antes de emitir la respuesta, para que el cliente pueda completar justo después
+                            .doOnTerminate(unlock)
+                            .doOnCancel(unlock);
+                })
+                .doOnError(e -> log.warn("Error writing chunk of upload {} at offset {}: {}", uploadId, offset, e.getMessage()));
+    }
+
+    @Override
+    public Mono<UploadSession> status(UUID uploadId) {
+        return session(uploadId);
+    }
+
+    @Override
+    public Mono<FileStorageService.ResourceUUID> complete(UUID uploadId) {
+        return session(uploadId)
+                .switchIfEmpty(Mono.error(notFound(uploadId)))
+                .flatMap(session -> {
+                    if (!session.isComplete()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                "Upload incomplete: " + session.receivedBytes() + " of " + session.size() + " bytes received"));
+                    }
+                    // Exclusivo: rechaza otra finalización y los trozos que lleguen mientras se promociona el .part
+                    StampedLock lock = lock(uploadId);
+                    long stamp = lock.tryWriteLock();
+                    if (stamp == 0L) {
+                        return Mono.error(busy(uploadId));
+                    }
+                    Runnable unlock = unlockOnce(() -> lock.unlockWrite(stamp));
+                    return fileStorageWriterService.promoteFile(session.filename(), session.contentType(), partPath(uploadId), session.replaces())
+                            .flatMap(resourceUUID -> Mono.fromCallable(() -> Files.deleteIfExists(sessionPath(uploadId)))
+                                    .subscribeOn(fileStorageScheduler.io())
+                                    .doOnSuccess(deleted -> {
+                                        sessions.remove(uploadId);
+                                        locks.remove(uploadId, lock);
+                                    })
+                                    .thenReturn(resourceUUID))
+                            .doOnTerminate(unlock)
+                            .doOnCancel(unlock);
+                })
+                .doOnSuccess(r -> log.info("Chunked upload {} completed as resource {}", uploadId, r.uuid()));
+    }
+
+    @Override
+    public Mono<Void> abort(UUID uploadId) {
+        return Mono.fromRunnable(() -> {
+                    if (!deleteIfIdle(uploadId)) {
+                        throw busy(uploadId);
+                    }
+                })
+                .subscribeOn(fileStorageScheduler.io())
+                .then();
+    }
+
+    private Mono<UploadSession> session(UUID uploadId) {
+        if (uploadId == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Upload ID is required"));
+        }
+        UploadSession cached = sessions.get(uploadId);
+        Mono<UploadSession> found = cached != null
+                ? Mono.just(cached)
+                : Mono.fromCallable(() -> load(uploadId)).subscribeOn(fileStorageScheduler.io());
+        return found.filter(session -> session.expiresAt() > System.currentTimeMillis());
+    }
+
+    private UploadSession load(UUID uploadId) throws IOException {
+        Path json = sessionPath(uploadId);
+        if (!Files.exists(json) || !Files.exists(partPath(uploadId))) {
+            return null;
+        }
+        UploadSession loaded = objectMapper.readValue(json.toFile(), UploadSession.class);
+        UploadSession previous = sessions.putIfAbsent(uploadId, loaded);
+        return previous != null ? previous : loaded;
+    }
+
+    private UploadSession record(UUID uploadId, long offset, long length) {
+        UploadSession updated = sessions.compute(uploadId, (id, current) -> {
+            if (current == null) {
+                throw notFound(uploadId);
+            }
+            List<ByteRange> received = length > 0
+                    ? merge(current.received(), new ByteRange(offset, offset + length - 1))
+                    : current.received();
+            UploadSession session = new UploadSession(current.uploadId(), current.filename(), current.contentType(),
+                    current.size(), current.replaces(), received, expiry());
+            persist(session);
+            return session;
+        });
+        log.debug("Upload {}: {} of {} bytes received", uploadId, updated.receivedBytes(), updated.size());
+        return updated;
+    }
+
+    /** Inserta el rango y fusiona los solapados o contiguos; la lista resultante está ordenada **/
+    static List<ByteRange> merge(List<ByteRange> ranges, ByteRange added) {
+        List<ByteRange> all = new ArrayList<>(ranges);
+        all.add(added);
+        all.sort(Comparator.comparingLong(ByteRange::start));
+
+        List<ByteRange> merged = new ArrayList<>(all.size());
+        ByteRange current = all.get(0);
+        for (int i = 1; i < all.size(); i++) {
+            ByteRange next = all.get(i);
+            if (next.start() <= current.end() + 1) {
+                current = new ByteRange(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return List.copyOf(merged);
+    }
+
+    private void purgeExpired() {
+        if (!Files.isDirectory(chunksDir)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(chunksDir, "*.json")) {
+            for (Path json : stream) {
+                String fileName = json.getFileName().toString();
+                String id = fileName.substring(0, fileName.length() - ".json".length());
+                if (!FileStorageService.isValidUUID(id)) {
+                    continue;
+                }
+                UUID uploadId = UUID.fromString(id);
+                UploadSession session = sessions.get(uploadId);
+                long expiresAt = session != null ? session.expiresAt() : readExpiry(json);
+                // Una subida con trozos escribiéndose se deja para la siguiente pasada
+                if (expiresAt <= now && deleteIfIdle(uploadId)) {
+                    purged++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error scanning chunked uploads in " + chunksDir, e);
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired chunked uploads", purged);
+        }
+    }
+
+    private long readExpiry(Path json) {
+        try {
+            return objectMapper.readValue(json.toFile(), UploadSession.class).expiresAt();
+        } catch (IOException e) {
+            // Sesión ilegible: se trata como caducada
+            return 0;
+        }
+    }
+
+    /** Borra la subida si nadie la está usando; false si hay trozos escribiéndose o se está finalizando **/
+    private boolean deleteIfIdle(UUID uploadId) {
+        StampedLock lock = lock(uploadId);
+        long stamp = lock.tryWriteLock();
+        if (stamp == 0L) {
+            return false;
+        }
+        try {
+            sessions.remove(uploadId);
+            Files.deleteIfExists(partPath(uploadId));
+            Files.deleteIfExists(sessionPath(uploadId));
+        } catch (IOException e) {
+            log.warn("Error deleting chunked upload {}: {}", uploadId, e.getMessage());
+        } finally {
+            locks.remove(uploadId, lock);
+            lock.unlockWrite(stamp);
+        }
+        return true;
+    }
+
+    // doOnTerminate y doOnCancel pueden llegar los dos (cancelación tras el valor): se desbloquea una sola vez
+    private static Runnable unlockOnce(Runnable unlock) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                unlock.run();
+            }
+        };
+    }
+
+    private StampedLock lock(UUID uploadId) {
+        return locks.computeIfAbsent(uploadId, id -> new StampedLock());
+    }
+
+    private void persist(UploadSession session) {
+        try {
+            objectMapper.writeValue(sessionPath(session.uploadId()).toFile(), session);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error saving upload session " + session.uploadId(), e);
+        }
+    }
+
+    private long expiry() {
+        return System.currentTimeMillis() + sessionTtl.toMillis();
+    }
+
+    private Path partPath(UUID uploadId) {
+        return chunksDir.resolve(uploadId + ".part");
+    }
+
+    private Path sessionPath(UUID uploadId) {
+        return chunksDir.resolve(uploadId + ".json");
+    }
+
+    private void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Error closing upload channel: {}", e.getMessage());
+        }
+    }
+
+    private static ResponseStatusException busy(UUID uploadId) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Upload " + uploadId + " is being written or completed");
+    }
+
+    private static ResponseStatusException notFound(UUID uploadId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found: " + uploadId);
+    }
+}
@@ -0,0 +1,280 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ContentAddressedStore;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class ContentAddressedStoreImpl implements ContentAddressedStore {
+
+    private static final String BLOBS_DIR = "blobs";
+    private static final String TMP_DIR = "tmp";
+    private static final String REFS_SUFFIX = ".refs";
+    private static final int LOCK_STRIPES = 64;
+
+    private final boolean enabled;
+    private final Path blobsDir;
+    private final FileStorageScheduler fileStorageScheduler;
+
+    // hash -> recursos que lo referencian. Los mapas sólo se tocan en memoria; la E/S de cada blob
+    // (mover, enlazar, borrar, .refs) se serializa con un lock por franja de hash, fuera de compute()
+    private final Map<String, Set<UUID>> references = new ConcurrentHashMap<>();
+    private final Map<UUID, String> hashByResource = new ConcurrentHashMap<>();
+    private final ReentrantLock[] blobLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public ContentAddressedStoreImpl(@Value("${file.storage.path:../uploads}") String uploadDir,
+                                     @Value("${config.uploads.dedup.enabled:false}") boolean enabled,
+                                     FileStorageScheduler fileStorageScheduler) {
+        this.enabled = enabled;
+        this.fileStorageScheduler = fileStorageScheduler;
+        this.blobsDir = Path.of(uploadDir).toAbsolutePath().normalize().resolve(BLOBS_DIR);
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // Las referencias se cargan aunque la deduplicación esté desactivada: los recursos ya enlazados se siguen liberando
+        Mono.fromRunnable(() -> {
+                    if (enabled) {
+                        checkHardLinks();
+                    }
+                    loadReferences();
+                })
+                .subscribeOn(fileStorageScheduler.io())
+                .subscribe(
+                        v -> { },
+                        e -> log.error("Error loading content-addressed references from {}: {}", blobsDir, e.getMessage())
+                );
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Mono<String> store(UUID resourceId, Flux<DataBuffer> content, Path target) {
+        Path tmp = blobsDir.resolve(TMP_DIR).resolve(resourceId + ".part");
+
+        return Mono.defer(() -> {
+            MessageDigest digest = sha256();
+            return Mono.fromCallable(() -> Files.createDirectories(tmp.getParent()))
+                    .subscribeOn(fileStorageScheduler.io())
+                    // Un solo recorrido: cada buffer actualiza el digest y se escribe a disco
+                    .then(DataBufferUtils.write(content.doOnNext(buffer -> update(digest, buffer)), tmp,
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+                    .then(Mono.fromCallable(() -> commit(resourceId, tmp, HexFormat.of().formatHex(digest.digest()), target))
+                            .subscribeOn(fileStorageScheduler.io()));
+        }).onErrorResume(e -> Mono.fromRunnable(() -> deleteQuietly(tmp))
+                .subscribeOn(fileStorageScheduler.io())
+                .then(Mono.error(e)));
+    }
+
+    @Override
+    public void release(UUID resourceId) {
+        if (resourceId == null) {
+            return;
+        }
+        String hash = hashByResource.remove(resourceId);
+        if (hash == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Set<UUID> ids = references.get(hash);
+            if (ids == null) {
+                return;
+            }
+            ids.remove(resourceId);
+            if (ids.isEmpty()) {
+                references.remove(hash);
+                deleteQuietly(blobPath(hash));
+                deleteQuietly(refsPath(hash));
+                log.debug("Blob {} deleted, no references left", hash);
+            } else {
+                writeRefs(hash, ids);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int references(String sha256) {
+        Set<UUID> ids = references.get(sha256);
+        return ids != null ? ids.size() : 0;
+    }
+
+    private String commit(UUID resourceId, Path tmp, String hash, Path target) {
+        Path blob = blobPath(hash);
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            boolean created = false;
+            try {
+                if (Files.exists(blob)) {
+                    Files.delete(tmp);
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+                    created = true;
+                }
+                link(blob, target);
+            } catch (IOException e) {
+                // Un blob recién creado y sin referencias no debe quedarse huérfano
+                if (created && !references.containsKey(hash)) {
+                    deleteQuietly(blob);
+                }
+                throw new UncheckedIOException("Error storing blob " + hash, e);
+            }
+            Set<UUID> ids = references.computeIfAbsent(hash, h -> ConcurrentHashMap.newKeySet());
+            ids.add(resourceId);
+            writeRefs(hash, ids);
+        } finally {
+            lock.unlock();
+        }
+        hashByResource.put(resourceId, hash);
+        return hash;
+    }
+
+    // Enlace duro: mismo inode que el blob, así que lectores, zero-copy y page cache lo comparten.
+    // Sin enlaces duros no hay deduplicación posible: la subida falla en lugar de copiar el blob en silencio.
+    private void link(Path blob, Path target) throws IOException {
+        try {
+            Files.createLink(target, blob);
+        } catch (UnsupportedOperationException | IOException e) {
+            log.error("Could not hard-link {} to blob {}: {}", target, blob, e.toString());
+            throw e instanceof IOException io ? io : new IOException(
+                    "Hard links are not supported under " + blobsDir + "; disable config.uploads.dedup.enabled", e);
+        }
+    }
+
+    // Comprueba al arrancar que el sistema de ficheros admite enlaces duros, para avisar antes de la primera subida
+    private void checkHardLinks() {
+        Path tmpDir = blobsDir.resolve(TMP_DIR);
+        Path probe = tmpDir.resolve("link-probe");
+        Path probeLink = tmpDir.resolve("link-probe.link");
+        try {
+            Files.createDirectories(tmpDir);
+            Files.deleteIfExists(probeLink);
+            Files.write(probe, new byte[0]);
+            Files.createLink(probeLink, probe);
+        } catch (UnsupportedOperationException | IOException e) {
+            log.error("Hard links are not supported under {}: uploads will fail while config.uploads.dedup.enabled=true ({})",
+                    blobsDir, e.toString());
+        } finally {
+            deleteQuietly(probeLink);
+            deleteQuietly(probe);
+        }
+    }
+
+    private void loadReferences() {
+        if (!Files.isDirectory(blobsDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(blobsDir, 2)) {
+            files.filter(p -> p.getFileName().toString().endsWith(REFS_SUFFIX)).forEach(refs -> {
+                String name = refs.getFileName().toString();
+                String hash = name.substring(0, name.length() - REFS_SUFFIX.length());
+                try {
+                    Set<UUID> ids = ConcurrentHashMap.newKeySet();
+                    for (String line : Files.readAllLines(refs)) {
+                        if (!line.isBlank()) {
+                            ids.add(UUID.fromString(line.trim()));
+                        }
+                    }
+                    references.put(hash, ids);
+                    ids.forEach(id -> hashByResource.put(id, hash));
+                } catch (Exception e) {
+                    log.warn("Skipping unreadable references file {}: {}", refs, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Subidas interrumpidas en un arranque anterior
+        Path tmpDir = blobsDir.resolve(TMP_DIR);
+        if (Files.isDirectory(tmpDir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(tmpDir, "*.part")) {
+                stream.forEach(this::deleteQuietly);
+            } catch (IOException e) {
+                log.warn("Could not clean {}: {}", tmpDir, e.getMessage());
+            }
+        }
+        log.info("Content-addressed store loaded {} blobs, {} references", references.size(), hashByResource.size());
+    }
+
+    private void writeRefs(String hash, Set<UUID> ids) {
+        try {
+            Files.createDirectories(refsPath(hash).getParent());
+            Files.write(refsPath(hash), ids.stream().map(UUID::toString).sorted().toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing references for blob " + hash, e);
+        }
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return blobLocks[Math.floorMod(hash.hashCode(), blobLocks.length)];
+    }
+
+    private Path blobPath(String hash) {
+        return blobsDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path refsPath(String hash) {
+        return blobsDir.resolve(hash.substring(0, 2)).resolve(hash + REFS_SUFFIX);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void update(MessageDigest digest, DataBuffer buffer) {
+        // Vistas de sólo lectura: no mueven la posición de lectura del buffer que se escribe después
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            iterator.forEachRemaining(digest::update);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,19 +1,19 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileMetadataIndex;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageMetrics;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageReadService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageScheduler;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferFactory;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.io.ByteArrayOutputStream;
 import java.nio.file.Files;
@@ -28,8 +28,11 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
     @Value("${file.storage.path:../uploads}")
     private String uploadDir;
 
-    private final DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
     private final ObjectMapper objectMapper;
+    private final FileMetadataIndex fileMetadataIndex;
+    private final FileStorageMetrics fileStorageMetrics;
+    private final FileStorageScheduler fileStorageScheduler;
+    private final FileStorageIO fileStorageIO;
 
     @Override
     public Flux<DataBuffer> readContentFileAsDataBuffer(String resourceId) {
@@ -43,15 +46,12 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
                 FileStorageService.buildNameFileUniqueNormalice(UUID.fromString(resourceId))
         );
 
-        return DataBufferUtils.read(
-                        filePath,
-                        dataBufferFactory,
-                        4096
-                )
-                .subscribeOn(Schedulers.boundedElastic())
+        Flux<DataBuffer> content = fileStorageIO.read(filePath, 4096)
                 .doOnError(e ->
                         log.error("Error reading file with resource ID {}: {}", resourceId, e.getMessage())
                 );
+        return fileStorageMetrics.timed(FileStorageMetrics.READ,
+                fileStorageMetrics.countBytes(FileStorageMetrics.READ, content));
     }
 
     @Override
@@ -61,7 +61,12 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
 
     @Override
     public Mono<FileStorageService.ResourceDetail> getMetadataFileByResourceId(String resourceId) {
-        return null;
+
+        if (!FileStorageService.isValidUUID(resourceId)) {
+            return Mono.error(new IllegalArgumentException("Invalid UUID"));
+        }
+
+        return fileMetadataIndex.findById(UUID.fromString(resourceId));
     }
 
     @Override
@@ -71,34 +76,21 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
             return Mono.error(new IllegalArgumentException("Invalid UUID"));
         }
 
-        return Mono.fromCallable(() -> {
-
-            UUID uuid = UUID.fromString(resourceId);
-
-            Path filePath = FileStorageService.amountFileToPath(
-                    Path.of(uploadDir),
-                    FileStorageService.buildNameFileUniqueNormalice(uuid)
-            );
-
-            if (!Files.exists(filePath)) {
-                throw new IllegalArgumentException("File not found");
-            }
-
-            FileStorageService.ResourceDetail detail =
-                    objectMapper.readValue(
-                            Path.of(uploadDir, resourceId + ".json").toFile(),
-                            FileStorageService.ResourceDetail.class
-                    );
-
-            return new FileStorageService.ResourceContent(
-                    uuid,
-                    detail.name(),
-                    detail.contentType(),
-                    detail.size(),
-                    filePath
-            );
-
-        }).subscribeOn(Schedulers.boundedElastic());
+        UUID uuid = UUID.fromString(resourceId);
+
+        // Los metadatos se sirven desde el índice en memoria; sólo se va a disco si la entrada no está cargada
+        return fileMetadataIndex.findById(uuid)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("File not found")))
+                .map(detail -> new FileStorageService.ResourceContent(
+                        uuid,
+                        detail.name(),
+                        detail.contentType(),
+                        detail.size(),
+                        FileStorageService.amountFileToPath(
+                                Path.of(uploadDir),
+                                FileStorageService.buildNameFileUniqueNormalice(uuid)
+                        )
+                ));
     }
 
 
@@ -115,9 +107,24 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
                                     FileStorageService.buildNameFileUniqueNormalice(UUID.fromString( id ) )
                             );
                             return Files.exists(filePath);
-                        }).subscribeOn(Schedulers.boundedElastic())
+                        }).subscribeOn(fileStorageScheduler.io())
                 )
                 .defaultIfEmpty(false);
     }
 
+    @Override
+    public Mono<Path> getPathFileByResourceId(String resourceId) {
+
+        if (!FileStorageService.isValidUUID(resourceId)) {
+            return Mono.error(new IllegalArgumentException("Invalid resource ID"));
+        }
+
+        return Mono.fromCallable(() -> FileStorageService.amountFileToPath(
+                        Path.of(uploadDir),
+                        FileStorageService.buildNameFileUniqueNormalice(UUID.fromString(resourceId))
+                ))
+                .filter(Files::isRegularFile)
+                .subscribeOn(fileStorageScheduler.io());
+    }
+
 }
@@ -1,21 +1,35 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ContentAddressedStore;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileMetadataIndex;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileMetadataJournal;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageIO;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageRemoveService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Paths;
+import java.util.UUID;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class FileStorageRemoveServiceImp implements FileStorageRemoveService {
 
-    @Value("${file.storage.path")
+    @Value("${file.storage.path:../uploads}")
     private String fileStoragePath;
 
+    private final FileMetadataIndex fileMetadataIndex;
+    private final ContentAddressedStore contentAddressedStore;
+    private final FileStorageScheduler fileStorageScheduler;
+    private final FileStorageIO fileStorageIO;
+    private final FileMetadataJournal fileMetadataJournal;
+
     @Override
     public Mono<Void> deleteFile(String resourceId) {
 
@@ -25,15 +39,18 @@ public class FileStorageRemoveServiceImp implements FileStorageRemoveService {
 
         }
 
-        return Mono.fromRunnable(() -> {
-                    try {
-                        java.nio.file.Files.deleteIfExists(java.nio.file.Paths.get(fileStoragePath, resourceId));
-                        log.info("File with resourceId {} deleted successfully", resourceId);
-                    } catch (Exception e) {
-                        log.error("Error deleting file with resourceId {}: {}", resourceId, e.getMessage());
-                        throw new RuntimeException("Error deleting file: " + e.getMessage(), e);
-                    }
-                }).subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic())
+        return fileStorageIO.deleteIfExists(Paths.get(fileStoragePath, resourceId), Paths.get(fileStoragePath, resourceId + ".json"))
+                .then(fileMetadataJournal.delete(UUID.fromString(resourceId)))
+                .then(Mono.fromRunnable(() -> {
+                    fileMetadataIndex.remove(UUID.fromString(resourceId));
+                    // Con dedup sólo se ha borrado el enlace; el blob se borra con su última referencia
+                    contentAddressedStore.release(UUID.fromString(resourceId));
+                    log.info("File with resourceId {} deleted successfully", resourceId);
+                }).subscribeOn(fileStorageScheduler.io()))
+                .onErrorMap(e -> {
+                    log.error("Error deleting file with resourceId {}: {}", resourceId, e.getMessage());
+                    return new RuntimeException("Error deleting file: " + e.getMessage(), e);
+                })
                 .then();
 
     }
@@ -1,22 +1,31 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ContentAddressedStore;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileMetadataIndex;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileMetadataJournal;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageMetrics;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageWriterService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageScheduler;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.UUID;
 
 @Service
@@ -24,11 +33,18 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class FileStorageWriterServiceImpl implements FileStorageWriterService {
 
+    private static final int PROMOTE_BUFFER_SIZE = 65536;
+
     @Getter @Setter
     @Value("${file.storage.path:../uploads}")
     private String uploadDir;
 
-    private final ObjectMapper objectMapper;
+    private final FileMetadataIndex fileMetadataIndex;
+    private final ContentAddressedStore contentAddressedStore;
+    private final FileStorageMetrics fileStorageMetrics;
+    private final FileStorageScheduler fileStorageScheduler;
+    private final FileStorageIO fileStorageIO;
+    private final FileMetadataJournal fileMetadataJournal;
 
     @Override
     public Mono<FileStorageService.ResourceUUID> saveFile(FilePart filePart) {
@@ -45,28 +61,7 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
         }
 
         return populationSaveAndUpdate(filePart)
-                .flatMap(newResourceId -> {
-
-                    Path oldFilePath = FileStorageService.amountFileToPath(
-                            Path.of(uploadDir),
-                            FileStorageService.buildNameFileUniqueNormalice(UUID.fromString(resourceIdOld))
-                    );
-
-                    Path oldJsonPath = Path.of(uploadDir, resourceIdOld + ".json");
-
-                    return Mono.fromRunnable(() -> {
-                                try {
-                                    Files.deleteIfExists(oldFilePath);
-                                    Files.deleteIfExists(oldJsonPath);
-                                    log.info("Old file and JSON for resource ID {} deleted successfully if exists", resourceIdOld);
-                                } catch (IOException e) {
-                                    log.error("Error deleting old file or JSON for resource ID {}: {}", resourceIdOld, e.getMessage());
-                                    log.warn("New resource ID {} will be saved, but old resources may still exist", newResourceId.uuid());
-                                }
-                            })
-                            .subscribeOn(Schedulers.boundedElastic())
-                            .thenReturn(newResourceId);
-                })
+                .flatMap(newResourceId -> deleteOldResource(resourceIdOld, newResourceId))
                 .doOnError(e ->
                         log.error("Error updating file with old resource ID {}: {}", resourceIdOld, e.getMessage())
                 );
@@ -74,6 +69,95 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
 
 
 
+    @Override
+    public Mono<FileStorageService.ResourceUUID> saveContent(String filename, String contentType, Flux<DataBuffer> content) {
+
+        UUID resourceId = UUID.randomUUID();
+        Path pathFile;
+        try {
+            pathFile = FileStorageService.amountFileToPath(Path.of(uploadDir), FileStorageService.buildNameFileUniqueNormalice(resourceId));
+        } catch (IllegalArgumentException e) {
+            log.error("Error creating file path for {}: {}", resourceId, e.getMessage());
+            return Mono.error(e);
+        }
+
+        Path jsonFile = Path.of(uploadDir, resourceId + ".json");
+        String finalContentType = contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+        Mono<FileStorageService.ResourceUUID> saved = writeContent(resourceId, content, pathFile)
+                .flatMap(size -> saveMetadata(new FileStorageService.ResourceDetail(resourceId, filename, finalContentType, size), jsonFile))
+                .doOnSuccess(r -> log.debug("Content {} saved successfully with resource ID: {}", filename, resourceId))
+                .doOnError(e -> log.error("Error saving content {}: {}", filename, e.getMessage()));
+        return fileStorageMetrics.timed(FileStorageMetrics.WRITE, saved);
+    }
+
+    @Override
+    public Mono<FileStorageService.ResourceUUID> promoteFile(String filename, String contentType, Path source, String resourceIdOld) {
+
+        if (resourceIdOld != null && !FileStorageService.isValidUUID(resourceIdOld)) {
+            return Mono.error(new IllegalArgumentException("Resource ID old must be a valid UUID"));
+        }
+
+        UUID resourceId = UUID.randomUUID();
+        Path pathFile;
+        try {
+            pathFile = FileStorageService.amountFileToPath(Path.of(uploadDir), FileStorageService.buildNameFileUniqueNormalice(resourceId));
+        } catch (IllegalArgumentException e) {
+            log.error("Error creating file path for {}: {}", resourceId, e.getMessage());
+            return Mono.error(e);
+        }
+
+        Path jsonFile = Path.of(uploadDir, resourceId + ".json");
+        String finalContentType = contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+        // Con dedup el contenido pasa por el almacén (hash + enlace); sin dedup basta un rename en el mismo volumen
+        Mono<Void> promote = contentAddressedStore.isEnabled()
+                ? contentAddressedStore.store(resourceId, fileStorageIO.read(source, PROMOTE_BUFFER_SIZE), pathFile)
+                        .then(fileStorageIO.deleteIfExists(source))
+                : Mono.fromCallable(() -> move(source, pathFile)).subscribeOn(fileStorageScheduler.io()).then();
+
+        Mono<FileStorageService.ResourceUUID> saved = promote
+                .then(fileStorageIO.size(pathFile))
+                .flatMap(size -> saveMetadata(new FileStorageService.ResourceDetail(resourceId, filename, finalContentType, size), jsonFile));
+
+        Mono<FileStorageService.ResourceUUID> promoted = (resourceIdOld != null ? saved.flatMap(newResourceId -> deleteOldResource(resourceIdOld, newResourceId)) : saved)
+                .doOnSuccess(r -> log.info("File {} promoted successfully with resource ID: {}", filename, resourceId))
+                .doOnError(e -> log.error("Error promoting file {}: {}", filename, e.getMessage()));
+        return fileStorageMetrics.timed(FileStorageMetrics.WRITE, promoted);
+    }
+
+    private Mono<FileStorageService.ResourceUUID> deleteOldResource(String resourceIdOld, FileStorageService.ResourceUUID newResourceId) {
+
+        Path oldFilePath = FileStorageService.amountFileToPath(
+                Path.of(uploadDir),
+                FileStorageService.buildNameFileUniqueNormalice(UUID.fromString(resourceIdOld))
+        );
+
+        Path oldJsonPath = Path.of(uploadDir, resourceIdOld + ".json");
+
+        return fileStorageIO.deleteIfExists(oldFilePath, oldJsonPath)
+                .then(fileMetadataJournal.delete(UUID.fromString(resourceIdOld)))
+                .then(Mono.fromRunnable(() -> {
+                    fileMetadataIndex.remove(UUID.fromString(resourceIdOld));
+                    contentAddressedStore.release(UUID.fromString(resourceIdOld));
+                    log.info("Old file and JSON for resource ID {} deleted successfully if exists", resourceIdOld);
+                }).subscribeOn(fileStorageScheduler.io()))
+                .onErrorResume(IOException.class, e -> {
+                    log.error("Error deleting old file or JSON for resource ID {}: {}", resourceIdOld, e.getMessage());
+                    log.warn("New resource ID {} will be saved, but old resources may still exist", newResourceId.uuid());
+                    return Mono.empty();
+                })
+                .thenReturn(newResourceId);
+    }
+
+    private static Path move(Path source, Path target) throws IOException {
+        try {
+            return Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            return Files.move(source, target);
+        }
+    }
+
     private Mono<FileStorageService.ResourceUUID> populationSaveAndUpdate(FilePart filePart) {
 
         UUID resourceId = UUID.randomUUID();
@@ -90,24 +174,37 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
                 ? filePart.headers().getContentType().toString()
                 : MediaType.APPLICATION_OCTET_STREAM_VALUE;
 
-        FileStorageService.ResourceDetail resourceDetail =
-                new FileStorageService.ResourceDetail(
-                        resourceId,
-                        filePart.filename(),
-                        contentType,
-                        filePart.headers().getContentLength()
-                );
-
         Path jsonFile = Path.of(uploadDir, resourceId + ".json");
 
-        return filePart.transferTo(pathFile) // guarda el archivo
-                .then(Mono.fromCallable(() -> {
-                    // escribe el JSON de manera bloqueante
-                    objectMapper.writeValue(jsonFile.toFile(), resourceDetail);
-                    return new FileStorageService.ResourceUUID(resourceId);
-                }).subscribeOn(Schedulers.boundedElastic()))
+        // guarda el archivo; con dedup, como blob por SHA-256 enlazado desde <uuid>
+        Mono<FileStorageService.ResourceUUID> saved = writeContent(resourceId, filePart.content(), pathFile)
+                .flatMap(size -> saveMetadata(
+                        new FileStorageService.ResourceDetail(resourceId, filePart.filename(), contentType, size),
+                        jsonFile))
                 .doOnSuccess(r -> log.info("File {} saved successfully with resource ID: {}", filePart.filename(), resourceId))
                 .doOnError(e -> log.error("Error saving file {}: {}", filePart.filename(), e.getMessage()));
+        return fileStorageMetrics.timed(FileStorageMetrics.WRITE, saved);
+    }
+
+    // Emite los bytes escritos; el almacén con dedup no los expone y se mide el enlace ya creado
+    private Mono<Long> writeContent(UUID resourceId, Flux<DataBuffer> content, Path pathFile) {
+        if (contentAddressedStore.isEnabled()) {
+            return contentAddressedStore.store(resourceId, content, pathFile).then(fileStorageIO.size(pathFile));
+        }
+        return fileStorageIO.write(content, pathFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    // Con el journal activo los metadatos son un anexado al journal; si no, el JSON por canal asíncrono
+    private Mono<FileStorageService.ResourceUUID> saveMetadata(FileStorageService.ResourceDetail resourceDetail, Path jsonFile) {
+        Mono<?> written = fileMetadataJournal.isEnabled()
+                ? fileMetadataJournal.append(resourceDetail)
+                : fileStorageIO.writeJson(jsonFile, resourceDetail);
+        return written
+                .then(Mono.fromSupplier(() -> {
+                    fileMetadataIndex.put(resourceDetail);
+                    fileStorageMetrics.recordBytes(FileStorageMetrics.WRITE, resourceDetail.size());
+                    return new FileStorageService.ResourceUUID(resourceDetail.id());
+                }));
     }
 
 }
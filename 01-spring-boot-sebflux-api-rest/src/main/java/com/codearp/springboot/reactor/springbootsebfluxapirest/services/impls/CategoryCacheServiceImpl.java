@@ -0,0 +1,111 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.CategoryDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.CategoryCacheService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class CategoryCacheServiceImpl implements CategoryCacheService {
+
+    private final CategoryDao categoryDao;
+    private final Duration refreshInterval;
+
+    // El refresco construye un mapa nuevo y lo publica de una vez: así desaparecen las categorías borradas
+    private volatile Map<CATEGORY, Category> categories = new ConcurrentHashMap<>();
+
+    private Disposable refreshTask;
+
+    public CategoryCacheServiceImpl(CategoryDao categoryDao,
+                                    @Value("${config.cache.categories.refresh-interval:PT5M}") Duration refreshInterval) {
+        this.categoryDao = categoryDao;
+        this.refreshInterval = refreshInterval;
+    }
+
+    // Se carga cuando la aplicación está lista (después del ApplicationRunner que inicializa los datos)
+    // y se programa el refresco periódico en segundo plano.
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshAll().subscribe(
+                v -> { },
+                e -> log.error("Error warming up category cache: {}", e.getMessage())
+        );
+
+        refreshTask = Flux.interval(refreshInterval, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refreshAll()
+                        .onErrorResume(e -> {
+                            log.error("Error refreshing category cache: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Category> findByCategory(CATEGORY category) {
+        if (category == null) {
+            return Mono.error(new IllegalArgumentException("Category must not be null"));
+        }
+
+        Category cached = categories.get(category);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        // Sólo se cachean las categorías encontradas, para no fijar un "no existe" mientras se inicializan los datos
+        return categoryDao.findByName(category.name())
+                .doOnNext(cat -> categories.put(category, cat));
+    }
+
+    @Override
+    public Mono<Void> refreshAll() {
+        return categoryDao.findAll()
+                .collectList()
+                .doOnNext(all -> {
+                    Map<CATEGORY, Category> refreshed = new ConcurrentHashMap<>();
+                    for (Category cat : all) {
+                        try {
+                            refreshed.put(CATEGORY.fromCategory(cat), cat);
+                        } catch (IllegalArgumentException e) {
+                            log.warn("Ignoring unknown category {} in cache refresh", cat.getName());
+                        }
+                    }
+                    categories = refreshed;
+                    log.debug("Category cache refreshed with {} entries", refreshed.size());
+                })
+                .then();
+    }
+
+    @Override
+    public void invalidate(CATEGORY category) {
+        if (category != null) {
+            categories.remove(category);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        categories.clear();
+    }
+}
@@ -3,6 +3,7 @@ package com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.CategoryDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.CategoryCacheService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.CategoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +16,7 @@ import reactor.core.publisher.Mono;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryDao categoryDao;
+    private final CategoryCacheService categoryCacheService;
 
     @Override
     public Mono<CATEGORY> findById(String id) {
@@ -48,6 +50,7 @@ public class CategoryServiceImpl implements CategoryService {
                     return categoryDoc;
                 })
                 .flatMap(categoryDao::save)
+                .doOnSuccess(saved -> categoryCacheService.invalidate(category))
                 .then()
                 .onErrorResume(e -> {
                     log.error("Error saving category {}: {}", category.name(), e.getMessage());
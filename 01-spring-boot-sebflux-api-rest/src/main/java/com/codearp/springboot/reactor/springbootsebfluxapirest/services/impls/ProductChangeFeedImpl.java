@@ -0,0 +1,92 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductChangeEventDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductChangeFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Date;
+
+@Service
+@Slf4j
+public class ProductChangeFeedImpl implements ProductChangeFeed {
+
+    private final int replaySize;
+    private final int subscriberBufferSize;
+
+    // El sink replay entrega a cada suscriptor nuevo el buffer y después los eventos en vivo, sin huecos entre ambos
+    private final Sinks.Many<ProductChangeEventDto> sink;
+
+    // Las secuencias arrancan en la hora de inicio: tras un reinicio los ids antiguos quedan fuera del buffer
+    // y el cliente recibe RESET en lugar de mezclar ids de dos ejecuciones
+    private final long initialSequence = System.currentTimeMillis() * 1000;
+
+    // Sólo se modifica dentro de publish (synchronized): asignar secuencia y emitir es atómico y ordenado
+    private volatile long sequence = initialSequence;
+
+    public ProductChangeFeedImpl(@Value("${config.products.changes.replay-size:1000}") int replaySize,
+                                 @Value("${config.products.changes.subscriber-buffer-size:256}") int subscriberBufferSize) {
+        this.replaySize = Math.max(1, replaySize);
+        this.subscriberBufferSize = Math.max(1, subscriberBufferSize);
+        this.sink = Sinks.many().replay().limit(this.replaySize);
+    }
+
+    @Override
+    public void publishUpsert(ProductDto product) {
+        publish(ProductChangeEventDto.Type.UPSERT, product.getId(), product);
+    }
+
+    @Override
+    public void publishDelete(String productId) {
+        publish(ProductChangeEventDto.Type.DELETE, productId, null);
+    }
+
+    @Override
+    public Flux<ProductChangeEventDto> changes(Long lastEventId) {
+        return Flux.defer(() -> {
+            long current = sequence;
+            long oldestBuffered = Math.max(initialSequence + 1, current - replaySize + 1);
+            // Se han perdido eventos que ya no están en el buffer (o el id es de otra ejecución)
+            boolean gap = lastEventId != null && (lastEventId + 1 < oldestBuffered || lastEventId > current);
+            long from = lastEventId == null || gap ? current : lastEventId;
+
+            Flux<ProductChangeEventDto> live = sink.asFlux()
+                    .filter(event -> event.getSequence() > from)
+                    // Suscriptor lento: se descartan sus eventos más antiguos en lugar de frenar a los demás
+                    .onBackpressureBuffer(subscriberBufferSize,
+                            dropped -> log.debug("Slow change feed subscriber, dropped event {}", dropped.getSequence()),
+                            BufferOverflowStrategy.DROP_OLDEST);
+
+            if (gap) {
+                return Flux.concat(Flux.just(ProductChangeEventDto.builder()
+                        .sequence(current)
+                        .type(ProductChangeEventDto.Type.RESET)
+                        .timestamp(new Date())
+                        .build()), live);
+            }
+            return live;
+        });
+    }
+
+    private synchronized void publish(ProductChangeEventDto.Type type, String productId, ProductDto product) {
+        ProductChangeEventDto event = ProductChangeEventDto.builder()
+                .sequence(sequence + 1)
+                .type(type)
+                .productId(productId)
+                .product(product)
+                .timestamp(new Date())
+                .build();
+
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isFailure()) {
+            log.warn("Product change {} for {} not published: {}", type, productId, result);
+            return;
+        }
+        sequence = event.getSequence();
+    }
+}
@@ -1,44 +1,91 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls;
 
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductBatchDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductImportSummaryDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductPageDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.CategoryCacheService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductCacheService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductChangeFeed;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageRemoveService;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
-import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.CategoryDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.PageCursor;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.ProductMapper;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.SingleFlight;
 import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.ProductDao;
-import lombok.RequiredArgsConstructor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class ProductServiceImpl implements com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductService {
 
     private final ProductDao productDao;
-    private final CategoryDao categoryDao;
+    private final CategoryCacheService categoryCacheService;
 
     private final FileStorageRemoveService fileStorageRemoveService;
 
+    private final ProductChangeFeed productChangeFeed;
+
+    private final Validator validator;
+
+    // Búsquedas concurrentes del mismo id comparten la consulta en curso
+    private final SingleFlight<String, Product> productLookups;
+
+    // Lecturas por id desde memoria; cada escritura invalida su entrada
+    private final ProductCacheService productCacheService;
+
+    private static final int MAX_IMPORT_BATCH_SIZE = 5000;
+    private static final int MAX_IMPORT_ERRORS_PER_BATCH = 20;
+
+    private final int importBatchSize;
+    private final int importConcurrency;
+    private final int batchMaxIds;
+
+    public ProductServiceImpl(ProductDao productDao,
+                              CategoryCacheService categoryCacheService,
+                              FileStorageRemoveService fileStorageRemoveService,
+                              ProductChangeFeed productChangeFeed,
+                              Validator validator,
+                              SingleFlight<String, Product> productLookups,
+                              ProductCacheService productCacheService,
+                              @Value("${config.import.batch-size:500}") int importBatchSize,
+                              @Value("${config.import.concurrency:4}") int importConcurrency,
+                              @Value("${config.products.batch.max-ids:200}") int batchMaxIds) {
+        this.productDao = productDao;
+        this.categoryCacheService = categoryCacheService;
+        this.fileStorageRemoveService = fileStorageRemoveService;
+        this.productChangeFeed = productChangeFeed;
+        this.validator = validator;
+        this.productLookups = productLookups;
+        this.productCacheService = productCacheService;
+        this.importBatchSize = importBatchSize;
+        this.importConcurrency = importConcurrency;
+        this.batchMaxIds = batchMaxIds;
+    }
+
     @Override
     public Flux<ProductDto> recoverALlProduct() {
         return productDao.findAll()
-                .map(product -> {
-                    ProductDto productDto = new ProductDto();
-                    productDto.setId(product.getId());
-                    productDto.setName(product.getName());
-                    productDto.setPrice(product.getPrice());
-                    productDto.setCreateAt(product.getCreateAt());
-                    productDto.setPicture(product.getPicture());
-                    if (product.getCategory() != null) {
-                        productDto.setCategory(CATEGORY.fromCategory(product.getCategory()));
-                    }
-                    return productDto;
-                })
+                .map(ProductMapper::toDto)
                 .onErrorResume(e -> {
                     log.error("Error retrieving all products: {}", e.getMessage());
                     return Flux.error(e);
@@ -46,28 +93,53 @@ public class ProductServiceImpl implements com.codearp.springboot.reactor.spring
 
     }
 
+    /**
+     * Recupera una página de productos mediante keyset sobre el _id.
+     * Se pide un elemento más del tamaño de página para saber si existe página siguiente
+     * sin necesidad de hacer un count sobre la colección.
+     */
     @Override
-    public Mono<ProductDto> recoverProductById(String id) {
+    public Mono<ProductPageDto> recoverProductPage(String cursor, Integer size) {
+        final int pageSize = PageCursor.clampSize(size);
 
-        return productDao.findById(id)
+        Optional<String> lastId;
+        try {
+            lastId = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid page cursor {}: {}", cursor, e.getMessage());
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page cursor"));
+        }
 
-                .switchIfEmpty(Mono.error(
-                        new RuntimeException("Product not found with id: " + id)
-                ))
-                .map(product -> {
-                    ProductDto productDto = new ProductDto();
-                    productDto.setId(product.getId());
-                    productDto.setName(product.getName());
-                    productDto.setPrice(product.getPrice());
-                    productDto.setCreateAt(product.getCreateAt());
-                    productDto.setPicture(product.getPicture());
-
-                    if (product.getCategory() != null) {
-                        productDto.setCategory(CATEGORY.fromCategory(product.getCategory()));
-                    }
+        Flux<Product> page = lastId
+                .map(id -> productDao.findByIdGreaterThanOrderByIdAsc(id, Limit.of(pageSize + 1)))
+                .orElseGet(() -> productDao.findAllByOrderByIdAsc(Limit.of(pageSize + 1)));
 
-                    return productDto;
+        return page.map(ProductMapper::toDto)
+                .collectList()
+                .map(items -> {
+                    boolean hasNext = items.size() > pageSize;
+                    List<ProductDto> content = hasNext ? items.subList(0, pageSize) : items;
+                    String nextCursor = hasNext ? PageCursor.encode(content.getLast().getId()) : null;
+                    return ProductPageDto.builder()
+                            .items(content)
+                            .size(content.size())
+                            .nextCursor(nextCursor)
+                            .build();
                 })
+                .onErrorResume(e -> {
+                    log.error("Error retrieving product page with cursor {}: {}", cursor, e.getMessage());
+                    return Mono.error(e);
+                });
+    }
+
+    @Override
+    public Mono<ProductDto> recoverProductById(String id) {
+
+        return productCacheService.get(id, key -> productLookups.execute(key, () -> productDao.findById(key)))
+                .switchIfEmpty(Mono.error(
+                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id: " + id)
+                ))
+                .map(ProductMapper::toDto)
                 .onErrorResume(e -> {
                     log.error("Error retrieving product by id {}: {}", id, e.getMessage());
 
@@ -83,6 +155,49 @@ public class ProductServiceImpl implements com.codearp.springboot.reactor.spring
     }
 
 
+    /**
+     * Recupera varios productos con una única consulta {@code findAllById} ($in) en lugar de un
+     * findById por id. Se eliminan ids repetidos o vacíos y el resultado respeta el orden pedido.
+     */
+    @Override
+    public Mono<ProductBatchDto> recoverProductsByIds(List<String> ids) {
+        Set<String> requested = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream()
+                    .filter(id -> id != null && !id.isBlank())
+                    .map(String::trim)
+                    .forEach(requested::add);
+        }
+
+        if (requested.size() > batchMaxIds) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Too many ids: %d (max %d)".formatted(requested.size(), batchMaxIds)));
+        }
+        if (requested.isEmpty()) {
+            return Mono.just(ProductBatchDto.builder().items(List.of()).notFound(List.of()).build());
+        }
+
+        return productDao.findAllById(requested)
+                .collectMap(Product::getId, ProductMapper::toDto)
+                .map(found -> {
+                    List<ProductDto> items = new ArrayList<>(found.size());
+                    List<String> notFound = new ArrayList<>();
+                    for (String id : requested) {
+                        ProductDto product = found.get(id);
+                        if (product != null) {
+                            items.add(product);
+                        } else {
+                            notFound.add(id);
+                        }
+                    }
+                    return ProductBatchDto.builder().items(items).notFound(notFound).build();
+                })
+                .onErrorResume(e -> {
+                    log.error("Error retrieving product batch of {} ids: {}", requested.size(), e.getMessage());
+                    return Mono.error(e);
+                });
+    }
+
     @Override
     public Mono<ProductDto> saveProduct(ProductDto productDto) {
         if (productDto.getCreateAt() == null) {
@@ -93,19 +208,15 @@ public class ProductServiceImpl implements com.codearp.springboot.reactor.spring
             productDto.setCategory(CATEGORY.OTHER);
         }
 
-        return categoryDao.findByName(productDto.getCategory().name())
+        // La categoría se resuelve desde la cache en memoria: sólo el insert del producto va a Mongo
+        return categoryCacheService.findByCategory(productDto.getCategory())
                 .switchIfEmpty(Mono.error(new RuntimeException("Category not found with name: " + productDto.getCategory().name())))
-                .flatMap(cat -> {
-                    com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product product = new com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product();
-                    product.setName(productDto.getName());
-                    product.setPrice(productDto.getPrice());
-                    product.setCreateAt(productDto.getCreateAt());
-                    product.setCategory(cat);
-                    product.setPicture(productDto.getPicture());
-                    return productDao.save(product);
-                })
+                .flatMap(cat -> productDao.save(ProductMapper.toDocument(productDto, cat)))
                 .map(p -> {
+                    invalidateCached(p.getId());
                     productDto.setId( p.getId() );
+                    // Se publica una copia desde el documento guardado: el DTO del llamante es mutable
+                    productChangeFeed.publishUpsert(ProductMapper.toDto(p));
                     return productDto;
                 })
                 .onErrorResume(e -> {
@@ -114,12 +225,123 @@ public class ProductServiceImpl implements com.codearp.springboot.reactor.spring
                 });
     }
 
+    /**
+     * Importa productos en lotes: el flujo de entrada se agrupa en bloques de {@code batchSize},
+     * cada producto se valida, se resuelve su categoría desde la cache y el lote se inserta con un
+     * único saveAll. Se procesan como mucho {@code config.import.concurrency} lotes a la vez, de modo
+     * que la memoria usada queda acotada aunque el cuerpo de la petición sea muy grande.
+     * <p>
+     * Si el cuerpo deja de poder decodificarse, se importan igualmente las filas ya leídas, se espera
+     * a los lotes en curso y el error se señala al final, después del último resultado de lote.
+     */
+    @Override
+    public Flux<ProductImportSummaryDto.BatchResult> importProducts(Flux<ProductDto> products, Integer batchSize) {
+        final int size = (batchSize == null || batchSize <= 0)
+                ? importBatchSize
+                : Math.min(batchSize, MAX_IMPORT_BATCH_SIZE);
+
+        return Flux.defer(() -> {
+            AtomicReference<Throwable> bodyError = new AtomicReference<>();
+            return products
+                    .onErrorResume(e -> {
+                        bodyError.set(e);
+                        return Flux.empty();
+                    })
+                    .buffer(size)
+                    .index()
+                    .flatMap(batch -> importBatch(batch.getT1(), batch.getT1() * size, batch.getT2()),
+                            Math.max(1, importConcurrency))
+                    .concatWith(Mono.defer(() -> bodyError.get() == null
+                            ? Mono.empty()
+                            : Mono.error(bodyError.get())));
+        });
+    }
+
+    private Mono<ProductImportSummaryDto.BatchResult> importBatch(long batchIndex, long firstRow, List<ProductDto> dtos) {
+        List<String> errors = new ArrayList<>();
+        List<ProductDto> valid = new ArrayList<>(dtos.size());
+
+        for (int i = 0; i < dtos.size(); i++) {
+            ProductDto dto = dtos.get(i);
+            if (dto.getCreateAt() == null) {
+                dto.setCreateAt(new Date());
+            }
+            if (dto.getCategory() == null) {
+                dto.setCategory(CATEGORY.OTHER);
+            }
+
+            Set<ConstraintViolation<ProductDto>> violations = validator.validate(dto);
+            if (violations.isEmpty()) {
+                valid.add(dto);
+            } else {
+                long row = firstRow + i;
+                violations.forEach(v -> addImportError(errors, "row " + row + ": " + v.getPropertyPath() + " " + v.getMessage()));
+            }
+        }
+
+        return Flux.fromIterable(valid)
+                .concatMap(dto -> categoryCacheService.findByCategory(dto.getCategory())
+                        .map(cat -> ProductMapper.toDocument(dto, cat))
+                        .switchIfEmpty(Mono.fromRunnable(() ->
+                                addImportError(errors, "category not found: " + dto.getCategory().name()))))
+                .collectList()
+                .flatMap(documents -> documents.isEmpty()
+                        ? Mono.just(0L)
+                        : productDao.saveAll(documents)
+                                .doOnNext(saved -> {
+                                    invalidateCached(saved.getId());
+                                    productChangeFeed.publishUpsert(ProductMapper.toDto(saved));
+                                })
+                                .count())
+                .map(inserted -> ProductImportSummaryDto.BatchResult.builder()
+                        .batch(batchIndex)
+                        .received(dtos.size())
+                        .inserted(inserted.intValue())
+                        .rejected(dtos.size() - inserted.intValue())
+                        .errors(errors)
+                        .build())
+                .onErrorResume(e -> {
+                    log.error("Error importing product batch {}: {}", batchIndex, e.getMessage());
+                    addImportError(errors, "batch failed: " + e.getMessage());
+                    return Mono.just(ProductImportSummaryDto.BatchResult.builder()
+                            .batch(batchIndex)
+                            .received(dtos.size())
+                            .inserted(0)
+                            .rejected(dtos.size())
+                            .errors(errors)
+                            .build());
+                });
+    }
+
+    // Primero se suelta la consulta en curso y luego se invalida: un fallo posterior no puede unirse a un findById
+    // lanzado antes de la escritura y volver a guardar el documento anterior
+    private void invalidateCached(String id) {
+        if (id == null) {
+            return;
+        }
+        productLookups.forget(id);
+        productCacheService.invalidate(id);
+    }
+
+    private static void addImportError(List<String> errors, String error) {
+        synchronized (errors) {
+            if (errors.size() < MAX_IMPORT_ERRORS_PER_BATCH) {
+                errors.add(error);
+            }
+        }
+    }
+
     @Override
     public Mono<Void> deleteProductById(String id) {
 
         return productDao.findById(id)
                 .switchIfEmpty(Mono.error(new RuntimeException("Product not found with id: " + id)))
                 .flatMap(productDao::delete)
+                .then(Mono.fromRunnable(() -> {
+                    invalidateCached(id);
+                    productChangeFeed.publishDelete(id);
+                }))
+                .then()
                 .onErrorResume(e -> {
                     log.error("Error deleting product with id {}: {}", id, e.getMessage());
                     return Mono.error(e);
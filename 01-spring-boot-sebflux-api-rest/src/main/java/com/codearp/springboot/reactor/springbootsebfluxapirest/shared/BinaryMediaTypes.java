@@ -0,0 +1,23 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.shared;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Tipos de contenido binarios que acepta y produce la API de productos además de JSON (ver
+ * {@code BinaryCodecsConfig}). Las constantes {@code _VALUE} son para {@code consumes}/{@code produces}.
+ */
+public final class BinaryMediaTypes {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    // Equivalente binario de NDJSON: un documento Smile por elemento, separados por 0xFF
+    public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+    public static final MediaType APPLICATION_STREAM_SMILE = MediaType.parseMediaType(APPLICATION_STREAM_SMILE_VALUE);
+
+    public static final String APPLICATION_CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+    public static final MediaType APPLICATION_CBOR = MediaType.APPLICATION_CBOR;
+
+    private BinaryMediaTypes() {
+    }
+}
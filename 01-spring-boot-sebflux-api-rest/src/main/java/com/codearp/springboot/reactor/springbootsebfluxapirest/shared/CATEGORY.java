@@ -1,5 +1,9 @@
 package com.codearp.springboot.reactor.springbootsebfluxapirest.shared;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public enum CATEGORY {
     ELECTRONICS,
     FASHION,
@@ -13,9 +17,23 @@ public enum CATEGORY {
     GROCERY,
     OTHER;
 
+    // Tabla de búsqueda precalculada: evita recorrer values() (que además clona el array) en cada conversión
+    private static final Map<String, CATEGORY> BY_NAME = new HashMap<>();
+
+    static {
+        for (CATEGORY cat : values()) {
+            BY_NAME.put(cat.name(), cat);
+        }
+    }
+
     public static CATEGORY fromString(String category) throws IllegalArgumentException {
-        for (CATEGORY cat : CATEGORY.values()) {
-            if (cat.name().equalsIgnoreCase(category)) {
+        if (category != null) {
+            // Camino rápido: el nombre guardado en Mongo coincide exactamente con el del enum
+            CATEGORY cat = BY_NAME.get(category);
+            if (cat == null) {
+                cat = BY_NAME.get(category.toUpperCase(Locale.ROOT));
+            }
+            if (cat != null) {
                 return cat;
             }
         }
@@ -23,7 +41,7 @@ public enum CATEGORY {
     }
 
     public static CATEGORY fromCategory(com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category category) throws IllegalArgumentException {
-        return fromString( category.getName().toString() );
+        return fromString( category.getName() );
     }
 
 }
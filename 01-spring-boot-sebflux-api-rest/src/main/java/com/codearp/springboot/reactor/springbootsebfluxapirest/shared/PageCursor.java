@@ -0,0 +1,53 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.shared;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Codifica y decodifica el token opaco de continuación usado en la paginación por keyset.
+ * <p>
+ * El token es el último _id devuelto con un prefijo de versión, en Base64 URL-safe, para que
+ * el cliente no dependa de su formato interno.
+ */
+public final class PageCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String VERSION_PREFIX = "v1:";
+
+    private PageCursor() {
+    }
+
+    public static String encode(String lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((VERSION_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token token recibido del cliente (puede ser nulo o vacío para la primera página)
+     * @return el último _id de la página anterior, o {@link Optional#empty()} si es la primera página
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    public static Optional<String> decode(String token) throws IllegalArgumentException {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(VERSION_PREFIX) || decoded.length() == VERSION_PREFIX.length()) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token);
+        }
+        return Optional.of(decoded.substring(VERSION_PREFIX.length()));
+    }
+
+    public static int clampSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
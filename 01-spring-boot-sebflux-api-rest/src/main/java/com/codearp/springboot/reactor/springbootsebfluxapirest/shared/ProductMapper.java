@@ -0,0 +1,45 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.shared;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+
+/**
+ * Conversión entre el documento {@link Product} y {@link ProductDto} compartida por todas las
+ * rutas de lectura y escritura.
+ * <p>
+ * Copia campo a campo sin reflexión (a diferencia de ModelMapper) y resuelve la categoría con la
+ * tabla de búsqueda de {@link CATEGORY}, sin pasar por {@code toString()} + parseo en cada elemento.
+ */
+public final class ProductMapper {
+
+    private ProductMapper() {
+    }
+
+    public static ProductDto toDto(Product product) {
+        Category category = product.getCategory();
+        return new ProductDto(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                product.getCreateAt(),
+                category != null ? CATEGORY.fromCategory(category) : null,
+                product.getPicture()
+        );
+    }
+
+    /**
+     * @param productDto datos del producto
+     * @param category documento de categoría ya resuelto (por ejemplo desde la cache de categorías)
+     * @return un documento nuevo sin id, listo para insertar
+     */
+    public static Product toDocument(ProductDto productDto, Category category) {
+        Product product = new Product();
+        product.setName(productDto.getName());
+        product.setPrice(productDto.getPrice());
+        product.setCreateAt(productDto.getCreateAt());
+        product.setCategory(category);
+        product.setPicture(productDto.getPicture());
+        return product;
+    }
+}
@@ -0,0 +1,167 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.shared;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresión en streaming de un cuerpo de respuesta con el {@link Deflater} de la JDK, para
+ * {@code Content-Encoding: gzip} (cabecera y cola RFC 1952 alrededor de deflate sin envoltorio) o
+ * {@code deflate} (formato zlib, RFC 1950).
+ * <p>
+ * Cada buffer de entrada se comprime desde su {@link ByteBuffer}, sin copiarlo a un {@code byte[]}, y se
+ * libera; se emite lo que el compresor haya producido hasta ese momento. No es thread-safe: una instancia por
+ * respuesta, cerrada con {@link #close()} para liberar la memoria nativa del {@link Deflater}.
+ */
+public final class ResponseCompressor implements AutoCloseable {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(CHUNK_SIZE);
+    private long inputBytes;
+    private long outputBytes;
+
+    public ResponseCompressor(String encoding, int level) {
+        boolean gzip = GZIP.equals(encoding);
+        if (!gzip && !DEFLATE.equals(encoding)) {
+            throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+        }
+        this.deflater = new Deflater(level, gzip);
+        this.crc = gzip ? new CRC32() : null;
+        if (gzip) {
+            pending.writeBytes(GZIP_HEADER);
+        }
+    }
+
+    /**
+     * Codificación a usar según {@code Accept-Encoding}: gzip antes que deflate a igual peso;
+     * {@code null} si el cliente no acepta ninguna (o sólo identity).
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, quality);
+                case DEFLATE -> deflate = Math.max(deflate, quality);
+                case "*" -> any = quality;
+                default -> { }
+            }
+        }
+        // Un * cubre las que no se nombran
+        gzip = gzip >= 0 ? gzip : any;
+        deflate = deflate >= 0 ? deflate : any;
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    /** Comprime y libera {@code input}; devuelve lo producido hasta ahora o {@code null} si aún nada **/
+    public DataBuffer write(DataBuffer input, DataBufferFactory factory) {
+        try (DataBuffer.ByteBufferIterator buffers = input.readableByteBuffers()) {
+            while (buffers.hasNext()) {
+                ByteBuffer buffer = buffers.next();
+                inputBytes += buffer.remaining();
+                if (crc != null) {
+                    crc.update(buffer.duplicate());
+                }
+                deflater.setInput(buffer);
+                while (!deflater.needsInput()) {
+                    drain(Deflater.NO_FLUSH);
+                }
+            }
+        } finally {
+            DataBufferUtils.release(input);
+        }
+        return take(factory);
+    }
+
+    /** Vacía el compresor (SYNC_FLUSH) para que el cliente pueda descomprimir lo enviado hasta ahora **/
+    public DataBuffer flush(DataBufferFactory factory) {
+        int produced;
+        do {
+            produced = drain(Deflater.SYNC_FLUSH);
+        } while (produced == CHUNK_SIZE);
+        return take(factory);
+    }
+
+    /** Cierra el flujo comprimido (y en gzip añade CRC-32 y tamaño); devuelve los últimos bytes **/
+    public DataBuffer finish(DataBufferFactory factory) {
+        deflater.finish();
+        while (!deflater.finished()) {
+            drain(Deflater.NO_FLUSH);
+        }
+        if (crc != null) {
+            writeIntLE((int) crc.getValue());
+            writeIntLE((int) inputBytes);
+        }
+        return take(factory);
+    }
+
+    public long inputBytes() {
+        return inputBytes;
+    }
+
+    public long outputBytes() {
+        return outputBytes;
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+    }
+
+    private int drain(int flush) {
+        int produced = deflater.deflate(chunk, 0, chunk.length, flush);
+        pending.write(chunk, 0, produced);
+        return produced;
+    }
+
+    private DataBuffer take(DataBufferFactory factory) {
+        if (pending.size() == 0) {
+            return null;
+        }
+        byte[] bytes = pending.toByteArray();
+        pending.reset();
+        outputBytes += bytes.length;
+        return factory.wrap(bytes);
+    }
+
+    private void writeIntLE(int value) {
+        pending.write(value);
+        pending.write(value >>> 8);
+        pending.write(value >>> 16);
+        pending.write(value >>> 24);
+    }
+}
@@ -0,0 +1,84 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.shared;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa peticiones concurrentes de la misma clave en una sola carga ("single flight").
+ * <p>
+ * La primera petición de una clave (leader) lanza la carga; las que llegan mientras está en curso
+ * (followers) se suscriben al mismo {@link Mono} compartido. Al terminar, la clave sale del mapa, así que
+ * no se guarda ningún resultado: no hay datos obsoletos, sólo se evitan consultas duplicadas simultáneas.
+ * Si todos los suscriptores cancelan, se cancela la carga; que cancele uno no afecta al resto.
+ * <p>
+ * Métricas: {@code single.flight.requests} (tags {@code name} y {@code role} leader/follower) y
+ * {@code single.flight.in.flight} (cargas en curso).
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter followers;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("single.flight.requests")
+                .tag("name", name)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder("single.flight.requests")
+                .tag("name", name)
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("single.flight.in.flight", inFlight, Map::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<V> flight = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return newFlight(k, loader);
+            });
+            (leader[0] ? leaders : followers).increment();
+            return flight;
+        });
+    }
+
+    /**
+     * Suelta la carga en curso de {@code key}: sus suscriptores actuales la siguen recibiendo, pero las peticiones
+     * siguientes lanzan una nueva. Se usa tras una escritura para no servir lo leído antes de ella.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private Mono<V> newFlight(K key, Supplier<Mono<V>> loader) {
+        AtomicReference<Mono<V>> self = new AtomicReference<>();
+        // replay(1).refCount(1): una única suscripción a la carga mientras quede algún suscriptor, cancelable
+        // (Mono.share() no se puede cancelar). replay y no publish: un follower que toma la carga del mapa justo
+        // cuando emite (antes de que doFinally borre la clave) recibe igualmente el valor y no un vacío.
+        // remove(key, self) no borra una carga posterior de la misma clave
+        Mono<V> flight = Mono.defer(loader)
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .flux()
+                .replay(1)
+                .refCount(1)
+                .singleOrEmpty();
+        self.set(flight);
+        return flight;
+    }
+}
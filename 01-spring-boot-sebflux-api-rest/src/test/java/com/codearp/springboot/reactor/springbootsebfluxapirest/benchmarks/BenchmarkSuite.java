@@ -0,0 +1,41 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta todos los benchmarks de este paquete con el profiler de GC y guarda los resultados en
+ * {@code target/jmh-result.json}, que sirve de línea base para comparar cada cambio de rendimiento
+ * (por ejemplo con https://jmh.morethan.io).
+ * <p>
+ * Los argumentos se pasan a JMH tal cual; una expresión regular limita los benchmarks a ejecutar.
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks.BenchmarkSuite
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks.BenchmarkSuite \
+ *     -Dexec.args="ProductServiceBenchmark|FileNamingBenchmark"
+ * </pre>
+ */
+public class BenchmarkSuite {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkSuite.class.getPackageName() + "\\..*Benchmark");
+        }
+        new Runner(options
+                .addProfiler("gc")
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura completa de un fichero con {@code DataBufferUtils.read} según el tamaño de buffer y la factoría:
+ * <ul>
+ *   <li>{@code bufferSize}: 4096 es el que usa {@code FileStorageReadServiceImpl}; 65536 el de las descargas.</li>
+ *   <li>{@code factory}: {@code heap} ({@link DefaultDataBufferFactory}, un {@code byte[]} nuevo por buffer)
+ *   o {@code pooled} (Netty con pool de buffers directos, como en el servidor).</li>
+ * </ul>
+ * Con {@code -prof gc} se ve la asignación por operación ({@code gc.alloc.rate.norm}) de cada combinación.
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="DataBufferReadBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataBufferReadBenchmark {
+
+    @Param({"64", "8192"})
+    private int sizeKb;
+
+    @Param({"4096", "16384", "65536", "262144"})
+    private int bufferSize;
+
+    @Param({"heap", "pooled"})
+    private String factory;
+
+    private Path file;
+    private DataBufferFactory dataBufferFactory;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("read-benchmark", ".bin");
+        byte[] chunk = new byte[1024];
+        ThreadLocalRandom.current().nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < sizeKb; i++) {
+                out.write(chunk);
+            }
+        }
+        dataBufferFactory = "pooled".equals(factory)
+                ? new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT)
+                : DefaultDataBufferFactory.sharedInstance;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long read() {
+        return DataBufferUtils.read(file, dataBufferFactory, bufferSize)
+                .map(buffer -> {
+                    int bytes = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) bytes;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DataBufferReadBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
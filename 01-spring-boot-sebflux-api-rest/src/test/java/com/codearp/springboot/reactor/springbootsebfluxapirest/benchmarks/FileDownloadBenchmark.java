@@ -0,0 +1,106 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.controllers.FileRangeResponses;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageMetrics;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de descarga de ficheros grandes a través de Reactor Netty con {@link FileRangeResponses}:
+ * <ul>
+ *   <li>{@code zeroCopy}: {@code ZeroCopyHttpOutputMessage} (FileRegion/sendfile), sin copiar al heap.</li>
+ *   <li>{@code buffered}: lectura por {@code DataBuffer}s (modo anterior y fallback para rangos múltiples).</li>
+ * </ul>
+ * Cada operación descarga el fichero completo por loopback; MB/s = ops/s * sizeMb.
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="FileDownloadBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileDownloadBenchmark {
+
+    @Param({"zeroCopy", "buffered"})
+    private String mode;
+
+    @Param({"64", "512"})
+    private int sizeMb;
+
+    private Path file;
+    private FileStorageScheduler fileStorageScheduler;
+    private DisposableServer server;
+    private HttpClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("download-benchmark", ".bin");
+        byte[] chunk = new byte[1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                out.write(chunk);
+            }
+        }
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        fileStorageScheduler = new FileStorageScheduler(meterRegistry, FileStorageScheduler.BOUNDED_ELASTIC, 0, 100000);
+        FileRangeResponses responses = new FileRangeResponses("zeroCopy".equals(mode), 65536,
+                new FileStorageMetrics(meterRegistry), fileStorageScheduler);
+        ReactorHttpHandlerAdapter adapter = new ReactorHttpHandlerAdapter(
+                WebHttpHandlerBuilder.webHandler(exchange ->
+                        responses.write(exchange, file, MediaType.APPLICATION_OCTET_STREAM, "attachment; filename=\"benchmark.bin\"")
+                ).build()
+        );
+        server = HttpServer.create().host("127.0.0.1").port(0).handle(adapter).bindNow();
+        client = HttpClient.create().baseUrl("http://127.0.0.1:" + server.port());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.disposeNow();
+        fileStorageScheduler.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long download() {
+        return client.get()
+                .uri("/")
+                .responseContent()
+                .map(ByteBuf::readableBytes)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileDownloadBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
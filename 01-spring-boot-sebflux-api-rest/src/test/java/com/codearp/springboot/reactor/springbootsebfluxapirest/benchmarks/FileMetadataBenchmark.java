@@ -0,0 +1,154 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageMetrics;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageScheduler;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls.FileMetadataIndexImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls.FileMetadataJournalImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls.FileStorageReadServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metadatos de {@link FileStorageReadServiceImpl#getMetadataFileByResourceId} ({@code store}: journal binario
+ * {@link FileMetadataJournalImpl} o un {@code <uuid>.json} por recurso):
+ * <ul>
+ *   <li>{@code parseJson}: sólo el parseo con Jackson de un JSON ya en memoria.</li>
+ *   <li>{@code readFromDisk}: fallo del índice; búsqueda en el índice mapeado del journal, o lectura del JSON por
+ *       {@code AsynchronousFileChannel} ({@link FileStorageIO}) y parseo.</li>
+ *   <li>{@code readFromDiskBlocking}: la misma lectura con {@code ObjectMapper.readValue(File)} en el scheduler
+ *       de I/O, como antes de {@link FileStorageIO} ({@code scheduler}: hilos de plataforma o un hilo virtual
+ *       por tarea, ver {@link FileStorageScheduler}).</li>
+ *   <li>{@code indexHit}: acierto del índice en memoria (el caso normal tras el arranque).</li>
+ *   <li>{@code writeMetadata}: alta de metadatos; un anexado al journal o un JSON nuevo.</li>
+ * </ul>
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="FileMetadataBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileMetadataBenchmark {
+
+    @Param({"1000"})
+    private int files;
+
+    @Param({FileStorageScheduler.BOUNDED_ELASTIC, FileStorageScheduler.VIRTUAL})
+    private String scheduler;
+
+    @Param({"journal", "json"})
+    private String store;
+
+    private Path uploadDir;
+    private ObjectMapper objectMapper;
+    private FileStorageScheduler fileStorageScheduler;
+    private FileStorageIO fileStorageIO;
+    private FileMetadataJournalImpl fileMetadataJournal;
+    private FileMetadataIndexImpl fileMetadataIndex;
+    private FileStorageReadServiceImpl fileStorageReadService;
+    private UUID[] ids;
+    private byte[] json;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("metadata-benchmark");
+        objectMapper = new ObjectMapper();
+        ids = new UUID[files];
+        for (int i = 0; i < files; i++) {
+            ids[i] = UUID.randomUUID();
+            FileStorageService.ResourceDetail detail =
+                    new FileStorageService.ResourceDetail(ids[i], "picture-" + i + ".jpg", "image/jpeg", 1024L * i);
+            objectMapper.writeValue(uploadDir.resolve(ids[i] + ".json").toFile(), detail);
+        }
+        json = Files.readAllBytes(uploadDir.resolve(ids[0] + ".json"));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        fileStorageScheduler = new FileStorageScheduler(meterRegistry, scheduler, 0, 100000);
+        fileStorageIO = new FileStorageIO(objectMapper, fileStorageScheduler, meterRegistry, 0);
+        fileMetadataJournal = new FileMetadataJournalImpl(objectMapper, fileStorageScheduler, uploadDir.toString(),
+                "journal".equals(store), Duration.ofMinutes(10), 0.5);
+        // Con el journal, la primera apertura importa los JSON
+        fileMetadataJournal.size();
+        fileMetadataIndex = new FileMetadataIndexImpl(objectMapper, uploadDir.toString(), files, fileStorageScheduler,
+                fileStorageIO, fileMetadataJournal);
+        fileMetadataIndex.reload().block();
+        fileStorageReadService = new FileStorageReadServiceImpl(objectMapper, fileMetadataIndex,
+                new FileStorageMetrics(meterRegistry), fileStorageScheduler, fileStorageIO);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileMetadataJournal.shutdown();
+        fileStorageIO.shutdown();
+        fileStorageScheduler.shutdown();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public FileStorageService.ResourceDetail parseJson() throws IOException {
+        return objectMapper.readValue(json, FileStorageService.ResourceDetail.class);
+    }
+
+    @Benchmark
+    public FileStorageService.ResourceDetail readFromDisk() {
+        UUID id = nextId();
+        fileMetadataIndex.remove(id);
+        return fileStorageReadService.getMetadataFileByResourceId(id.toString()).block();
+    }
+
+    @Benchmark
+    public FileStorageService.ResourceDetail readFromDiskBlocking() {
+        Path file = uploadDir.resolve(nextId() + ".json");
+        return Mono.fromCallable(() -> objectMapper.readValue(file.toFile(), FileStorageService.ResourceDetail.class))
+                .subscribeOn(fileStorageScheduler.io())
+                .block();
+    }
+
+    @Benchmark
+    public FileStorageService.ResourceDetail indexHit() {
+        return fileStorageReadService.getMetadataFileByResourceId(nextId().toString()).block();
+    }
+
+    @Benchmark
+    public Object writeMetadata() {
+        UUID id = UUID.randomUUID();
+        FileStorageService.ResourceDetail detail = new FileStorageService.ResourceDetail(id, "picture.jpg", "image/jpeg", 1024L);
+        return fileMetadataJournal.isEnabled()
+                ? fileMetadataJournal.append(detail).block()
+                : fileStorageIO.writeJson(uploadDir.resolve(id + ".json"), detail).block();
+    }
+
+    private UUID nextId() {
+        next = (next + 1) % ids.length;
+        return ids[next];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileMetadataBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utilidades estáticas que se ejecutan en cada petición de ficheros y productos:
+ * <ul>
+ *   <li>{@code normaliceName}: cadena de {@code Optional.map} con cuatro {@code replace}.</li>
+ *   <li>{@code buildNameUnique} / {@code buildNameUniqueWithFileName}: nombre en disco del recurso.</li>
+ *   <li>{@code amountFileToPath}: además de normalizar, comprueba el directorio en disco (tres llamadas al sistema).</li>
+ *   <li>{@code resolveResourcePath}: la combinación que usan las lecturas y borrados por resourceId.</li>
+ *   <li>{@code categoryExact} / {@code categoryLowerCase}: {@link CATEGORY#fromString} por la tabla y por el camino con toUpperCase.</li>
+ * </ul>
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="FileNamingBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileNamingBenchmark {
+
+    private static final String FILE_NAME = " Mi Archivo ../Final\\Informe 2024.PDF ";
+
+    private Path uploadDir;
+    private UUID uuid;
+
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("naming-benchmark");
+        uuid = UUID.randomUUID();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(uploadDir);
+    }
+
+    @Benchmark
+    public Optional<String> normaliceName() {
+        return FileStorageService.normaliceName(FILE_NAME);
+    }
+
+    @Benchmark
+    public String buildNameUnique() {
+        return FileStorageService.buildNameFileUniqueNormalice(uuid);
+    }
+
+    @Benchmark
+    public String buildNameUniqueWithFileName() {
+        return FileStorageService.buildNameFileUniqueNormalice(uuid, FILE_NAME);
+    }
+
+    @Benchmark
+    public Path amountFileToPath() {
+        return FileStorageService.amountFileToPath(uploadDir, FILE_NAME);
+    }
+
+    @Benchmark
+    public Path resolveResourcePath() {
+        return FileStorageService.amountFileToPath(uploadDir, FileStorageService.buildNameFileUniqueNormalice(uuid));
+    }
+
+    @Benchmark
+    public CATEGORY categoryExact() {
+        return CATEGORY.fromString("ELECTRONICS");
+    }
+
+    @Benchmark
+    public CATEGORY categoryLowerCase() {
+        return CATEGORY.fromString("electronics");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileNamingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,177 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.configs.EndpointFunctionalConfig;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.controllers.GlobalExceptionHandler;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.controllers.ProductRestController;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacadeImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.handlers.ProductHandler;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.inmemory.InMemoryCategoryDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.inmemory.InMemoryProductDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.CategoryCacheServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductCacheServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductChangeFeedImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por petición de la misma API de productos en los dos modelos de WebFlux:
+ * <ul>
+ *   <li>{@code annotated}: {@link ProductRestController} en {@code /api/products} (DispatcherHandler,
+ *       RequestMappingHandlerAdapter y resolución de argumentos por reflexión).</li>
+ *   <li>{@code functional}: las rutas de {@link EndpointFunctionalConfig} en {@code /api/v2/products}.</li>
+ * </ul>
+ * Ambos usan la misma fachada sobre repositorios en memoria y la cache de productos, y se invocan con
+ * {@link WebTestClient} sin red, de modo que la diferencia es el despacho y la (de)serialización de cada modelo.
+ * {@code createAndDelete} hace dos peticiones por operación para que el catálogo no crezca.
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="ProductEndpointsBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductEndpointsBenchmark {
+
+    @Param({"annotated", "functional"})
+    private String stack;
+
+    @Param({"100"})
+    private int products;
+
+    private WebTestClient client;
+    private ValidatorFactory validatorFactory;
+    private String basePath;
+    private List<String> ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        InMemoryCategoryDao categoryDao = new InMemoryCategoryDao(Duration.ZERO, 64);
+        for (CATEGORY cat : CATEGORY.values()) {
+            categoryDao.save(new Category(null, cat.name())).block();
+        }
+        CategoryCacheServiceImpl categoryCacheService = new CategoryCacheServiceImpl(categoryDao, Duration.ofHours(1));
+        categoryCacheService.refreshAll().block();
+
+        CATEGORY[] categories = CATEGORY.values();
+        InMemoryProductDao productDao = new InMemoryProductDao(Duration.ZERO, 64);
+        for (int i = 0; i < products; i++) {
+            Category category = categoryCacheService.findByCategory(categories[i % categories.length]).block();
+            productDao.save(new Product(null, "Product " + i, 10.0 + i, new Date(), category, "picture-" + i)).block();
+        }
+        ids = productDao.findAll().map(Product::getId).collectSortedList().block();
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductChangeFeedImpl productChangeFeed = new ProductChangeFeedImpl(16, 16);
+        ProductServiceImpl productService = new ProductServiceImpl(productDao, categoryCacheService,
+                resourceId -> Mono.empty(), productChangeFeed, validatorFactory.getValidator(),
+                new SingleFlight<>("products.findById", meterRegistry),
+                new ProductCacheServiceImpl(meterRegistry, true, 64L * 1024 * 1024, Duration.ofHours(1), Duration.ofHours(1)),
+                500, 4, 200);
+        ShopFacade shopFacade = new ShopFacadeImpl(productService, productChangeFeed);
+
+        // Las operaciones medidas no tocan ficheros: la fachada de ficheros no se necesita
+        if ("annotated".equals(stack)) {
+            basePath = "/api/products";
+            client = WebTestClient.bindToController(new ProductRestController(shopFacade, null, Duration.ofSeconds(15)))
+                    .controllerAdvice(new GlobalExceptionHandler())
+                    .build();
+        } else {
+            basePath = "/api/v2/products";
+            ProductHandler productHandler = new ProductHandler(shopFacade, null,
+                    validatorFactory.getValidator(), new ObjectMapper());
+            client = WebTestClient.bindToRouterFunction(new EndpointFunctionalConfig().routes(productHandler))
+                    .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public ProductDto recoverById() {
+        next = (next + 1) % ids.size();
+        return client.get().uri(basePath + "/{id}", ids.get(next))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductDto.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public List<ProductDto> recoverAll() {
+        return client.get().uri(basePath)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductDto.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String createAndDelete() {
+        ProductDto productDto = ProductDto.builder()
+                .name("Benchmark product")
+                .price(9.99)
+                .category(CATEGORY.OTHER)
+                .build();
+
+        Map<String, Object> created = client.post().uri(basePath)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(productDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+
+        // POST /api/products devuelve un ResponseEntity anidado: el producto va en "body"
+        Map<String, Object> saved = created.containsKey("body") ? (Map<String, Object>) created.get("body") : created;
+        String id = (String) saved.get("id");
+
+        client.delete().uri(basePath + "/{id}", id)
+                .exchange()
+                .expectStatus().isNoContent();
+        return id;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductEndpointsBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
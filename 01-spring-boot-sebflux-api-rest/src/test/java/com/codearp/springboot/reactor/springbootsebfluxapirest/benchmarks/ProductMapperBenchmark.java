@@ -0,0 +1,111 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.ProductMapper;
+import org.modelmapper.Converter;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el coste por elemento de convertir {@link Product} a {@link ProductDto}:
+ * <ul>
+ *   <li>{@code handWritten}: copia manual + resolución de categoría recorriendo values() con equalsIgnoreCase (código anterior).</li>
+ *   <li>{@code productMapper}: {@link ProductMapper} con tabla de búsqueda de {@link CATEGORY}.</li>
+ *   <li>{@code modelMapper}: ModelMapper (dependencia ya declarada en el pom) con un conversor para la categoría.</li>
+ * </ul>
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="ProductMapperBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+
+    @Param({"1000"})
+    private int products;
+
+    private List<Product> source;
+    private ModelMapper modelMapper;
+
+    @Setup
+    public void setUp() {
+        CATEGORY[] categories = CATEGORY.values();
+        source = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Category category = new Category("cat-" + i % categories.length, categories[i % categories.length].name());
+            source.add(new Product("id-" + i, "Product " + i, 10.0 + i, new Date(), category, "picture-" + i));
+        }
+
+        modelMapper = new ModelMapper();
+        Converter<Category, CATEGORY> categoryConverter =
+                ctx -> ctx.getSource() == null ? null : CATEGORY.fromCategory(ctx.getSource());
+        modelMapper.createTypeMap(Product.class, ProductDto.class)
+                .addMappings(m -> m.using(categoryConverter).map(Product::getCategory, ProductDto::setCategory));
+    }
+
+    @Benchmark
+    public void handWritten(Blackhole bh) {
+        for (Product product : source) {
+            ProductDto productDto = new ProductDto();
+            productDto.setId(product.getId());
+            productDto.setName(product.getName());
+            productDto.setPrice(product.getPrice());
+            productDto.setCreateAt(product.getCreateAt());
+            productDto.setPicture(product.getPicture());
+            if (product.getCategory() != null) {
+                productDto.setCategory(legacyFromString(product.getCategory().getName().toString()));
+            }
+            bh.consume(productDto);
+        }
+    }
+
+    @Benchmark
+    public void productMapper(Blackhole bh) {
+        for (Product product : source) {
+            bh.consume(ProductMapper.toDto(product));
+        }
+    }
+
+    @Benchmark
+    public void modelMapper(Blackhole bh) {
+        for (Product product : source) {
+            bh.consume(modelMapper.map(product, ProductDto.class));
+        }
+    }
+
+    // Implementación anterior de CATEGORY.fromString, conservada como referencia
+    private static CATEGORY legacyFromString(String category) {
+        for (CATEGORY cat : CATEGORY.values()) {
+            if (cat.name().equalsIgnoreCase(category)) {
+                return cat;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant for category: " + category);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductMapperBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
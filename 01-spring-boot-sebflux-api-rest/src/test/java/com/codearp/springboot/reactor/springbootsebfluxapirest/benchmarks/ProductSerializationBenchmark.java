@@ -0,0 +1,95 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.configs.BinaryCodecsConfig;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.ProductMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de serializar y deserializar una lista de {@code products} {@link ProductDto} en cada {@code format}
+ * negociable por la API: JSON, Smile y CBOR, con los mappers Jackson 3 de {@link BinaryCodecsConfig} para los
+ * formatos binarios.
+ * <p>
+ * {@code encode} y {@code decode} miden operaciones por milisegundo; el tamaño del payload de cada combinación se
+ * imprime al preparar el benchmark ({@code format, products: bytes}).
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="ProductSerializationBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"1", "1000"})
+    private int products;
+
+    private List<ProductDto> dtos;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> JsonMapper.builder().findAndAddModules().build();
+            case "smile" -> BinaryCodecsConfig.smileMapper();
+            case "cbor" -> BinaryCodecsConfig.cborMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        TypeReference<List<ProductDto>> listType = new TypeReference<>() { };
+        writer = mapper.writerFor(listType);
+        reader = mapper.readerFor(listType);
+
+        CATEGORY[] categories = CATEGORY.values();
+        dtos = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Category category = new Category("cat-" + i % categories.length, categories[i % categories.length].name());
+            dtos.add(ProductMapper.toDto(new Product("id-" + i, "Product " + i, 10.0 + i, new Date(), category, "picture-" + i)));
+        }
+        payload = encode();
+        System.out.printf("%n%s, %d products: %d bytes%n", format, products, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return writer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public List<ProductDto> decode() {
+        return reader.readValue(payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSerializationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
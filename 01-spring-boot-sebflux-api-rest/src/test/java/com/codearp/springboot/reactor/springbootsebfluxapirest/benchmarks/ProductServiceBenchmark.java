@@ -0,0 +1,127 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductPageDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.inmemory.InMemoryCategoryDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.inmemory.InMemoryProductDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.CategoryCacheServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductCacheServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductChangeFeedImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.PageCursor;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecturas de {@link ProductServiceImpl} contra repositorios en memoria del perfil {@code inmem}:
+ * mide el mapeo a {@link ProductDto} y el operador reactivo de cada operación sin la latencia de Mongo.
+ * <ul>
+ *   <li>{@code recoverAll}: findAll + mapeo de todo el catálogo.</li>
+ *   <li>{@code recoverFirstPage} / {@code recoverMiddlePage}: paginación por keyset (decodificar cursor, pedir size + 1).</li>
+ *   <li>{@code recoverById}: búsqueda por id y mapeo de un producto (con {@code cached=true} desde la cache de productos).</li>
+ * </ul>
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="ProductServiceBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    @Param({"50"})
+    private int pageSize;
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private ProductServiceImpl productService;
+    private ValidatorFactory validatorFactory;
+    private List<String> ids;
+    private String middleCursor;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        InMemoryCategoryDao categoryDao = new InMemoryCategoryDao(Duration.ZERO, 64);
+        for (CATEGORY cat : CATEGORY.values()) {
+            categoryDao.save(new Category(null, cat.name())).block();
+        }
+        CategoryCacheServiceImpl categoryCacheService = new CategoryCacheServiceImpl(categoryDao, Duration.ofHours(1));
+        categoryCacheService.refreshAll().block();
+
+        CATEGORY[] categories = CATEGORY.values();
+        InMemoryProductDao productDao = new InMemoryProductDao(Duration.ZERO, 64);
+        for (int i = 0; i < products; i++) {
+            Category category = categoryCacheService.findByCategory(categories[i % categories.length]).block();
+            productDao.save(new Product(null, "Product " + i, 10.0 + i, new Date(), category, "picture-" + i)).block();
+        }
+        ids = productDao.findAll().map(Product::getId).collectSortedList().block();
+        middleCursor = PageCursor.encode(ids.get(ids.size() / 2));
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        productService = new ProductServiceImpl(productDao, categoryCacheService,
+                resourceId -> Mono.empty(), new ProductChangeFeedImpl(16, 16), validatorFactory.getValidator(),
+                new SingleFlight<>("products.findById", meterRegistry),
+                new ProductCacheServiceImpl(meterRegistry, cached, 64L * 1024 * 1024, Duration.ofHours(1), Duration.ofHours(1)),
+                500, 4, 200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> recoverAll() {
+        return productService.recoverALlProduct().collectList().block();
+    }
+
+    @Benchmark
+    public ProductPageDto recoverFirstPage() {
+        return productService.recoverProductPage(null, pageSize).block();
+    }
+
+    @Benchmark
+    public ProductPageDto recoverMiddlePage() {
+        return productService.recoverProductPage(middleCursor, pageSize).block();
+    }
+
+    @Benchmark
+    public ProductDto recoverById() {
+        next = (next + 1) % ids.size();
+        return productService.recoverProductById(ids.get(next)).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductServiceBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.benchmarks;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.configs.ResponseCompressionFilter;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.ProductMapper;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.ResponseCompressor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compromiso CPU/bytes de {@link ResponseCompressionFilter}: comprime con {@link ResponseCompressor} el JSON de
+ * una lista de {@code products} productos (como lo devuelve {@code GET /api/products}), troceado en buffers de
+ * 8 KB como los que emite el encoder de Jackson.
+ * <p>
+ * {@code compress} mide las respuestas comprimidas por milisegundo para cada {@code encoding} y {@code level}
+ * (1 = más rápido, 9 = más pequeño). El tamaño resultante de cada combinación se imprime al preparar el
+ * benchmark ({@code original -> comprimido}); junto con el throughput da los bytes ahorrados por milisegundo
+ * de CPU.
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="ResponseCompressionBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseCompressionBenchmark {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"20", "1000"})
+    private int products;
+
+    @Param({ResponseCompressor.GZIP, ResponseCompressor.DEFLATE})
+    private String encoding;
+
+    @Param({"1", "6", "9"})
+    private int level;
+
+    private List<ByteBuffer> chunks;
+
+    @Setup
+    public void setUp() throws IOException {
+        CATEGORY[] categories = CATEGORY.values();
+        List<ProductDto> dtos = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Category category = new Category("cat-" + i % categories.length, categories[i % categories.length].name());
+            dtos.add(ProductMapper.toDto(new Product("id-" + i, "Product " + i, 10.0 + i, new Date(), category, "picture-" + i)));
+        }
+        byte[] json = new ObjectMapper().writeValueAsBytes(dtos);
+        chunks = new ArrayList<>();
+        for (int offset = 0; offset < json.length; offset += CHUNK_SIZE) {
+            chunks.add(ByteBuffer.wrap(json, offset, Math.min(CHUNK_SIZE, json.length - offset)).slice());
+        }
+        long compressed = compress();
+        System.out.printf("%n%s level %d, %d products: %d -> %d bytes (%.1f%%)%n",
+                encoding, level, products, json.length, compressed, 100.0 * compressed / json.length);
+    }
+
+    @Benchmark
+    public long compress() {
+        long size = 0;
+        try (ResponseCompressor compressor = new ResponseCompressor(encoding, level)) {
+            for (ByteBuffer chunk : chunks) {
+                size += size(compressor.write(DefaultDataBufferFactory.sharedInstance.wrap(chunk.duplicate()),
+                        DefaultDataBufferFactory.sharedInstance));
+            }
+            size += size(compressor.finish(DefaultDataBufferFactory.sharedInstance));
+        }
+        return size;
+    }
+
+    private static int size(DataBuffer buffer) {
+        return buffer != null ? buffer.readableByteCount() : 0;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseCompressionBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,161 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.configs;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.files.FileStorageFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.handlers.ProductHandler;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.BinaryMediaTypes;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.type.TypeReference;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BinaryCodecsConfigTest {
+
+    private static final TypeReference<List<ProductDto>> PRODUCT_LIST = new TypeReference<>() { };
+
+    private final List<ProductDto> products = List.of(product("a"), product("b"));
+
+    private ShopFacade shopFacade;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        shopFacade = mock(ShopFacade.class);
+        when(shopFacade.recoverAllProducts()).thenReturn(Flux.fromIterable(products));
+        ProductHandler handler = new ProductHandler(shopFacade, mock(FileStorageFacade.class), mock(Validator.class),
+                new ObjectMapper());
+        BinaryCodecsConfig config = new BinaryCodecsConfig(DataSize.ofKilobytes(256));
+        // Además de /api/v2/products, un /stream como el de ProductRestController
+        client = WebTestClient.bindToRouterFunction(new EndpointFunctionalConfig().routes(handler)
+                        .and(RouterFunctions.route()
+                                .GET("/stream", request -> ServerResponse.ok()
+                                        .contentType(BinaryMediaTypes.APPLICATION_STREAM_SMILE)
+                                        .body(Flux.fromIterable(products), ProductDto.class))
+                                .build()))
+                .handlerStrategies(HandlerStrategies.builder().codecs(config::configureHttpMessageCodecs).build())
+                .build();
+    }
+
+    @Test
+    void givenAcceptCbor_whenProductsListed_thenSingleCborArray() {
+        byte[] body = get("/api/v2/products", BinaryMediaTypes.APPLICATION_CBOR);
+
+        assertEquals(products, BinaryCodecsConfig.cborMapper().readValue(body, PRODUCT_LIST));
+    }
+
+    @Test
+    void givenAcceptSmile_whenProductsListed_thenSingleSmileArray() {
+        byte[] body = get("/api/v2/products", BinaryMediaTypes.APPLICATION_SMILE);
+
+        assertEquals(products, BinaryCodecsConfig.smileMapper().readValue(body, PRODUCT_LIST));
+    }
+
+    @Test
+    void givenGenericAccept_whenProductsListed_thenJson() {
+        client.get().uri("/api/v2/products")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody().jsonPath("$[1].id").isEqualTo("b");
+    }
+
+    @Test
+    void givenQualityValues_whenProductsListed_thenHighestQualityProducibleFormat() {
+        byte[] body = client.get().uri("/api/v2/products")
+                .header("Accept", "application/json;q=0.5, application/cbor;q=0.9, application/x-jackson-smile;q=0.1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(BinaryMediaTypes.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(products, BinaryCodecsConfig.cborMapper().readValue(body, PRODUCT_LIST));
+    }
+
+    @Test
+    void givenJsonExcludedByQualityZero_whenProductsListed_thenNextProducibleFormat() {
+        client.get().uri("/api/v2/products")
+                .header("Accept", "application/json;q=0, */*;q=0.8")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(BinaryMediaTypes.APPLICATION_SMILE);
+    }
+
+    @Test
+    void givenNoProducibleAcceptedType_whenProductSaved_thenNotAcceptableAndNothingSaved() {
+        client.post().uri("/api/v2/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_XML)
+                .bodyValue(product("c"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+
+        verify(shopFacade, never()).saveProduct(any());
+    }
+
+    @Test
+    void givenStreamSmile_whenProductsStreamed_thenOneSmileDocumentPerProduct() {
+        byte[] body = get("/stream", BinaryMediaTypes.APPLICATION_STREAM_SMILE);
+
+        List<ProductDto> decoded = BinaryCodecsConfig.smileMapper().readerFor(ProductDto.class)
+                .<ProductDto>readValues(body)
+                .readAll();
+        assertEquals(products, decoded);
+    }
+
+    @Test
+    void givenCborBody_whenProductSaved_thenDecodedAndAnsweredInAcceptedFormat() {
+        when(shopFacade.saveProduct(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        byte[] request = BinaryCodecsConfig.cborMapper().writeValueAsBytes(product("c"));
+
+        byte[] body = client.post().uri("/api/v2/products")
+                .contentType(BinaryMediaTypes.APPLICATION_CBOR)
+                .accept(BinaryMediaTypes.APPLICATION_SMILE)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(BinaryMediaTypes.APPLICATION_SMILE)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(product("c"), BinaryCodecsConfig.smileMapper().readValue(body, ProductDto.class));
+    }
+
+    private byte[] get(String uri, MediaType accept) {
+        byte[] body = client.get().uri(uri)
+                .accept(accept)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(accept)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(body);
+        return body;
+    }
+
+    private static ProductDto product(String id) {
+        return ProductDto.builder().id(id).name("Product " + id).price(10.0).category(CATEGORY.values()[0]).build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.configs;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacadeImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.files.FileStorageFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.handlers.ProductHandler;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.ProductDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.CategoryCacheService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductChangeFeed;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageRemoveService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductCacheServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+class EndpointFunctionalConfigTest {
+
+    private ShopFacade shopFacade;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        shopFacade = mock(ShopFacade.class);
+        ProductHandler handler = new ProductHandler(shopFacade, mock(FileStorageFacade.class), mock(Validator.class),
+                new ObjectMapper());
+        client = WebTestClient.bindToRouterFunction(new EndpointFunctionalConfig().routes(handler)).build();
+    }
+
+    @Test
+    void givenProductId_whenGet_thenRecoveredByIdNotListed() {
+        when(shopFacade.recoverProductById("a")).thenReturn(Mono.just(product("a")));
+
+        client.get().uri("/api/v2/products/a").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo("a");
+
+        verify(shopFacade, never()).recoverAllProducts();
+    }
+
+    @Test
+    void givenUnknownProductId_whenGet_thenNotFoundFromService() {
+        ProductDao productDao = mock(ProductDao.class);
+        when(productDao.findById("missing")).thenReturn(Mono.empty());
+        FileStorageRemoveService fileStorageRemoveService = mock(FileStorageRemoveService.class);
+        when(fileStorageRemoveService.deleteFile(anyString())).thenReturn(Mono.empty());
+        ProductServiceImpl productService = new ProductServiceImpl(productDao, mock(CategoryCacheService.class),
+                fileStorageRemoveService, mock(ProductChangeFeed.class), mock(Validator.class),
+                new SingleFlight<>("products.findById", new SimpleMeterRegistry()),
+                new ProductCacheServiceImpl(new SimpleMeterRegistry(), false, 0, Duration.ofMinutes(10), Duration.ofMinutes(8)),
+                2, 1, 200);
+        ProductHandler handler = new ProductHandler(new ShopFacadeImpl(productService, mock(ProductChangeFeed.class)),
+                mock(FileStorageFacade.class), mock(Validator.class), new ObjectMapper());
+        WebTestClient serviceClient =
+                WebTestClient.bindToRouterFunction(new EndpointFunctionalConfig().routes(handler)).build();
+
+        serviceClient.get().uri("/api/v2/products/missing").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Product not found with id: missing");
+    }
+
+    @Test
+    void givenCollectionPath_whenGet_thenAllProductsListed() {
+        when(shopFacade.recoverAllProducts()).thenReturn(Flux.just(product("a"), product("b")));
+
+        client.get().uri("/api/v2/products").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+
+        verify(shopFacade, never()).recoverProductById(anyString());
+    }
+
+    @Test
+    void givenNestedSubPath_whenGet_thenNotFoundInsteadOfListing() {
+        client.get().uri("/api/v2/products/a/b").exchange()
+                .expectStatus().isNotFound();
+
+        verifyNoInteractions(shopFacade);
+    }
+
+    private static ProductDto product(String id) {
+        return ProductDto.builder().id(id).name("Product " + id).price(10.0).category(CATEGORY.values()[0]).build();
+    }
+}
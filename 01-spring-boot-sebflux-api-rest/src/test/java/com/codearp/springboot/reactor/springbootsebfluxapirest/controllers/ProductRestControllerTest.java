@@ -0,0 +1,172 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.controllers;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductBatchDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductBatchRequestDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductChangeEventDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.ShopFacadeImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.facades.files.FileStorageFacade;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.ProductDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.CategoryCacheService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductChangeFeed;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageRemoveService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductCacheServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductServiceImpl;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class ProductRestControllerTest {
+
+    private ShopFacade shopFacade;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        shopFacade = mock(ShopFacade.class);
+        client = WebTestClient.bindToController(
+                        new ProductRestController(shopFacade, mock(FileStorageFacade.class), Duration.ofMinutes(1)))
+                .build();
+    }
+
+    @Test
+    void givenProducts_whenStreamed_thenOneJsonLinePerProduct() {
+        when(shopFacade.recoverAllProducts()).thenReturn(Flux.just(product("a"), product("b")));
+
+        Flux<ProductDto> body = client.get().uri("/api/products/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductDto.class)
+                .getResponseBody();
+
+        StepVerifier.create(body.map(ProductDto::getId))
+                .expectNext("a", "b")
+                .verifyComplete();
+    }
+
+    @Test
+    void givenMalformedLineInImport_whenPosted_thenSummaryKeepsSavedBatchesAndReportsError() {
+        ProductDao productDao = mock(ProductDao.class);
+        CategoryCacheService categoryCacheService = mock(CategoryCacheService.class);
+        when(categoryCacheService.findByCategory(any())).thenReturn(Mono.just(new Category("1", "BOOKS")));
+        when(productDao.saveAll(anyIterable()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Iterable<Product>>getArgument(0)));
+        ProductChangeFeed productChangeFeed = mock(ProductChangeFeed.class);
+        ProductServiceImpl productService = new ProductServiceImpl(productDao, categoryCacheService,
+                mock(FileStorageRemoveService.class), productChangeFeed,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new SingleFlight<>("products.findById", new SimpleMeterRegistry()),
+                new ProductCacheServiceImpl(new SimpleMeterRegistry(), false, 0, Duration.ofMinutes(10), Duration.ofMinutes(8)),
+                2, 1, 200);
+        WebTestClient importClient = WebTestClient.bindToController(
+                new ProductRestController(new ShopFacadeImpl(productService, productChangeFeed), mock(FileStorageFacade.class),
+                        Duration.ofMinutes(1))).build();
+
+        String body = """
+                {"name":"a","price":1.0,"category":"BOOKS"}
+                {"name":"b","price":2.0,"category":"BOOKS"}
+                {"name":"c","price":3.0,"category":"BOOKS"}
+                {"name":
+                """;
+
+        importClient.post().uri("/api/products/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.inserted").isEqualTo(3)
+                .jsonPath("$.batches.length()").isEqualTo(2)
+                .jsonPath("$.error").value(error -> assertTrue(error.toString().startsWith("Import stopped")));
+    }
+
+    @Test
+    void givenLastEventId_whenChangesRequested_thenResumesFromFacadeWithEventIds() {
+        when(shopFacade.productChanges(41L)).thenReturn(Flux.just(
+                ProductChangeEventDto.builder().sequence(42).type(ProductChangeEventDto.Type.UPSERT)
+                        .productId("a").product(product("a")).build(),
+                ProductChangeEventDto.builder().sequence(43).type(ProductChangeEventDto.Type.DELETE)
+                        .productId("b").build()));
+
+        Flux<ServerSentEvent<ProductChangeEventDto>> events = client.get().uri("/api/products/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "41")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<ProductChangeEventDto>>() {})
+                .getResponseBody();
+
+        StepVerifier.create(events.take(2))
+                .assertNext(event -> {
+                    assertEquals("42", event.id());
+                    assertEquals("UPSERT", event.event());
+                    assertEquals("a", event.data().getProductId());
+                })
+                .assertNext(event -> {
+                    assertEquals("43", event.id());
+                    assertEquals("DELETE", event.event());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void givenBatchOverMaxIds_whenPosted_thenBadRequest() {
+        ProductServiceImpl productService = new ProductServiceImpl(mock(ProductDao.class),
+                mock(CategoryCacheService.class), mock(FileStorageRemoveService.class), mock(ProductChangeFeed.class),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new SingleFlight<>("products.findById", new SimpleMeterRegistry()),
+                new ProductCacheServiceImpl(new SimpleMeterRegistry(), false, 0, Duration.ofMinutes(10), Duration.ofMinutes(8)),
+                2, 1, 2);
+        WebTestClient batchClient = WebTestClient.bindToController(
+                new ProductRestController(new ShopFacadeImpl(productService, mock(ProductChangeFeed.class)),
+                        mock(FileStorageFacade.class), Duration.ofMinutes(1))).build();
+
+        batchClient.post().uri("/api/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ProductBatchRequestDto(List.of("a", "b", "c")))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void givenBatchIds_whenGet_thenItemsAndNotFoundFromFacade() {
+        when(shopFacade.recoverProductsByIds(List.of("b", "x", "a"))).thenReturn(Mono.just(ProductBatchDto.builder()
+                .items(List.of(product("b"), product("a")))
+                .notFound(List.of("x"))
+                .build()));
+
+        client.get().uri("/api/products/batch?ids=b,x,a")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo("b")
+                .jsonPath("$.items[1].id").isEqualTo("a")
+                .jsonPath("$.notFound[0]").isEqualTo("x");
+    }
+
+    private static ProductDto product(String id) {
+        return ProductDto.builder().id(id).name("Product " + id).price(10.0).category(CATEGORY.values()[0]).build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ChunkedUploadService.ByteRange;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.ChunkedUploadService.UploadSession;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageScheduler;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageWriterService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChunkedUploadServiceImplTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path tempDir;
+
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 0, 100000);
+
+    private FileStorageWriterService writerService;
+    private ChunkedUploadServiceImpl uploads;
+
+    @BeforeEach
+    void setUp() {
+        writerService = mock(FileStorageWriterService.class);
+        uploads = new ChunkedUploadServiceImpl(new ObjectMapper(), writerService, fileStorageScheduler, tempDir.toString(),
+                1024, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fileStorageScheduler.shutdown();
+    }
+
+    @Test
+    void givenChunksOutOfOrder_whenWritten_thenRangesMergedAndPartAssembled() throws IOException {
+        AtomicReference<String> promoted = new AtomicReference<>();
+        when(writerService.promoteFile(eq("hola.txt"), eq("text/plain"), any(), isNull())).thenAnswer(invocation -> {
+            promoted.set(Files.readString(invocation.<Path>getArgument(2)));
+            return Mono.just(new FileStorageService.ResourceUUID(UUID.randomUUID()));
+        });
+        UploadSession session = uploads.create("hola.txt", "text/plain", 10, null).block(TIMEOUT);
+        UUID id = session.uploadId();
+
+        uploads.writeChunk(id, 5, content("mundo")).block(TIMEOUT);
+        UploadSession partial = uploads.status(id).block(TIMEOUT);
+        assertEquals(List.of(new ByteRange(5, 9)), partial.received());
+        assertFalse(partial.isComplete());
+
+        UploadSession done = uploads.writeChunk(id, 0, content("hola ")).block(TIMEOUT);
+        assertEquals(List.of(new ByteRange(0, 9)), done.received());
+
+        assertNotNull(uploads.complete(id).block(TIMEOUT));
+        assertEquals("hola mundo", promoted.get());
+        StepVerifier.create(uploads.status(id)).verifyComplete();
+    }
+
+    @Test
+    void givenMissingBytes_whenCompleted_thenConflict() {
+        UUID id = uploads.create("hola.txt", "text/plain", 10, null).block(TIMEOUT).uploadId();
+        uploads.writeChunk(id, 0, content("hola ")).block(TIMEOUT);
+
+        StepVerifier.create(uploads.complete(id))
+                .expectErrorSatisfies(e -> assertStatus(HttpStatus.CONFLICT, e))
+                .verify(TIMEOUT);
+        verifyNoInteractions(writerService);
+    }
+
+    @Test
+    void givenChunkBeyondDeclaredSize_whenWritten_thenRangeNotSatisfiable() {
+        UUID id = uploads.create("hola.txt", "text/plain", 4, null).block(TIMEOUT).uploadId();
+
+        StepVerifier.create(uploads.writeChunk(id, 0, content("hola mundo")))
+                .expectErrorSatisfies(e -> assertStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, e))
+                .verify(TIMEOUT);
+        assertEquals(List.of(), uploads.status(id).block(TIMEOUT).received());
+    }
+
+    @Test
+    void givenChunkBeingWritten_whenCompletedOrAborted_thenConflictUntilItFinishes() {
+        when(writerService.promoteFile(any(), any(), any(), any()))
+                .thenReturn(Mono.just(new FileStorageService.ResourceUUID(UUID.randomUUID())));
+        UUID id = uploads.create("hola.txt", "text/plain", 10, null).block(TIMEOUT).uploadId();
+        uploads.writeChunk(id, 0, content("hola mundo")).block(TIMEOUT);
+
+        // Un reenvío del mismo trozo que todavía no ha terminado de llegar
+        Sinks.Many<DataBuffer> slowBody = Sinks.many().unicast().onBackpressureBuffer();
+        Mono<UploadSession> resend = uploads.writeChunk(id, 0, slowBody.asFlux()).cache();
+        resend.subscribe();
+        slowBody.tryEmitNext(buffer("hola "));
+
+        StepVerifier.create(uploads.complete(id))
+                .expectErrorSatisfies(e -> assertStatus(HttpStatus.CONFLICT, e))
+                .verify(TIMEOUT);
+        StepVerifier.create(uploads.abort(id))
+                .expectErrorSatisfies(e -> assertStatus(HttpStatus.CONFLICT, e))
+                .verify(TIMEOUT);
+
+        slowBody.tryEmitNext(buffer("mundo"));
+        slowBody.tryEmitComplete();
+        resend.block(TIMEOUT);
+
+        assertNotNull(uploads.complete(id).block(TIMEOUT));
+        verify(writerService).promoteFile(any(), any(), any(), any());
+    }
+
+    @Test
+    void givenCompletionInProgress_whenChunkWritten_thenConflict() {
+        Sinks.One<FileStorageService.ResourceUUID> promotion = Sinks.one();
+        when(writerService.promoteFile(any(), any(), any(), any())).thenReturn(promotion.asMono());
+        UUID id = uploads.create("hola.txt", "text/plain", 10, null).block(TIMEOUT).uploadId();
+        uploads.writeChunk(id, 0, content("hola mundo")).block(TIMEOUT);
+
+        Mono<FileStorageService.ResourceUUID> completion = uploads.complete(id).cache();
+        completion.subscribe();
+
+        StepVerifier.create(uploads.writeChunk(id, 0, content("hola ")))
+                .expectErrorSatisfies(e -> assertStatus(HttpStatus.CONFLICT, e))
+                .verify(TIMEOUT);
+
+        promotion.tryEmitValue(new FileStorageService.ResourceUUID(UUID.randomUUID()));
+        assertNotNull(completion.block(TIMEOUT));
+    }
+
+    @Test
+    void givenRanges_whenMerged_thenOverlappingAndAdjacentJoined() {
+        List<ByteRange> merged = ChunkedUploadServiceImpl.merge(
+                List.of(new ByteRange(0, 9), new ByteRange(20, 29)), new ByteRange(10, 24));
+
+        assertEquals(List.of(new ByteRange(0, 29)), merged);
+    }
+
+    private static void assertStatus(HttpStatus expected, Throwable error) {
+        assertEquals(expected, assertInstanceOf(ResponseStatusException.class, error).getStatusCode());
+    }
+
+    private static Flux<DataBuffer> content(String text) {
+        return Flux.just(buffer(text));
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
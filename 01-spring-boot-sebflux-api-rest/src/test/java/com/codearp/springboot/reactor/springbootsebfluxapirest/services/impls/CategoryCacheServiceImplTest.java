@@ -0,0 +1,51 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.CategoryDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+class CategoryCacheServiceImplTest {
+
+    private final Category electronics = new Category("1", "ELECTRONICS");
+    private final Category books = new Category("2", "BOOKS");
+
+    private CategoryDao categoryDao;
+    private CategoryCacheServiceImpl cache;
+
+    @BeforeEach
+    void setUp() {
+        categoryDao = mock(CategoryDao.class);
+        cache = new CategoryCacheServiceImpl(categoryDao, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void givenRefreshedCache_whenFound_thenServedWithoutQuery() {
+        when(categoryDao.findAll()).thenReturn(Flux.just(electronics, books));
+        cache.refreshAll().block(Duration.ofSeconds(5));
+
+        StepVerifier.create(cache.findByCategory(CATEGORY.BOOKS)).expectNext(books).verifyComplete();
+        verify(categoryDao, never()).findByName(anyString());
+    }
+
+    @Test
+    void givenCategoryDeleted_whenRefreshed_thenNoLongerCached() {
+        when(categoryDao.findAll()).thenReturn(Flux.just(electronics, books), Flux.just(electronics));
+        when(categoryDao.findByName("BOOKS")).thenReturn(Mono.empty());
+        cache.refreshAll().block(Duration.ofSeconds(5));
+
+        cache.refreshAll().block(Duration.ofSeconds(5));
+
+        StepVerifier.create(cache.findByCategory(CATEGORY.BOOKS)).verifyComplete();
+        StepVerifier.create(cache.findByCategory(CATEGORY.ELECTRONICS)).expectNext(electronics).verifyComplete();
+        verify(categoryDao).findByName("BOOKS");
+    }
+}
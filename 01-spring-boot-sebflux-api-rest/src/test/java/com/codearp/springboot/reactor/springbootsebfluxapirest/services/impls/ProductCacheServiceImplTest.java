@@ -0,0 +1,139 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheServiceImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCacheServiceImpl productCacheService;
+    private AtomicInteger loads;
+    private Function<String, Mono<Product>> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCacheService = new ProductCacheServiceImpl(meterRegistry, true, 1024 * 1024,
+                Duration.ofMinutes(10), Duration.ofMinutes(8));
+        loads = new AtomicInteger();
+        loader = id -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return new Product(id, "Product " + id, 10.0, new Date());
+        });
+    }
+
+    @Test
+    void givenCachedProduct_whenGet_thenLoadedOnceAndHitCounted() {
+        productCacheService.get("a", loader).block();
+        Product cached = productCacheService.get("a", loader).block();
+
+        assertNotNull(cached);
+        assertEquals("Product a", cached.getName());
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void givenConcurrentMisses_whenLoadPending_thenOneLoadShared() {
+        Sinks.One<Product> pending = Sinks.one();
+        AtomicInteger pendingLoads = new AtomicInteger();
+        Function<String, Mono<Product>> slowLoader = id -> {
+            pendingLoads.incrementAndGet();
+            return pending.asMono();
+        };
+
+        StepVerifier.create(Mono.zip(productCacheService.get("a", slowLoader), productCacheService.get("a", slowLoader)))
+                .then(() -> pending.tryEmitValue(new Product("a", "Product a", 10.0, new Date())))
+                .assertNext(both -> assertSame(both.getT1(), both.getT2()))
+                .verifyComplete();
+        assertEquals(1, pendingLoads.get());
+    }
+
+    @Test
+    void givenMissingProduct_whenGet_thenEmptyAndNotCached() {
+        StepVerifier.create(productCacheService.get("missing", id -> Mono.empty()))
+                .verifyComplete();
+
+        assertEquals(0, productCacheService.size());
+    }
+
+    @Test
+    void givenInvalidation_whenGet_thenReloaded() {
+        productCacheService.get("a", loader).block();
+        productCacheService.invalidate("a");
+        productCacheService.get("a", loader).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void givenInvalidationDuringLoad_whenLoadCompletes_thenStaleValueNotStored() {
+        Sinks.One<Product> pending = Sinks.one();
+        Mono<Product> staleLoad = productCacheService.get("a", id -> pending.asMono());
+
+        StepVerifier.create(staleLoad)
+                .then(() -> {
+                    productCacheService.invalidate("a");
+                    pending.tryEmitValue(new Product("a", "stale", 10.0, new Date()));
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals("Product a", productCacheService.get("a", loader).block().getName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenMaxWeight_whenManyProducts_thenWeightStaysBounded() {
+        SimpleMeterRegistry smallRegistry = new SimpleMeterRegistry();
+        ProductCacheServiceImpl small = new ProductCacheServiceImpl(smallRegistry, true, 1000,
+                Duration.ofMinutes(10), Duration.ofMinutes(8));
+
+        for (int i = 0; i < 50; i++) {
+            small.get("p" + i, loader).block();
+        }
+        small.cleanUp();
+
+        assertTrue(small.size() < 50);
+        assertTrue(smallRegistry.get("cache.weight").gauge().value() <= 1000);
+        assertTrue(smallRegistry.get("cache.evictions").functionCounter().count() > 0);
+    }
+
+    @Test
+    void givenEntryOlderThanRefreshAfter_whenGet_thenServedAndReloadedInBackground() {
+        ProductCacheServiceImpl refreshing = new ProductCacheServiceImpl(meterRegistry, true, 1024 * 1024,
+                Duration.ofMinutes(10), Duration.ZERO);
+
+        refreshing.get("a", loader).block();
+        Product served = refreshing.get("a", loader).block();
+
+        assertNotNull(served);
+        assertEquals(2, loads.get());
+        assertEquals(1, refreshing.size());
+    }
+
+    @Test
+    void givenDisabled_whenGet_thenAlwaysLoads() {
+        ProductCacheServiceImpl disabled = new ProductCacheServiceImpl(meterRegistry, false, 1024 * 1024,
+                Duration.ofMinutes(10), Duration.ofMinutes(8));
+
+        disabled.get("a", loader).block();
+        disabled.get("a", loader).block();
+
+        assertEquals(2, loads.get());
+        assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductChangeEventDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductChangeFeedImplTest {
+
+    @Test
+    void givenNoLastEventId_whenSubscribed_thenOnlyLiveChanges() {
+        ProductChangeFeedImpl feed = new ProductChangeFeedImpl(10, 10);
+        feed.publishUpsert(product("old"));
+
+        StepVerifier.create(feed.changes(null).take(1))
+                .then(() -> feed.publishDelete("new"))
+                .assertNext(event -> {
+                    assertEquals(ProductChangeEventDto.Type.DELETE, event.getType());
+                    assertEquals("new", event.getProductId());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void givenLastEventIdInBuffer_whenSubscribed_thenReplaysMissedEventsInOrder() {
+        ProductChangeFeedImpl feed = new ProductChangeFeedImpl(10, 10);
+        feed.publishUpsert(product("a"));
+        long lastSeen = currentSequence(feed);
+        feed.publishUpsert(product("b"));
+        feed.publishDelete("a");
+
+        StepVerifier.create(feed.changes(lastSeen).take(2))
+                .assertNext(event -> {
+                    assertEquals(lastSeen + 1, event.getSequence());
+                    assertEquals("b", event.getProductId());
+                })
+                .assertNext(event -> {
+                    assertEquals(lastSeen + 2, event.getSequence());
+                    assertEquals(ProductChangeEventDto.Type.DELETE, event.getType());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void givenLastEventIdOutOfBuffer_whenSubscribed_thenResetFirstAndThenLiveChanges() {
+        ProductChangeFeedImpl feed = new ProductChangeFeedImpl(2, 10);
+        feed.publishUpsert(product("a"));
+        long evicted = currentSequence(feed);
+        feed.publishUpsert(product("b"));
+        feed.publishUpsert(product("c"));
+        feed.publishUpsert(product("d"));
+
+        StepVerifier.create(feed.changes(evicted).take(2))
+                .assertNext(event -> assertEquals(ProductChangeEventDto.Type.RESET, event.getType()))
+                .then(() -> feed.publishDelete("d"))
+                .assertNext(event -> assertEquals("d", event.getProductId()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void givenIdFromPreviousRun_whenSubscribed_thenReset() {
+        ProductChangeFeedImpl feed = new ProductChangeFeedImpl(10, 10);
+
+        StepVerifier.create(feed.changes(Long.MAX_VALUE).take(1))
+                .assertNext(event -> assertEquals(ProductChangeEventDto.Type.RESET, event.getType()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    // Un id inexistente devuelve RESET con la secuencia actual
+    private static long currentSequence(ProductChangeFeedImpl feed) {
+        return feed.changes(Long.MAX_VALUE).blockFirst().getSequence();
+    }
+
+    private static ProductDto product(String id) {
+        return ProductDto.builder().id(id).name("Product " + id).price(1.0).build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Category;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.dtos.ProductDto;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.repositories.ProductDao;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.CategoryCacheService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.ProductChangeFeed;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.files.FileStorageRemoveService;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.CATEGORY;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.PageCursor;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.shared.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductServiceImplTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private ProductDao productDao;
+    private CategoryCacheService categoryCacheService;
+    private ProductChangeFeed productChangeFeed;
+    private ProductServiceImpl productService;
+
+    @BeforeEach
+    void setUp() {
+        productDao = mock(ProductDao.class);
+        categoryCacheService = mock(CategoryCacheService.class);
+        productChangeFeed = mock(ProductChangeFeed.class);
+        when(categoryCacheService.findByCategory(any()))
+                .thenAnswer(invocation -> Mono.just(new Category("1", invocation.<CATEGORY>getArgument(0).name())));
+        when(productDao.saveAll(anyIterable()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Iterable<Product>>getArgument(0)));
+        productService = new ProductServiceImpl(productDao, categoryCacheService, mock(FileStorageRemoveService.class),
+                productChangeFeed, VALIDATOR,
+                new SingleFlight<>("products.findById", new SimpleMeterRegistry()),
+                new ProductCacheServiceImpl(new SimpleMeterRegistry(), false, 0, Duration.ofMinutes(10), Duration.ofMinutes(8)),
+                2, 1, 3);
+    }
+
+    @Test
+    void givenMoreProductsThanPageSize_whenFirstPage_thenCursorPointsToLastItem() {
+        when(productDao.findAllByOrderByIdAsc(Limit.of(3))).thenReturn(products("a", "b", "c"));
+
+        StepVerifier.create(productService.recoverProductPage(null, 2))
+                .assertNext(page -> {
+                    assertEquals(List.of("a", "b"), page.getItems().stream().map(ProductDto::getId).toList());
+                    assertEquals(2, page.getSize());
+                    assertEquals(PageCursor.encode("b"), page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void givenCursor_whenNextPage_thenKeysetAfterLastIdAndNoCursorAtEnd() {
+        when(productDao.findByIdGreaterThanOrderByIdAsc("b", Limit.of(3))).thenReturn(products("c"));
+
+        StepVerifier.create(productService.recoverProductPage(PageCursor.encode("b"), 2))
+                .assertNext(page -> {
+                    assertEquals(List.of("c"), page.getItems().stream().map(ProductDto::getId).toList());
+                    assertNull(page.getNextCursor());
+                })
+                .verifyComplete();
+        verify(productDao, never()).findAllByOrderByIdAsc(any());
+    }
+
+    @Test
+    void givenInvalidCursor_whenPage_thenBadRequest() {
+        StepVerifier.create(productService.recoverProductPage("not-a-cursor", 2))
+                .expectErrorSatisfies(e -> assertEquals(HttpStatus.BAD_REQUEST,
+                        ((ResponseStatusException) e).getStatusCode()))
+                .verify();
+        verifyNoInteractions(productDao);
+    }
+
+    @Test
+    void givenProducts_whenImported_thenOneSaveAllPerBatchAndInvalidRowsRejected() {
+        Flux<ProductDto> body = Flux.just(dto("a", 10.0), dto("b", -1.0), dto("c", 5.0));
+
+        StepVerifier.create(productService.importProducts(body, null))
+                .assertNext(batch -> {
+                    assertEquals(0, batch.getBatch());
+                    assertEquals(1, batch.getInserted());
+                    assertEquals(1, batch.getRejected());
+                    assertTrue(batch.getErrors().getFirst().startsWith("row 1: price"));
+                })
+                .assertNext(batch -> assertEquals(1, batch.getInserted()))
+                .verifyComplete();
+        verify(productDao, times(2)).saveAll(anyIterable());
+        // Sólo las filas guardadas llegan al feed de cambios
+        verify(productChangeFeed, times(2)).publishUpsert(any());
+    }
+
+    @Test
+    void givenBodyFailsMidway_whenImported_thenRowsReadAreSavedBeforeTheError() {
+        Flux<ProductDto> body = Flux.concat(Flux.just(dto("a", 1.0), dto("b", 2.0), dto("c", 3.0)),
+                Flux.error(new DecodingException("Unexpected character")));
+
+        StepVerifier.create(productService.importProducts(body, null))
+                .assertNext(batch -> assertEquals(2, batch.getInserted()))
+                .assertNext(batch -> assertEquals(1, batch.getInserted()))
+                .expectErrorMessage("Unexpected character")
+                .verify();
+        verify(productDao, times(2)).saveAll(anyIterable());
+    }
+
+    @Test
+    void givenIds_whenBatchLookup_thenOneQueryRequestedOrderAndNotFound() {
+        when(productDao.findAllById(anyIterable())).thenReturn(products("a", "c"));
+
+        StepVerifier.create(productService.recoverProductsByIds(List.of("c", "b", " ", "a", "c")))
+                .assertNext(batch -> {
+                    assertEquals(List.of("c", "a"), batch.getItems().stream().map(ProductDto::getId).toList());
+                    assertEquals(List.of("b"), batch.getNotFound());
+                })
+                .verifyComplete();
+        verify(productDao, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void givenMoreIdsThanMax_whenBatchLookup_thenBadRequestWithoutQuery() {
+        StepVerifier.create(productService.recoverProductsByIds(List.of("a", "b", "c", "d")))
+                .expectErrorSatisfies(e -> assertEquals(HttpStatus.BAD_REQUEST,
+                        ((ResponseStatusException) e).getStatusCode()))
+                .verify();
+        verify(productDao, never()).findAllById(anyIterable());
+    }
+
+    private static ProductDto dto(String name, double price) {
+        return ProductDto.builder().name(name).price(price).category(CATEGORY.BOOKS).build();
+    }
+
+    private static Flux<Product> products(String... ids) {
+        return Flux.fromArray(ids).map(id -> new Product(id, "Product " + id, 10.0, new Date()));
+    }
+}
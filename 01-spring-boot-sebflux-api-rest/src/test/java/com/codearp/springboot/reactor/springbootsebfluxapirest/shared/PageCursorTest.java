@@ -0,0 +1,42 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void givenLastId_whenEncodedAndDecoded_thenSameId() {
+        String token = PageCursor.encode("65f1c0a2b3d4e5f601234567");
+
+        assertEquals(Optional.of("65f1c0a2b3d4e5f601234567"), PageCursor.decode(token));
+    }
+
+    @Test
+    void givenBlankOrNullToken_whenDecoded_thenFirstPage() {
+        assertEquals(Optional.empty(), PageCursor.decode(null));
+        assertEquals(Optional.empty(), PageCursor.decode("  "));
+        assertNull(PageCursor.encode(null));
+    }
+
+    @Test
+    void givenTokenWithoutVersion_whenDecoded_thenRejected() {
+        String token = Base64.getUrlEncoder().encodeToString("65f1c0a2".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("%%%"));
+    }
+
+    @Test
+    void givenSize_whenClamped_thenDefaultOrCapped() {
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(null));
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.clampSize(0));
+        assertEquals(20, PageCursor.clampSize(20));
+        assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.clampSize(10_000));
+    }
+}
@@ -0,0 +1,177 @@
+package com.codearp.springboot.reactor.springbootsebfluxapirest.shared;
+
+import com.codearp.springboot.reactor.springbootsebfluxapirest.documents.Product;
+import com.codearp.springboot.reactor.springbootsebfluxapirest.services.impls.ProductCacheServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+    private AtomicInteger loads;
+    private AtomicBoolean cancelled;
+    private Sinks.One<String> result;
+    private Supplier<Mono<String>> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        loads = new AtomicInteger();
+        cancelled = new AtomicBoolean();
+        result = Sinks.one();
+        loader = () -> {
+            loads.incrementAndGet();
+            return result.asMono().doOnCancel(() -> cancelled.set(true));
+        };
+    }
+
+    @Test
+    void givenLoadInFlight_whenSameKeyRequested_thenOneLoadSharedByAll() {
+        AtomicReference<String> leader = new AtomicReference<>();
+        AtomicReference<String> follower = new AtomicReference<>();
+        singleFlight.execute("a", loader).subscribe(leader::set);
+        singleFlight.execute("a", loader).subscribe(follower::set);
+
+        assertEquals(1, singleFlight.inFlight());
+        result.tryEmitValue("value");
+
+        assertEquals("value", leader.get());
+        assertEquals("value", follower.get());
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlight());
+        assertEquals(1.0, meterRegistry.get("single.flight.requests").tag("role", "follower").counter().count());
+    }
+
+    @Test
+    void givenFollowerJoiningWhileValueIsEmitted_whenSubscribed_thenReceivesValue() {
+        AtomicReference<String> late = new AtomicReference<>();
+        AtomicBoolean lateCompleted = new AtomicBoolean();
+        Mono<String> leader = singleFlight.execute("a", () -> Mono.fromSupplier(() -> {
+                    loads.incrementAndGet();
+                    return "value";
+                }))
+                // La clave sigue en el mapa hasta doFinally: el follower se une a la carga ya emitida
+                .doOnNext(value -> singleFlight.execute("a", loader)
+                        .subscribe(late::set, e -> { }, () -> lateCompleted.set(true)));
+
+        assertEquals("value", leader.block());
+        assertTrue(lateCompleted.get());
+        assertEquals("value", late.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenTwoSubscribers_whenOneCancels_thenLoadContinuesForTheOther() {
+        AtomicReference<String> remaining = new AtomicReference<>();
+        Disposable first = singleFlight.execute("a", loader).subscribe();
+        singleFlight.execute("a", loader).subscribe(remaining::set);
+
+        first.dispose();
+        assertFalse(cancelled.get());
+        assertEquals(1, singleFlight.inFlight());
+
+        result.tryEmitValue("value");
+        assertEquals("value", remaining.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenTwoSubscribers_whenAllCancel_thenLoadCancelledAndKeyReleased() {
+        Disposable first = singleFlight.execute("a", loader).subscribe();
+        Disposable second = singleFlight.execute("a", loader).subscribe();
+
+        first.dispose();
+        second.dispose();
+
+        assertTrue(cancelled.get());
+        assertEquals(0, singleFlight.inFlight());
+
+        result = Sinks.one();
+        AtomicReference<String> next = new AtomicReference<>();
+        singleFlight.execute("a", loader).subscribe(next::set);
+        result.tryEmitValue("reloaded");
+        assertEquals("reloaded", next.get());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void givenForgottenLoad_whenSameKeyRequested_thenNewLoadAndOldSubscribersStillServed() {
+        AtomicReference<String> before = new AtomicReference<>();
+        singleFlight.execute("a", loader).subscribe(before::set);
+        Sinks.One<String> oldResult = result;
+
+        singleFlight.forget("a");
+        result = Sinks.one();
+        AtomicReference<String> after = new AtomicReference<>();
+        singleFlight.execute("a", loader).subscribe(after::set);
+
+        oldResult.tryEmitValue("old");
+        // La carga olvidada no borra la nueva al terminar
+        assertEquals(1, singleFlight.inFlight());
+        result.tryEmitValue("new");
+
+        assertEquals("old", before.get());
+        assertEquals("new", after.get());
+        assertEquals(2, loads.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void givenWriteDuringLookup_whenCacheMissesAfterInvalidation_thenPreWriteValueNotCached() {
+        ProductCacheServiceImpl cache = new ProductCacheServiceImpl(meterRegistry, true, 1024 * 1024,
+                Duration.ofMinutes(10), Duration.ofMinutes(8));
+        SingleFlight<String, Product> lookups = new SingleFlight<>("products", meterRegistry);
+        Sinks.One<Product> preWrite = Sinks.one();
+        AtomicInteger queries = new AtomicInteger();
+        Supplier<Mono<Product>> findById = () -> queries.incrementAndGet() == 1
+                ? preWrite.asMono()
+                : Mono.just(product("after"));
+
+        cache.get("a", key -> lookups.execute(key, findById)).subscribe();
+        // Escritura: como ProductServiceImpl, se suelta la consulta en curso y se invalida
+        lookups.forget("a");
+        cache.invalidate("a");
+        Product afterWrite = cache.get("a", key -> lookups.execute(key, findById)).block(Duration.ofSeconds(5));
+        preWrite.tryEmitValue(product("before"));
+
+        assertNotNull(afterWrite);
+        assertEquals("after", afterWrite.getName());
+        Product cached = cache.get("a", key -> Mono.error(new AssertionError("should be cached"))).block();
+        assertNotNull(cached);
+        assertEquals("after", cached.getName());
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void givenEmptyLoad_whenExecuted_thenEmptyForEverySubscriber() {
+        AtomicBoolean leaderCompleted = new AtomicBoolean();
+        AtomicBoolean followerCompleted = new AtomicBoolean();
+        singleFlight.execute("a", loader).subscribe(v -> fail(), e -> fail(), () -> leaderCompleted.set(true));
+        singleFlight.execute("a", loader).subscribe(v -> fail(), e -> fail(), () -> followerCompleted.set(true));
+
+        result.tryEmitEmpty();
+
+        assertTrue(leaderCompleted.get());
+        assertTrue(followerCompleted.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    private static Product product(String name) {
+        return new Product("a", name, 10.0, new Date(), null, null);
+    }
+}
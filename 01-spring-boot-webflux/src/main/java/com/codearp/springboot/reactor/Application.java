@@ -1,16 +1,18 @@
 package com.codearp.springboot.reactor;
 
+import com.codearp.springboot.reactor.generators.SyntheticDataGenerator;
 import com.codearp.springboot.reactor.models.documents.Category;
 import com.codearp.springboot.reactor.models.documents.Product;
-import com.mongodb.client.MongoClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -23,9 +25,10 @@ public class Application implements CommandLineRunner {
     private final com.codearp.springboot.reactor.dao.ProductDao productDao;
     private final com.codearp.springboot.reactor.dao.CategoryDao categoryDao;
 
-    // Para borrar la colección al iniciar la aplicación
-    private final ReactiveMongoTemplate mongoTemplate;
-    private final MongoClient mongo;
+    // Para borrar la colección al iniciar la aplicación (no existe con el perfil inmem)
+    private final ObjectProvider<ReactiveMongoTemplate> mongoTemplate;
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
 
     @Value("${app.debug:false}")
     private boolean debug;
@@ -37,14 +40,21 @@ public class Application implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
+        if( syntheticDataGenerator.isEnabled() ) {
+            log.info("Generando dataset sintético...");
+            dropCollections()
+                    .then( syntheticDataGenerator.generate() )
+                    .block();
+            return;
+        }
+
           if( Boolean.FALSE.equals(debug) ) {
             return;
         }
 
         log.info("Inicializando datos de prueba...");
-        // Borramos la colección antes de insertar los datos
-        mongoTemplate.dropCollection("categories").subscribe();
-        mongoTemplate.dropCollection("products").subscribe();
+        // Borramos la colección antes de insertar los datos (esperando a que termine para no competir con las inserciones)
+        dropCollections().block();
         Map<String, Category> categoryMap = new HashMap<>();
         categoryMap.put( Category.CategoryName.ELECTRONICS.name(), Category.builder().name( Category.CategoryName.ELECTRONICS ).build() );
         categoryMap.put( Category.CategoryName.HOME.name(), Category.builder().name( Category.CategoryName.HOME ).build() );
@@ -83,4 +93,13 @@ public class Application implements CommandLineRunner {
 
             });
     }
+
+    private Mono<Void> dropCollections() {
+        ReactiveMongoTemplate template = mongoTemplate.getIfAvailable();
+        if( template == null ) {
+            return categoryDao.deleteAll().then( productDao.deleteAll() );
+        }
+        return template.dropCollection("categories")
+                .then( template.dropCollection("products") );
+    }
 }
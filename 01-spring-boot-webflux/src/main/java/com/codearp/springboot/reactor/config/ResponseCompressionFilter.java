@@ -0,0 +1,179 @@
+package com.codearp.springboot.reactor.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Compresión de respuestas negociada por {@code Accept-Encoding} (gzip o deflate, ver {@link ResponseCompressor}).
+ * <p>
+ * Sólo se comprimen los tipos de {@code config.compression.mime-types} (JSON, HTML, CSS, JS...): ni binarios ya
+ * comprimidos ni streams (SSE, NDJSON), que necesitan llegar evento a evento. Tampoco las respuestas con
+ * {@code Content-Length} menor que {@code min-response-size}, donde la cabecera gzip y la CPU no compensan, ni
+ * las que ya traen {@code Content-Encoding} (p. ej. estáticos precomprimidos), rangos (206) o HEAD.
+ * <p>
+ * Los estáticos se sirven ya comprimidos ({@code <fichero>.gz} generado al construir, ver
+ * {@code spring.web.resources.chain.compressed}), sin coste de CPU por petición.
+ * <p>
+ * El nivel ({@code level}, 1-9) es el compromiso CPU/bytes; ver {@code ResponseCompressionBenchmark} en la API
+ * REST. Las respuestas escritas con flush ({@code writeAndFlushWith}, p. ej. las vistas Thymeleaf en modo chunked)
+ * se vacían con SYNC_FLUSH en cada flush. Si la respuesta original admite zero-copy, la decorada también, y los
+ * ficheros de {@code FileRangeResponses} se envían sin comprimir por sendfile.
+ * <p>
+ * Métricas: {@code http.server.compression.bytes} con tag {@code stage} in/out.
+ */
+@Component
+@Slf4j
+public class ResponseCompressionFilter implements WebFilter {
+
+    private final boolean enabled;
+    private final long minResponseSize;
+    private final List<MediaType> mimeTypes;
+    private final int level;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+
+    public ResponseCompressionFilter(@Value("${config.compression.enabled:true}") boolean enabled,
+                                     @Value("${config.compression.min-response-size:1024}") long minResponseSize,
+                                     @Value("${config.compression.mime-types:application/json,text/html,text/css,text/plain,text/xml,application/xml,application/javascript,text/javascript,image/svg+xml}") List<String> mimeTypes,
+                                     @Value("${config.compression.level:6}") int level,
+                                     MeterRegistry meterRegistry) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("config.compression.level must be between 1 and 9: " + level);
+        }
+        this.enabled = enabled;
+        this.minResponseSize = minResponseSize;
+        this.mimeTypes = mimeTypes.stream().map(String::trim).filter(s -> !s.isEmpty()).map(MediaType::parseMediaType).toList();
+        this.level = level;
+        this.bytesIn = Counter.builder("http.server.compression.bytes").tag("stage", "in").register(meterRegistry);
+        this.bytesOut = Counter.builder("http.server.compression.bytes").tag("stage", "out").register(meterRegistry);
+        log.info("Response compression {}: level {}, min size {} bytes, types {}",
+                enabled ? "enabled" : "disabled", level, minResponseSize, this.mimeTypes);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || HttpMethod.HEAD.equals(exchange.getRequest().getMethod())
+                || exchange.getRequest().getHeaders().containsHeader(HttpHeaders.RANGE)) {
+            return chain.filter(exchange);
+        }
+        String encoding = ResponseCompressor.negotiate(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponse compressing = response instanceof ZeroCopyHttpOutputMessage
+                ? new ZeroCopyCompressingResponse(response, encoding)
+                : new CompressingResponse(response, encoding);
+        return chain.filter(exchange.mutate().response(compressing).build());
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final String encoding;
+
+        CompressingResponse(ServerHttpResponse delegate, String encoding) {
+            super(delegate);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!shouldCompress()) {
+                return super.writeWith(body);
+            }
+            return super.writeWith(Flux.using(
+                    this::compressor,
+                    compressor -> Flux.from(body)
+                            .mapNotNull(buffer -> compressor.write(buffer, bufferFactory()))
+                            .concatWith(Mono.fromSupplier(() -> compressor.finish(bufferFactory()))),
+                    this::close));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (!shouldCompress()) {
+                return super.writeAndFlushWith(body);
+            }
+            return super.writeAndFlushWith(Flux.using(
+                    this::compressor,
+                    compressor -> Flux.from(body)
+                            .<Publisher<DataBuffer>>map(chunk -> Flux.from(chunk)
+                                    .mapNotNull(buffer -> compressor.write(buffer, bufferFactory()))
+                                    .concatWith(Mono.fromSupplier(() -> compressor.flush(bufferFactory()))))
+                            .concatWith(Mono.just(Mono.fromSupplier(() -> compressor.finish(bufferFactory())))),
+                    this::close));
+        }
+
+        private ResponseCompressor compressor() {
+            return new ResponseCompressor(encoding, level);
+        }
+
+        private void close(ResponseCompressor compressor) {
+            bytesIn.increment(compressor.inputBytes());
+            bytesOut.increment(compressor.outputBytes());
+            compressor.close();
+        }
+
+        // Decide con las cabeceras ya puestas por el handler y, si comprime, las ajusta
+        private boolean shouldCompress() {
+            HttpHeaders headers = getHeaders();
+            HttpStatusCode status = getStatusCode();
+            if (headers.containsHeader(HttpHeaders.CONTENT_ENCODING)
+                    || (status != null && status.value() == HttpStatus.PARTIAL_CONTENT.value())) {
+                return false;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType == null || mimeTypes.stream().noneMatch(type -> type.isCompatibleWith(contentType))) {
+                return false;
+            }
+            long contentLength = headers.getContentLength();
+            if (contentLength >= 0 && contentLength < minResponseSize) {
+                return false;
+            }
+            headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            // El cuerpo ya no es byte a byte el de un ETag fuerte
+            String etag = headers.getETag();
+            if (etag != null && !etag.startsWith("W/")) {
+                headers.setETag("W/" + etag);
+            }
+            return true;
+        }
+    }
+
+    // Mantiene el envío por sendfile de FileRangeResponses cuando la respuesta original lo admite
+    private class ZeroCopyCompressingResponse extends CompressingResponse implements ZeroCopyHttpOutputMessage {
+
+        ZeroCopyCompressingResponse(ServerHttpResponse delegate, String encoding) {
+            super(delegate, encoding);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Path file, long position, long count) {
+            return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(file, position, count);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.codearp.springboot.reactor.controllers;
+
+import com.codearp.springboot.reactor.services.files.FileStorageMetrics;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Escribe respuestas de descarga de ficheros con soporte de peticiones parciales (RFC 9110):
+ * <ul>
+ *     <li>Sin cabecera {@code Range} (o con un {@code If-Range} que ya no coincide) se devuelve el fichero completo (200).</li>
+ *     <li>Un único rango devuelve {@code 206 Partial Content} con {@code Content-Range}.</li>
+ *     <li>Varios rangos devuelven {@code 206} con un cuerpo {@code multipart/byteranges}.</li>
+ *     <li>Rangos fuera del fichero o mal formados devuelven {@code 416} con {@code Content-Range: bytes *&#47;size}.</li>
+ * </ul>
+ * <p>
+ * El fichero completo y los rangos simples se envían en modo <em>zero-copy</em> cuando la respuesta lo admite
+ * ({@link ZeroCopyHttpOutputMessage}, en Netty un {@code FileRegion}/sendfile): el kernel copia del fichero al
+ * socket sin pasar los bytes por {@link DataBuffer}s del heap. Con {@code multipart/byteranges}, con una
+ * respuesta decorada (p. ej. HEAD) o con {@code config.downloads.zero-copy=false} se usa la lectura por buffers,
+ * posicionando un {@link AsynchronousFileChannel} directamente en el offset pedido. Si la conexión comprime o
+ * usa TLS, Reactor Netty ya cae a lectura por trozos por su cuenta.
+ */
+@Component
+public class FileRangeResponses {
+
+    private final boolean zeroCopy;
+    private final int bufferSize;
+    private final FileStorageMetrics fileStorageMetrics;
+    private final FileStorageScheduler fileStorageScheduler;
+
+    public FileRangeResponses(@Value("${config.downloads.zero-copy:true}") boolean zeroCopy,
+                              @Value("${config.downloads.buffer-size:65536}") int bufferSize,
+                              FileStorageMetrics fileStorageMetrics,
+                              FileStorageScheduler fileStorageScheduler) {
+        this.zeroCopy = zeroCopy;
+        this.bufferSize = Math.max(1024, bufferSize);
+        this.fileStorageMetrics = fileStorageMetrics;
+        this.fileStorageScheduler = fileStorageScheduler;
+    }
+
+    public Mono<Void> write(ServerWebExchange exchange, Path file, MediaType mediaType, String contentDisposition) {
+        return write(exchange, file, mediaType, contentDisposition, CacheControl.empty());
+    }
+
+    public Mono<Void> write(ServerWebExchange exchange, Path file, MediaType mediaType,
+                            String contentDisposition, CacheControl cacheControl) {
+        return Mono.fromCallable(() -> new FileStat(Files.size(file), Files.getLastModifiedTime(file).toInstant()))
+                .subscribeOn(fileStorageScheduler.io())
+                .flatMap(stat -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    HttpHeaders headers = response.getHeaders();
+                    headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+                    headers.set(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+                    headers.setCacheControl(cacheControl);
+                    headers.setETag(stat.etag());
+                    headers.setLastModified(stat.lastModified());
+
+                    // If-None-Match / If-Modified-Since: 304 sin cuerpo
+                    if (exchange.checkNotModified(stat.etag(), stat.lastModified())) {
+                        return response.setComplete();
+                    }
+                    return write(exchange, response, file, stat, mediaType);
+                });
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ServerHttpResponse response, Path file, FileStat stat, MediaType mediaType) {
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        HttpHeaders headers = response.getHeaders();
+        String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+
+        // Sin Range, o el fichero ha cambiado desde que el cliente empezó la descarga: se envía completo
+        if (rangeHeader == null || (ifRange != null && !stat.matches(ifRange))) {
+            response.setStatusCode(HttpStatus.OK);
+            headers.setContentType(mediaType);
+            headers.setContentLength(stat.size());
+            return writeRegion(response, file, 0, stat.size());
+        }
+
+        List<long[]> ranges;
+        try {
+            ranges = toOffsets(HttpRange.parseRanges(rangeHeader), stat.size());
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + stat.size());
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+
+        if (ranges.size() == 1) {
+            long start = ranges.get(0)[0];
+            long end = ranges.get(0)[1];
+            headers.setContentType(mediaType);
+            headers.setContentLength(end - start + 1);
+            headers.set(HttpHeaders.CONTENT_RANGE, contentRange(start, end, stat.size()));
+            return writeRegion(response, file, start, end - start + 1);
+        }
+
+        // multipart/byteranges: cada parte lleva su Content-Type y Content-Range delante de los bytes
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        String boundary = UUID.randomUUID().toString();
+        List<Flux<DataBuffer>> parts = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + mediaType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range[0], range[1], stat.size()) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            long length = range[1] - range[0] + 1;
+            parts.add(Flux.concat(Mono.fromSupplier(() -> bufferFactory.wrap(partHeader)), read(bufferFactory, file, range[0], length)));
+            contentLength += partHeader.length + length;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        parts.add(Mono.fromSupplier(() -> bufferFactory.wrap(closing)).flux());
+        contentLength += closing.length;
+
+        headers.setContentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary));
+        headers.setContentLength(contentLength);
+        return fileStorageMetrics.timed(FileStorageMetrics.DOWNLOAD_BUFFERED,
+                response.writeWith(fileStorageMetrics.countBytes(FileStorageMetrics.DOWNLOAD_BUFFERED, Flux.concat(parts))));
+    }
+
+    private Mono<Void> writeRegion(ServerHttpResponse response, Path file, long position, long count) {
+        if (zeroCopy && response instanceof ZeroCopyHttpOutputMessage zeroCopyResponse) {
+            // Los bytes no pasan por la aplicación: se registra la región enviada al completar
+            return fileStorageMetrics.timed(FileStorageMetrics.DOWNLOAD_ZERO_COPY, zeroCopyResponse.writeWith(file, position, count))
+                    .doOnSuccess(v -> fileStorageMetrics.recordBytes(FileStorageMetrics.DOWNLOAD_ZERO_COPY, count));
+        }
+        return fileStorageMetrics.timed(FileStorageMetrics.DOWNLOAD_BUFFERED,
+                response.writeWith(fileStorageMetrics.countBytes(FileStorageMetrics.DOWNLOAD_BUFFERED,
+                        read(response.bufferFactory(), file, position, count))));
+    }
+
+    /**
+     * Convierte los rangos pedidos en pares [inicio, fin] inclusivos. Igual que Spring al servir
+     * {@code Resource}, rechaza peticiones cuya suma de rangos supera el tamaño del fichero
+     * (rangos solapados usados para amplificar la respuesta).
+     */
+    private static List<long[]> toOffsets(List<HttpRange> httpRanges, long size) {
+        if (httpRanges.isEmpty() || size == 0) {
+            throw new IllegalArgumentException("No satisfiable range");
+        }
+        List<long[]> offsets = new ArrayList<>(httpRanges.size());
+        long total = 0;
+        for (HttpRange httpRange : httpRanges) {
+            long start = httpRange.getRangeStart(size);
+            long end = httpRange.getRangeEnd(size);
+            if (start > end || start >= size) {
+                throw new IllegalArgumentException("Range not satisfiable");
+            }
+            offsets.add(new long[]{start, end});
+            total += end - start + 1;
+        }
+        if (offsets.size() > 1 && total > size) {
+            throw new IllegalArgumentException("Requested ranges exceed the file size");
+        }
+        return offsets;
+    }
+
+    private Flux<DataBuffer> read(DataBufferFactory bufferFactory, Path file, long position, long length) {
+        return DataBufferUtils.takeUntilByteCount(
+                DataBufferUtils.readAsynchronousFileChannel(
+                        () -> AsynchronousFileChannel.open(file, StandardOpenOption.READ),
+                        position,
+                        bufferFactory,
+                        (int) Math.min(bufferSize, Math.max(1, length))
+                ),
+                length
+        );
+    }
+
+    private static String contentRange(long start, long end, long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+
+    private record FileStat(long size, Instant lastModified) {
+
+        // ETag fuerte derivado de tamaño y fecha de modificación (If-Range exige comparación fuerte)
+        String etag() {
+            return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+        }
+
+        boolean matches(String ifRange) {
+            String value = ifRange.trim();
+            if (value.startsWith("W/")) {
+                return false;
+            }
+            if (value.startsWith("\"")) {
+                return value.equals(etag());
+            }
+            try {
+                Instant date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return date.getEpochSecond() == lastModified.getEpochSecond();
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+}
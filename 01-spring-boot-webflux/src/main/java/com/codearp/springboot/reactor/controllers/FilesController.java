@@ -1,17 +1,21 @@
 package com.codearp.springboot.reactor.controllers;
 
 import com.codearp.springboot.reactor.facade.FileStorageFacade;
+import com.codearp.springboot.reactor.services.files.ImageDerivativeService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import reactor.core.publisher.Flux;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
 import java.util.Optional;
 
 @Controller
@@ -19,11 +23,17 @@ import java.util.Optional;
 public class FilesController {
 
     private final FileStorageFacade fileStorageFacade;
+    private final FileRangeResponses fileRangeResponses;
 
-    // Sirve archivos con seguridad básica y en modo reactivo (IO en boundedElastic)
+    // Sirve archivos con seguridad básica y en modo reactivo (IO en el scheduler de I/O).
+    // Admite Range/If-Range (206, multipart/byteranges, 416) para reanudar descargas y saltar en vídeos;
+    // el fichero completo y los rangos simples se envían con zero-copy (sendfile) cuando el servidor lo permite.
+    // Con ?w= las imágenes se sirven redimensionadas (variante cacheada en disco del ancho permitido más cercano).
     @GetMapping("/files/{resourceId:.+}")
-    public Mono<ResponseEntity<Flux<DataBuffer>>> getFile(
-            @PathVariable String resourceId) {
+    public Mono<Void> getFile(
+            @PathVariable String resourceId,
+            @RequestParam(name = "w", required = false) Integer width,
+            ServerWebExchange exchange) {
 
         return fileStorageFacade.getMetadataFileByResourceId(resourceId)
                 .map(resourceDetail ->
@@ -31,13 +41,19 @@ public class FilesController {
                                 .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)
                 )
                 .map(MediaType::parseMediaType)
-                .map(mediaType ->
-                        ResponseEntity.ok()
-                                .contentType(mediaType)
-                                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resourceId + "\"")
-                                .header(HttpHeaders.CACHE_CONTROL, "max-age=3600, must-revalidate")
-                                .body(fileStorageFacade.getContentFieByResourceId(resourceId))
-                );
+                .zipWith(fileStorageFacade.getPathFileByResourceId(resourceId))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found")))
+                .flatMap(file -> width != null
+                        ? fileStorageFacade.getImageVariant(file.getT2(), file.getT1(), width)
+                        : Mono.just(new ImageDerivativeService.ImageVariant(file.getT2(), file.getT1())))
+                .flatMap(file -> fileRangeResponses.write(
+                        exchange,
+                        file.path(),
+                        file.mediaType(),
+                        "inline; filename=\"" + resourceId + "\"",
+                        CacheControl.maxAge(Duration.ofHours(1)).mustRevalidate()
+                ))
+                .onErrorMap(NoSuchFileException.class, e -> new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found", e));
     }
 
 
@@ -45,26 +61,22 @@ public class FilesController {
 
     // download
     @GetMapping("/files/download/{resourceId:.+}")
-    public Mono<ResponseEntity<Flux<DataBuffer>>> downloadFile(@PathVariable("resourceId") String resourceId) {
-
-        Flux<DataBuffer> dataBufferFlux =
-                fileStorageFacade.getContentFieByResourceId(resourceId);
+    public Mono<Void> downloadFile(@PathVariable("resourceId") String resourceId, ServerWebExchange exchange) {
 
         return fileStorageFacade.getMetadataFileByResourceId(resourceId)
-                .switchIfEmpty(Mono.error(new RuntimeException("File not found")))
-                .flatMap(metadata ->
-                        Mono.just(
-                                ResponseEntity.ok()
-                                        .contentType(MediaType.parseMediaType(
-                                                Optional.ofNullable(metadata.contentType())
-                                                        .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)
-                                        ))
-                                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + metadata.name() + "\"")
-                                        .body(dataBufferFlux)
-                        )
-                )
-                .switchIfEmpty(Mono.error(new RuntimeException("File not found")))
-                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
+                .zipWith(fileStorageFacade.getPathFileByResourceId(resourceId))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found")))
+                .flatMap(file -> fileRangeResponses.write(
+                        exchange,
+                        file.getT2(),
+                        MediaType.parseMediaType(
+                                Optional.ofNullable(file.getT1().contentType())
+                                        .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                        ),
+                        "attachment; filename=\"" + file.getT1().name() + "\""
+                ))
+                // Sólo la ausencia del fichero o de sus metadatos es un 404; el resto de errores llega al manejador
+                .onErrorMap(NoSuchFileException.class, e -> new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found", e));
     }
 
 }
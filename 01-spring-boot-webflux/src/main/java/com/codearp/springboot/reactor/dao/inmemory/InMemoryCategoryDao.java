@@ -0,0 +1,19 @@
+package com.codearp.springboot.reactor.dao.inmemory;
+
+import com.codearp.springboot.reactor.dao.CategoryDao;
+import com.codearp.springboot.reactor.models.documents.Category;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+@Repository
+@Profile("inmem")
+public class InMemoryCategoryDao extends InMemoryReactiveRepository<Category> implements CategoryDao {
+
+    public InMemoryCategoryDao(@Value("${config.inmem.latency:PT0S}") Duration latency,
+                               @Value("${config.inmem.stripes:64}") int stripes) {
+        super(Category::getId, Category::setId, latency, stripes);
+    }
+}
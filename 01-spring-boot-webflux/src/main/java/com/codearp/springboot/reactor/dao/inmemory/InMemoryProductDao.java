@@ -0,0 +1,19 @@
+package com.codearp.springboot.reactor.dao.inmemory;
+
+import com.codearp.springboot.reactor.dao.ProductDao;
+import com.codearp.springboot.reactor.models.documents.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+@Repository
+@Profile("inmem")
+public class InMemoryProductDao extends InMemoryReactiveRepository<Product> implements ProductDao {
+
+    public InMemoryProductDao(@Value("${config.inmem.latency:PT0S}") Duration latency,
+                              @Value("${config.inmem.stripes:64}") int stripes) {
+        super(Product::getId, Product::setId, latency, stripes);
+    }
+}
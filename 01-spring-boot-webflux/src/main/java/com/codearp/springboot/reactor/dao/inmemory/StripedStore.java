@@ -0,0 +1,173 @@
+package com.codearp.springboot.reactor.dao.inmemory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Almacén clave → documento repartido en particiones, cada una con su propio lock de lectura/escritura:
+ * las escrituras de claves distintas casi nunca compiten por el mismo lock.
+ * <p>
+ * Cada partición está ordenada por clave, de modo que la paginación por keyset mezcla como mucho
+ * {@code limit} entradas de cada partición en lugar de ordenar todo el almacén.
+ */
+final class StripedStore<T> {
+
+    private final Stripe<T>[] stripes;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    StripedStore(int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe<>();
+        }
+        this.mask = size - 1;
+    }
+
+    T get(String key) {
+        Stripe<T> stripe = stripeOf(key);
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return stripe.entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean containsKey(String key) {
+        return get(key) != null;
+    }
+
+    void put(String key, T value) {
+        Stripe<T> stripe = stripeOf(key);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            stripe.entries.put(key, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    T remove(String key) {
+        Stripe<T> stripe = stripeOf(key);
+        Lock lock = stripe.lock.writeLock();
+        lock.lock();
+        try {
+            return stripe.entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<T> stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    void clear() {
+        for (Stripe<T> stripe : stripes) {
+            Lock lock = stripe.lock.writeLock();
+            lock.lock();
+            try {
+                stripe.entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Copia de todos los documentos; cada partición se lee bajo su lock, no hay una foto global **/
+    List<T> values() {
+        List<T> values = new ArrayList<>();
+        for (Stripe<T> stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                values.addAll(stripe.entries.values());
+            } finally {
+                lock.unlock();
+            }
+        }
+        return values;
+    }
+
+    T findFirst(Predicate<T> predicate) {
+        for (Stripe<T> stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                for (T value : stripe.entries.values()) {
+                    if (predicate.test(value)) {
+                        return value;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Los {@code limit} primeros documentos en orden de clave con clave mayor que {@code after}
+     * (desde el principio si es nulo).
+     */
+    List<T> firstAfter(String after, int limit) {
+        List<Map.Entry<String, T>> candidates = new ArrayList<>();
+        for (Stripe<T> stripe : stripes) {
+            Lock lock = stripe.lock.readLock();
+            lock.lock();
+            try {
+                NavigableMap<String, T> view = after == null ? stripe.entries : stripe.entries.tailMap(after, false);
+                int taken = 0;
+                for (Map.Entry<String, T> entry : view.entrySet()) {
+                    if (taken++ == limit) {
+                        break;
+                    }
+                    candidates.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        candidates.sort(Map.Entry.comparingByKey());
+
+        List<T> page = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (int i = 0; i < candidates.size() && i < limit; i++) {
+            page.add(candidates.get(i).getValue());
+        }
+        return page;
+    }
+
+    private Stripe<T> stripeOf(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Stripe<T> {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TreeMap<String, T> entries = new TreeMap<>();
+    }
+}
@@ -1,11 +1,15 @@
 package com.codearp.springboot.reactor.facade;
 
 import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.codearp.springboot.reactor.services.files.ImageDerivativeService;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+
 public interface FileStorageFacade {
 
     Mono<FileStorageService.ResourceUUID> saveFile(FilePart filePart );
@@ -14,6 +18,8 @@ public interface FileStorageFacade {
 
     Flux<DataBuffer> getContentFieByResourceId(String resourceId);
     Mono<FileStorageService.ResourceDetail> getMetadataFileByResourceId(String resourceId);
+    Mono<Path> getPathFileByResourceId(String resourceId);
+    Mono<ImageDerivativeService.ImageVariant> getImageVariant(Path file, MediaType mediaType, int width);
 
     Mono<Void> deleteFileByResourceId(String resourceId);
 }
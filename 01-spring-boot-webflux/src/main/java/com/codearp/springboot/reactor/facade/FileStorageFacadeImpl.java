@@ -4,14 +4,18 @@ import com.codearp.springboot.reactor.services.files.FileStorageDeleteService;
 import com.codearp.springboot.reactor.services.files.FileStorageReadService;
 import com.codearp.springboot.reactor.services.files.FileStorageService;
 import com.codearp.springboot.reactor.services.files.FileStorageWriterService;
+import com.codearp.springboot.reactor.services.files.ImageDerivativeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -20,6 +24,7 @@ public class FileStorageFacadeImpl implements FileStorageFacade {
     private final FileStorageWriterService fileStorageWriterService;
     private final FileStorageReadService fileStorageReadService;
     private final FileStorageDeleteService fileStorageDeleteService;
+    private final ImageDerivativeService imageDerivativeService;
 
 
     @Override
@@ -42,6 +47,16 @@ public class FileStorageFacadeImpl implements FileStorageFacade {
         return fileStorageReadService.getMetadataFileByResourceId(resourceId);
     }
 
+    @Override
+    public Mono<Path> getPathFileByResourceId(String resourceId) {
+        return fileStorageReadService.getPathFileByResourceId(resourceId);
+    }
+
+    @Override
+    public Mono<ImageDerivativeService.ImageVariant> getImageVariant(Path file, MediaType mediaType, int width) {
+        return imageDerivativeService.variant(file, mediaType, width);
+    }
+
     @Override
     public Mono<Void> deleteFileByResourceId(String resourceId) {
         return fileStorageDeleteService.deleteFileByResourceId(resourceId);
@@ -0,0 +1,35 @@
+package com.codearp.springboot.reactor.services;
+
+import com.codearp.springboot.reactor.models.documents.Product;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Cache read-through en memoria de los productos por id.
+ * <p>
+ * Acotada por peso estimado en bytes (Caffeine decide qué expulsar según frecuencia y recencia), con
+ * caducidad ({@code ttl}) y refresco anticipado: un acierto con más antigüedad que {@code refresh-after}
+ * se sirve desde memoria y lanza una recarga en segundo plano. Las escrituras invalidan la entrada; una
+ * carga que empezó antes de una invalidación no se guarda.
+ * <p>
+ * Los {@link Product} son mutables (el formulario de edición los guarda en sesión y hace el binding
+ * sobre ellos), por lo que la cache guarda su propia copia y entrega otra copia en cada acierto.
+ * <p>
+ * Métricas de Caffeine con {@code cache=products} ({@code cache.gets} result hit/miss,
+ * {@code cache.evictions}, {@code cache.size}...) más {@code cache.weight}.
+ */
+public interface ProductCacheService {
+
+    /**
+     * Devuelve el producto desde memoria o lo carga con {@code loader} y lo guarda.
+     * Los productos inexistentes no se cachean.
+     */
+    Mono<Product> get(String id, Function<String, Mono<Product>> loader);
+
+    void invalidate(String id);
+
+    void invalidateAll();
+
+    int size();
+}
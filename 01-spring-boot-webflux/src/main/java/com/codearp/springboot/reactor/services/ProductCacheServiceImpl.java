@@ -0,0 +1,159 @@
+package com.codearp.springboot.reactor.services;
+
+import com.codearp.springboot.reactor.models.documents.Category;
+import com.codearp.springboot.reactor.models.documents.Product;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+@Service
+@Slf4j
+public class ProductCacheServiceImpl implements ProductCacheService {
+
+    // Cabecera del objeto, campos, Date y categoría; cada carácter de los String cuenta 2 bytes
+    private static final int BASE_WEIGHT = 200;
+
+    private final boolean enabled;
+    private final long refreshAfterMillis;
+
+    // Cada entrada es la carga (CompletableFuture) del producto: las peticiones concurrentes del mismo id
+    // comparten la carga en curso, y una invalidación la retira del mapa sin bloquear a las demás claves
+    private final AsyncCache<String, Product> cache;
+    private final Policy.FixedExpiration<String, Product> expiration;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public ProductCacheServiceImpl(MeterRegistry meterRegistry,
+                                   @Value("${config.cache.products.enabled:true}") boolean enabled,
+                                   @Value("${config.cache.products.max-weight:33554432}") long maxWeight,
+                                   @Value("${config.cache.products.ttl:PT10M}") Duration ttl,
+                                   @Value("${config.cache.products.refresh-after:PT8M}") Duration refreshAfter) {
+        this.enabled = enabled;
+        this.refreshAfterMillis = Math.min(refreshAfter.toMillis(), ttl.toMillis());
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(BASE_WEIGHT, maxWeight))
+                .weigher((String id, Product product) -> weigh(product))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.expiration = cache.synchronous().policy().expireAfterWrite().orElseThrow();
+
+        // cache.gets (hit/miss), cache.evictions, cache.size, cache.puts...
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        Gauge.builder("cache.weight", this, ProductCacheServiceImpl::weight).tag("cache", "products")
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Product> get(String id, Function<String, Mono<Product>> loader) {
+        if (!enabled || id == null) {
+            return loader.apply(id);
+        }
+
+        return Mono.defer(() -> {
+            AtomicBoolean miss = new AtomicBoolean();
+            CompletableFuture<Product> future = cache.get(id, (key, executor) -> {
+                miss.set(true);
+                return loader.apply(key).toFuture();
+            });
+            if (!miss.get()) {
+                refreshIfStale(id, future, loader);
+            }
+            // Cancelar una petición no cancela la carga compartida con las demás; cada una recibe su copia
+            return Mono.fromFuture(future, true).map(ProductCacheServiceImpl::copyOf);
+        });
+    }
+
+    @Override
+    public void invalidate(String id) {
+        if (id != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public int size() {
+        return (int) cache.synchronous().estimatedSize();
+    }
+
+    // Aplica las expulsiones pendientes (Caffeine las hace de forma asíncrona)
+    void cleanUp() {
+        cache.synchronous().cleanUp();
+    }
+
+    private long weight() {
+        return cache.synchronous().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * Refresco anticipado: una entrada cargada hace más de {@code refresh-after} se sigue sirviendo y se
+     * recarga en segundo plano, una sola vez por id. La recarga sólo sustituye a la misma carga que la
+     * originó: si entretanto se invalidó o se volvió a cargar, se descarta.
+     */
+    private void refreshIfStale(String id, CompletableFuture<Product> current, Function<String, Mono<Product>> loader) {
+        if (!current.isDone() || current.isCompletedExceptionally()
+                || expiration.ageOf(id, TimeUnit.MILLISECONDS).orElse(0) < refreshAfterMillis
+                || !refreshing.add(id)) {
+            return;
+        }
+        loader.apply(id).toFuture().whenComplete((product, e) -> {
+            try {
+                if (e != null) {
+                    log.warn("Error refreshing product {} in cache: {}", id, e.getMessage());
+                } else if (product == null) {
+                    // Borrado por otra vía: deja de servirse
+                    cache.asMap().remove(id, current);
+                } else {
+                    cache.asMap().replace(id, current, CompletableFuture.completedFuture(product));
+                }
+            } finally {
+                refreshing.remove(id);
+            }
+        });
+    }
+
+    private static Product copyOf(Product product) {
+        Category category = product.getCategory() == null
+                ? null
+                : new Category(product.getCategory().getId(), product.getCategory().getName());
+        return new Product(product.getId(), product.getName(), product.getPrice(),
+                product.getCreateAt() == null ? null : new Date(product.getCreateAt().getTime()),
+                category, product.getPicture());
+    }
+
+    private static int weigh(Product product) {
+        long chars = length(product.getId()) + length(product.getName()) + length(product.getPicture());
+        if (product.getCategory() != null) {
+            chars += length(product.getCategory().getId());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, BASE_WEIGHT + 2 * chars);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
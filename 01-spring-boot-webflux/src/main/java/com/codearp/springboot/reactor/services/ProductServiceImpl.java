@@ -19,6 +19,9 @@ public class ProductServiceImpl implements ProductService {
     private final ProductDao productDao;
     private final CategoryService categoryService;
 
+    // Lecturas por id desde memoria; save/update/delete invalidan la entrada
+    private final ProductCacheService productCacheService;
+
     @Override
     public Flux<Product> findAll() {
 
@@ -42,7 +45,7 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Mono<Product> findById(String id) {
-        return productDao.findById(id)
+        return productCacheService.get(id, productDao::findById)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found")));
                 //.switchIfEmpty(Mono.error(new InterruptedException("Product not found")));
     }
@@ -56,7 +59,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Si no hay categoría en el producto, simplemente guardamos el producto.
         if (product.getCategory() == null) {
-            return productDao.save(product);
+            return productDao.save(product).doOnNext(this::invalidate);
         }
 
         // Si la categoría existe pero NO trae id -> no crearla: guardar producto sin categoría
@@ -74,12 +77,13 @@ public class ProductServiceImpl implements ProductService {
         return categoryMono.flatMap(cat -> {
             product.setCategory(cat);
             return productDao.save(product);
-        });
+        }).doOnNext(this::invalidate);
     }
 
     @Override
     public Mono<Product> update(Product product, String id) {
         // Devolver el flujo resultante: si existe, actualizar y guardar; si no existe, devolver error 404
+        // Se lee del repositorio, no de la cache: el documento leído se modifica antes de guardarlo
 
         return productDao.findById(id)
                 .flatMap(p -> {
@@ -98,6 +102,7 @@ public class ProductServiceImpl implements ProductService {
                     }
                     return productDao.save(p);
                 })
+                .doOnNext(this::invalidate)
                 //.switchIfEmpty(Mono.error(new InterruptedException("Product not found")));
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found")));
 
@@ -110,6 +115,11 @@ public class ProductServiceImpl implements ProductService {
         // switchIfEmpty aplicado al Mono<Void> siempre se ejecutaría.
         return productDao.findById(id)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"))) // Mono.error, corta el flujo y evita flatMap.
-                .flatMap(p -> productDao.deleteById(id));
+                .flatMap(p -> productDao.deleteById(id))
+                .then(Mono.fromRunnable(() -> productCacheService.invalidate(id)));
+    }
+
+    private void invalidate(Product saved) {
+        productCacheService.invalidate(saved.getId());
     }
 }
@@ -0,0 +1,39 @@
+package com.codearp.springboot.reactor.services.files;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Almacenamiento direccionado por contenido de los ficheros subidos.
+ * <p>
+ * El contenido se guarda una sola vez bajo su SHA-256 ({@code blobs/ab/abcdef...}) y cada recurso
+ * ({@code <uuid>}) es un enlace duro a ese blob, de modo que los lectores existentes siguen abriendo
+ * {@code <uuid>} sin cambios y todas las copias comparten disco y page cache. Cada blob lleva la lista de
+ * recursos que lo referencian ({@code <hash>.refs}); el blob sólo se borra cuando se libera la última referencia.
+ */
+public interface ContentAddressedStore {
+
+    /** {@code config.uploads.dedup.enabled}: si es false los escritores guardan cada subida como fichero propio **/
+    boolean isEnabled();
+
+    /**
+     * Escribe el contenido calculando su SHA-256 en la misma pasada, lo guarda como blob si aún no existe
+     * y deja {@code target} apuntando a él.
+     *
+     * @return el SHA-256 (hex) del contenido
+     */
+    Mono<String> store(UUID resourceId, Flux<DataBuffer> content, Path target);
+
+    /**
+     * Libera la referencia del recurso y borra el blob si era la última. No hace nada si el recurso no
+     * está en el almacén. Hace E/S bloqueante: invocar desde {@link FileStorageScheduler#io()}.
+     */
+    void release(UUID resourceId);
+
+    /** Número de recursos que referencian el blob indicado **/
+    int references(String sha256);
+}
@@ -0,0 +1,32 @@
+package com.codearp.springboot.reactor.services.files;
+
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Índice en memoria de los metadatos de los ficheros subidos.
+ * <p>
+ * Lo mantienen actualizado los servicios de escritura y borrado, de modo que las lecturas de metadatos no
+ * tienen que ir a disco en cada petición. El número de entradas está acotado: al superarlo se expulsa la
+ * menos usada recientemente, que se vuelve a leer de disco si se pide de nuevo: del {@link FileMetadataJournal}
+ * o, si está desactivado, del {@code <uuid>.json}, en cuyo caso el índice se carga además recorriendo los
+ * JSON al arrancar.
+ */
+public interface FileMetadataIndex {
+
+    /**
+     * @return los metadatos desde memoria o, si no están, leídos de disco y añadidos al índice;
+     *         {@link Mono#empty()} si el recurso no tiene metadatos o el JSON no se puede parsear
+     */
+    Mono<FileStorageService.ResourceDetail> findById(UUID resourceId);
+
+    void put(FileStorageService.ResourceDetail resourceDetail);
+
+    void remove(UUID resourceId);
+
+    /** Vuelve a cargar el índice recorriendo los JSON del directorio de uploads; con el journal sólo lo vacía **/
+    Mono<Void> reload();
+
+    int size();
+}
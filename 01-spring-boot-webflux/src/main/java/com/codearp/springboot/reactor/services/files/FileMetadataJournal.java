@@ -0,0 +1,40 @@
+package com.codearp.springboot.reactor.services.files;
+
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Registro binario de sólo anexado con los metadatos de los ficheros subidos, en lugar de un
+ * {@code <uuid>.json} junto a cada fichero (un inode y varias llamadas open/close menos por subida).
+ * <p>
+ * {@code metadata.journal} contiene registros {@code [longitud][PUT|DELETE][uuid][datos][crc32]}: cada alta o
+ * borrado es un anexado secuencial. {@code metadata.idx} es la tabla ordenada {@code uuid → offset} de los
+ * registros vivos que escribe la compactación; se lee por mmap con búsqueda binaria, y los anexados
+ * posteriores se indexan en memoria hasta la siguiente compactación. Los registros también se leen del
+ * journal por mmap, sin parsear texto.
+ * <p>
+ * Cada {@code compaction-interval} se reescribe el journal sólo con los registros vivos si los obsoletos
+ * superan {@code compaction-ratio}. Al crear el journal se importan una vez los {@code <uuid>.json}
+ * existentes, del directorio plano y de los subdirectorios {@code ab/cd} (no se borran). Un registro final incompleto (caída durante un anexado) se descarta al abrir.
+ */
+public interface FileMetadataJournal {
+
+    /** {@code config.uploads.metadata-journal.enabled}: si es false los metadatos siguen en {@code <uuid>.json} **/
+    boolean isEnabled();
+
+    /** Anexa los metadatos del recurso; sustituye a los anteriores si los había **/
+    Mono<Void> append(FileStorageService.ResourceDetail resourceDetail);
+
+    /** Anexa el borrado del recurso; no hace nada si no tiene metadatos **/
+    Mono<Void> delete(UUID resourceId);
+
+    /** @return los metadatos del recurso o {@link Mono#empty()} si no existen o se borraron */
+    Mono<FileStorageService.ResourceDetail> find(UUID resourceId);
+
+    /** Reescribe el journal y el índice sólo con los registros vivos **/
+    Mono<Void> compact();
+
+    /** Número de recursos con metadatos **/
+    int size();
+}
@@ -0,0 +1,49 @@
+package com.codearp.springboot.reactor.services.files;
+
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Distribución en disco de los ficheros subidos e índice en memoria id → ruta.
+ * <p>
+ * Los recursos nuevos se guardan repartidos en dos niveles de subdirectorios a partir de su UUID
+ * ({@code <uploads>/55/0e/550e8400-...}, con su {@code <uuid>.json} al lado), de modo que ningún directorio
+ * crece sin límite. La resolución de un recurso consulta el índice y, si no está, comprueba rutas concretas
+ * (la fragmentada y la plana heredada); nunca recorre el directorio, así que no depende de cuántos ficheros haya.
+ * Los directorios planos existentes se migran con {@code UploadsLayoutMigration}.
+ */
+public interface FilePathIndex {
+
+    /** Ruta fragmentada donde se escribe un recurso nuevo; crea los subdirectorios si no existen **/
+    Path prepare(UUID resourceId);
+
+    /** Ruta del {@code <uuid>.json} de metadatos, junto al fichero (fragmentado o plano heredado) **/
+    Path metadataPath(UUID resourceId);
+
+    /**
+     * Resuelve un recurso por UUID o por nombre único ({@code uuid-nombre}/{@code nombre} de la
+     * distribución plana heredada). Hace E/S sólo si el recurso no está indexado.
+     */
+    Optional<Path> find(String resourceId);
+
+    /** Versión reactiva de {@link #find(String)}; vacío si no existe **/
+    Mono<Path> resolve(String resourceId);
+
+    void register(UUID resourceId, Path path);
+
+    void remove(UUID resourceId);
+
+    /** Vuelve a construir el índice recorriendo una vez el directorio de uploads **/
+    Mono<Void> reload();
+
+    int size();
+
+    /** Subdirectorio de dos niveles ({@code ab/cd}) que corresponde a un UUID **/
+    static Path shardOf(Path uploadDir, UUID resourceId) {
+        String id = resourceId.toString();
+        return uploadDir.resolve(id.substring(0, 2)).resolve(id.substring(2, 4));
+    }
+}
@@ -0,0 +1,83 @@
+package com.codearp.springboot.reactor.services.files;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas de lectura/escritura de ficheros:
+ * <ul>
+ *     <li>{@code file.storage.latency} (timer con histograma): desde la suscripción hasta que termina la operación,
+ *     etiquetado por {@code operation} y {@code outcome} (success, error, cancelled).</li>
+ *     <li>{@code file.storage.bytes} (distribution summary): bytes por operación; {@code rate(..._sum)} da el throughput.</li>
+ * </ul>
+ * Operaciones: {@code read}, {@code write}, {@code download-zero-copy} y {@code download-buffered}.
+ */
+@Component
+public class FileStorageMetrics {
+
+    public static final String READ = "read";
+    public static final String WRITE = "write";
+    public static final String DOWNLOAD_ZERO_COPY = "download-zero-copy";
+    public static final String DOWNLOAD_BUFFERED = "download-buffered";
+
+    private final MeterRegistry registry;
+
+    public FileStorageMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> Mono<T> timed(String operation, Mono<T> source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return source.doFinally(signal -> recordLatency(operation, signal, start));
+        });
+    }
+
+    public <T> Flux<T> timed(String operation, Flux<T> source) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return source.doFinally(signal -> recordLatency(operation, signal, start));
+        });
+    }
+
+    /** Cuenta los bytes que atraviesan el flujo y los registra al terminar (también si se cancela a medias) **/
+    public Flux<DataBuffer> countBytes(String operation, Flux<DataBuffer> content) {
+        return Flux.defer(() -> {
+            AtomicLong bytes = new AtomicLong();
+            return content
+                    .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                    .doFinally(signal -> recordBytes(operation, bytes.get()));
+        });
+    }
+
+    public void recordBytes(String operation, long bytes) {
+        DistributionSummary.builder("file.storage.bytes")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .register(registry)
+                .record(bytes);
+    }
+
+    private void recordLatency(String operation, SignalType signal, long start) {
+        String outcome = switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+        Timer.builder("file.storage.latency")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
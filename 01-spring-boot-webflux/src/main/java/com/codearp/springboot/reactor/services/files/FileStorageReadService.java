@@ -6,6 +6,7 @@ import reactor.core.publisher.Mono;
 
 
 import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
 
 public interface FileStorageReadService {
 
@@ -21,4 +22,7 @@ public interface FileStorageReadService {
     Mono<FileStorageService.ResourceContent> getResourceContentByResourceId(String resourceId);
 
     Mono<Boolean> existsFileByResourceId(String resourceId);
+
+    /** Ruta del fichero en disco, para lecturas posicionadas (descargas por rangos); vacío si no existe **/
+    Mono<Path> getPathFileByResourceId(String resourceId);
 }
@@ -0,0 +1,135 @@
+package com.codearp.springboot.reactor.services.files;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler para las llamadas bloqueantes de {@code java.nio.file} de los servicios de ficheros
+ * ({@code probeContentType}, {@code list}, escritura de los JSON de metadatos, {@code deleteIfExists}...).
+ * <p>
+ * Modo configurable con {@code config.uploads.scheduler.type}:
+ * <ul>
+ *   <li>{@code bounded-elastic}: pool propio de hilos de plataforma, acotado a {@code max-threads}
+ *       (por defecto 10 × núcleos, como {@code Schedulers.boundedElastic()}); el resto espera en cola.</li>
+ *   <li>{@code virtual}: un hilo virtual por tarea ({@code Executors.newVirtualThreadPerTaskExecutor()}),
+ *       barato de crear y de bloquear. Un {@link Semaphore} de {@code max-threads} permisos limita las tareas
+ *       en ejecución (y con ello los ficheros abiertos a la vez); las demás esperan el permiso en su hilo
+ *       virtual, sin cola ni {@code queue-size}.</li>
+ * </ul>
+ * Ambos modos publican las métricas de Reactor con prefijo {@code file.storage.io} y etiqueta
+ * {@code scheduler}: {@code .scheduler.tasks.pending} (en cola), {@code .scheduler.tasks.active}
+ * (en ejecución), {@code .scheduler.tasks.completed} y {@code .scheduler.tasks.submitted}.
+ */
+@Component
+@Slf4j
+public class FileStorageScheduler {
+
+    public static final String BOUNDED_ELASTIC = "bounded-elastic";
+    public static final String VIRTUAL = "virtual";
+
+    private static final int DEFAULT_VIRTUAL_MAX_TASKS = 1024;
+
+    private final Scheduler delegate;
+    private final Scheduler scheduler;
+
+    public FileStorageScheduler(MeterRegistry meterRegistry,
+                                @Value("${config.uploads.scheduler.type:bounded-elastic}") String type,
+                                @Value("${config.uploads.scheduler.max-threads:0}") int maxThreads,
+                                @Value("${config.uploads.scheduler.queue-size:100000}") int queueSize) {
+        this.delegate = switch (type) {
+            case BOUNDED_ELASTIC -> Schedulers.newBoundedElastic(
+                    maxThreads > 0 ? maxThreads : Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                    Math.max(1, queueSize), "file-io");
+            case VIRTUAL -> Schedulers.fromExecutorService(new PermitBoundedExecutor(
+                    Executors.newVirtualThreadPerTaskExecutor(),
+                    maxThreads > 0 ? maxThreads : DEFAULT_VIRTUAL_MAX_TASKS), "file-io");
+            default -> throw new IllegalArgumentException(
+                    "Unknown config.uploads.scheduler.type '%s' (%s or %s)".formatted(type, BOUNDED_ELASTIC, VIRTUAL));
+        };
+        this.scheduler = Micrometer.timedScheduler(delegate, meterRegistry, "file.storage.io", Tags.of("scheduler", type));
+        log.info("File storage I/O scheduler: {}", type);
+    }
+
+    /** Scheduler donde suscribir el trabajo bloqueante de ficheros (en lugar de {@code Schedulers.boundedElastic()}) **/
+    public Scheduler io() {
+        return scheduler;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+        delegate.dispose();
+    }
+
+    /**
+     * Ejecuta cada tarea en el executor delegado tras obtener un permiso del semáforo. La espera ocurre
+     * en el propio hilo virtual de la tarea, nunca en el hilo que la envía (p. ej. un event loop).
+     */
+    private static final class PermitBoundedExecutor extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        private PermitBoundedExecutor(ExecutorService delegate, int maxConcurrentTasks) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrentTasks);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    // Cancelada mientras esperaba el permiso
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.data.util.Pair;
 import org.springframework.http.MediaType;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 import java.io.ByteArrayOutputStream;
 import java.nio.file.Files;
@@ -269,15 +269,17 @@ public interface FileStorageService {
     /**
      * Obtiene de forma reactiva el Content-Type de un archivo dado.
      * <p>
-     * Usa {@link Files#probeContentType} de forma no bloqueante, ejecutándolo en un hilo boundedElastic.
+     * Usa {@link Files#probeContentType} de forma no bloqueante, ejecutándolo en {@code scheduler}
+     * (normalmente {@link FileStorageScheduler#io()}).
      * Si no se puede determinar el tipo, retorna "application/octet-stream" por defecto.
      *
      * @param filePath Ruta del archivo a inspeccionar. Debe existir y ser legible.
+     * @param scheduler Scheduler donde se ejecuta la llamada bloqueante.
      * @return Mono con un {@link Pair} donde el primer valor es el Content-Type como {@link String}
      *         y el segundo valor como {@link MediaType}.
      * @throws IllegalArgumentException si filePath es nulo, no existe o no es legible.
      */
-    static Mono<Pair<String, MediaType>> getContentType(Path filePath) {
+    static Mono<Pair<String, MediaType>> getContentType(Path filePath, Scheduler scheduler) {
         if (filePath == null ) {
             return Mono.error(
                     new IllegalArgumentException("filePath cannot be null")
@@ -285,7 +287,7 @@ public interface FileStorageService {
         }
 
         return Mono.fromCallable(() -> Files.probeContentType(filePath))
-                .subscribeOn(Schedulers.boundedElastic())
+                .subscribeOn(scheduler)
                 .defaultIfEmpty(MediaType.APPLICATION_OCTET_STREAM_VALUE)
                 .map(ct -> Pair.of(ct, MediaType.parseMediaType(ct)));
     }
@@ -318,7 +320,7 @@ public interface FileStorageService {
         return resourceId == null || resourceId.trim().isEmpty() || !isValidUUID(resourceId);
     }
 
-    static Mono<Path> getPathFileByResourceId(String basePath, String resourceId) {
+    static Mono<Path> getPathFileByResourceId(String basePath, String resourceId, Scheduler scheduler) {
         if (resourceId == null || resourceId.trim().isEmpty()) {
             return Mono.error(new IllegalArgumentException("Resource ID cannot be null or empty"));
         }
@@ -329,7 +331,7 @@ public interface FileStorageService {
             return Mono.error(new IllegalArgumentException("Upload directory does not exist"));
         }
 
-        // Ejecutar la búsqueda en boundedElastic porque usa APIs bloqueantes de java.nio.file
+        // Ejecutar la búsqueda en el scheduler de I/O porque usa APIs bloqueantes de java.nio.file
         return Mono.fromCallable(() -> {
             // 1) Intentar ruta directa: el caller puede pasar ya el nombre único (UUID-nombre)
             Path direct = pathUploadDir.resolve(resourceId).normalize();
@@ -357,7 +359,7 @@ public interface FileStorageService {
 
             // Nada encontrado
             return null;
-        }).subscribeOn(Schedulers.boundedElastic())
+        }).subscribeOn(scheduler)
                 .flatMap(Mono::justOrEmpty);
     }
 }
@@ -1,6 +1,8 @@
 package com.codearp.springboot.reactor.services.files;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface FileStorageWriterService {
@@ -8,4 +10,7 @@ public interface FileStorageWriterService {
     Mono<FileStorageService.ResourceUUID> saveFile( FilePart filePart );
 
     Mono<FileStorageService.ResourceUUID> updateFile(String resourceIdOld, FilePart filePart);
+
+    /** Guarda contenido que no llega como multipart (generadores, procesos internos) **/
+    Mono<FileStorageService.ResourceUUID> saveContent(String filename, String contentType, Flux<DataBuffer> content);
 }
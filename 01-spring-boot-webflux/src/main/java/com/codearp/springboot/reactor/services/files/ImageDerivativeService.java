@@ -0,0 +1,37 @@
+package com.codearp.springboot.reactor.services.files;
+
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Variantes redimensionadas (miniaturas) de las imágenes subidas.
+ * <p>
+ * Los anchos permitidos son fijos ({@code config.images.derivatives.widths}); el ancho pedido se redondea al
+ * siguiente permitido para que la cache no crezca con cada valor de {@code ?w=}. Cada variante se genera una
+ * sola vez con ImageIO en un pool acotado fuera del event-loop, se guarda junto al original
+ * ({@code <original>.w256.jpg}) y las peticiones simultáneas de la misma variante comparten la generación.
+ */
+public interface ImageDerivativeService {
+
+    Pattern VARIANT_NAME = Pattern.compile(".+\\.w\\d+\\.(jpg|png)(\\.tmp)?$");
+
+    record ImageVariant(Path path, MediaType mediaType) { }
+
+    /**
+     * Devuelve la variante del ancho permitido más cercano por arriba, generándola si no existe.
+     * Devuelve el original si no es una imagen que ImageIO sepa leer, si ya es más estrecha que la
+     * variante o si el ancho supera al mayor permitido.
+     */
+    Mono<ImageVariant> variant(Path original, MediaType mediaType, int width);
+
+    /** Borra las variantes de un original (al borrar o sustituir el recurso). E/S bloqueante **/
+    void evict(Path original);
+
+    /** Ficheros de variantes: no son recursos y los índices deben ignorarlos **/
+    static boolean isVariant(String fileName) {
+        return VARIANT_NAME.matcher(fileName).matches();
+    }
+}
@@ -0,0 +1,91 @@
+package com.codearp.springboot.reactor.services.files;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Migración de un solo uso del directorio de uploads plano a la distribución fragmentada de {@link FilePathIndex}:
+ * mueve {@code <uuid>}, {@code <uuid>-nombre} y {@code <uuid>.json} del nivel superior a {@code ab/cd/}.
+ * Es idempotente (lo ya migrado no está en el nivel superior) y no toca {@code blobs/} ni otros directorios.
+ * Ejecutar con la aplicación parada; con {@code --dry-run} sólo informa de lo que movería.
+ *
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=com.codearp.springboot.reactor.services.files.UploadsLayoutMigration \
+ *     -Dexec.args="../uploads-dev --dry-run"
+ * </pre>
+ */
+@Slf4j
+public final class UploadsLayoutMigration {
+
+    private static final int UUID_LENGTH = 36;
+
+    private UploadsLayoutMigration() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: UploadsLayoutMigration <uploads-dir> [--dry-run]");
+            System.exit(1);
+        }
+        Path uploadDir = Path.of(args[0]).toAbsolutePath().normalize();
+        boolean dryRun = args.length > 1 && "--dry-run".equals(args[1]);
+
+        if (!FileStorageService.existPathDir(uploadDir)) {
+            System.err.println("Upload directory does not exist: " + uploadDir);
+            System.exit(1);
+        }
+        int moved = migrate(uploadDir, dryRun);
+        log.info("{} {} files from {} into the sharded layout", dryRun ? "Would move" : "Moved", moved, uploadDir);
+    }
+
+    /**
+     * Mueve los ficheros planos del nivel superior a su subdirectorio {@code ab/cd}.
+     *
+     * @return número de ficheros movidos (o que se moverían en {@code dryRun})
+     */
+    public static int migrate(Path uploadDir, boolean dryRun) throws IOException {
+        int moved = 0;
+        int skipped = 0;
+        // DirectoryStream itera sin cargar el listado completo en memoria
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(uploadDir, Files::isRegularFile)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                String prefix = name.length() >= UUID_LENGTH ? name.substring(0, UUID_LENGTH) : name;
+                if (!FileStorageService.isValidUUID(prefix)) {
+                    skipped++;
+                    continue;
+                }
+
+                Path shard = FilePathIndex.shardOf(uploadDir, UUID.fromString(prefix));
+                Path target = shard.resolve(name);
+                if (dryRun) {
+                    log.info("{} -> {}", file, target);
+                } else {
+                    Files.createDirectories(shard);
+                    move(file, target);
+                }
+                moved++;
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} files without a UUID prefix in {}", skipped, uploadDir);
+        }
+        return moved;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            // Mismo sistema de ficheros: rename atómico, nunca se ve un fichero a medias
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.FileMetadataIndex;
+import com.codearp.springboot.reactor.services.files.FileMetadataJournal;
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class FileMetadataIndexImpl implements FileMetadataIndex {
+
+    private final ObjectMapper objectMapper;
+    private final FilePathIndex filePathIndex;
+    private final String uploadDir;
+    private final int maxEntries;
+    private final FileStorageScheduler fileStorageScheduler;
+    private final FileStorageIO fileStorageIO;
+    private final FileMetadataJournal fileMetadataJournal;
+
+    // LinkedHashMap en orden de acceso = LRU; synchronizedMap porque get() también modifica el orden
+    private final Map<UUID, FileStorageService.ResourceDetail> entries;
+
+    public FileMetadataIndexImpl(ObjectMapper objectMapper,
+                                 FilePathIndex filePathIndex,
+                                 @Value("${config.uploads.path:uploads-app}") String uploadDir,
+                                 @Value("${config.uploads.metadata-index.max-entries:10000}") int maxEntries,
+                                 FileStorageScheduler fileStorageScheduler,
+                                 FileStorageIO fileStorageIO,
+                                 FileMetadataJournal fileMetadataJournal) {
+        this.objectMapper = objectMapper;
+        this.filePathIndex = filePathIndex;
+        this.uploadDir = uploadDir;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.fileStorageScheduler = fileStorageScheduler;
+        this.fileStorageIO = fileStorageIO;
+        this.fileMetadataJournal = fileMetadataJournal;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, FileStorageService.ResourceDetail> eldest) {
+                return size() > FileMetadataIndexImpl.this.maxEntries;
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload().subscribe(
+                v -> { },
+                e -> log.error("Error loading file metadata index from {}: {}", uploadDir, e.getMessage())
+        );
+    }
+
+    @Override
+    public Mono<FileStorageService.ResourceDetail> findById(UUID resourceId) {
+        if (resourceId == null) {
+            return Mono.empty();
+        }
+
+        FileStorageService.ResourceDetail cached = entries.get(resourceId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        // Con el journal, el JSON sólo existe para recursos guardados mientras estaba desactivado
+        Mono<FileStorageService.ResourceDetail> sidecar = readSidecar(resourceId);
+        Mono<FileStorageService.ResourceDetail> stored = fileMetadataJournal.isEnabled()
+                ? fileMetadataJournal.find(resourceId).switchIfEmpty(sidecar)
+                : sidecar;
+        return stored.doOnNext(this::put);
+    }
+
+    @Override
+    public void put(FileStorageService.ResourceDetail resourceDetail) {
+        if (resourceDetail != null && resourceDetail.id() != null) {
+            entries.put(resourceDetail.id(), resourceDetail);
+        }
+    }
+
+    @Override
+    public void remove(UUID resourceId) {
+        if (resourceId != null) {
+            entries.remove(resourceId);
+        }
+    }
+
+    @Override
+    public Mono<Void> reload() {
+        if (fileMetadataJournal.isEnabled()) {
+            // El journal ya es el índice en disco: se vacía la caché y se vuelve a llenar bajo demanda
+            return Mono.fromRunnable(entries::clear);
+        }
+        return Mono.fromRunnable(() -> {
+                    Path dir = Path.of(uploadDir).toAbsolutePath().normalize();
+                    if (!FileStorageService.existPathDir(dir)) {
+                        log.warn("Upload directory {} does not exist, metadata index is empty", dir);
+                        return;
+                    }
+
+                    int loaded = 0;
+                    try {
+                        for (Path json : ResourceDetailFormat.sidecars(dir)) {
+                            if (loaded >= maxEntries) {
+                                break;
+                            }
+                            try {
+                                put(ResourceDetailFormat.readSidecar(objectMapper, json, ResourceDetailFormat.sidecarId(json)));
+                                loaded++;
+                            } catch (Exception e) {
+                                log.warn("Skipping unreadable metadata file {}: {}", json, e.getMessage());
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Error scanning upload directory " + dir, e);
+                    }
+                    log.info("File metadata index loaded with {} entries from {}", loaded, dir);
+                })
+                .subscribeOn(fileStorageScheduler.io())
+                .then();
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    // metadataPath puede consultar el disco; la lectura del JSON va por canal asíncrono
+    private Mono<FileStorageService.ResourceDetail> readSidecar(UUID resourceId) {
+        return Mono.fromCallable(() -> filePathIndex.metadataPath(resourceId))
+                .subscribeOn(fileStorageScheduler.io())
+                .flatMap(json -> fileStorageIO.readJson(json, JsonNode.class)
+                        .map(node -> ResourceDetailFormat.toResourceDetail(node, resourceId))
+                        .onErrorResume(e -> {
+                            log.warn("Skipping unreadable metadata file {}: {}", json, e.getMessage());
+                            return Mono.empty();
+                        }));
+    }
+}
@@ -0,0 +1,650 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.FileMetadataJournal;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+@Service
+@Slf4j
+public class FileMetadataJournalImpl implements FileMetadataJournal {
+
+    static final String JOURNAL_FILE = "metadata.journal";
+    static final String INDEX_FILE = "metadata.idx";
+    // Presente mientras dura la importación de los JSON: si sigue ahí al abrir, el journal se rehace
+    static final String IMPORT_MARKER = "metadata.journal.importing";
+
+    private static final int JOURNAL_MAGIC = 0x464D4A31; // "FMJ1"
+    private static final int INDEX_MAGIC = 0x464D4931;   // "FMI1"
+    private static final int VERSION = 1;
+    // magic, versión y generación: el .idx sólo vale para el journal de su misma generación
+    private static final int JOURNAL_HEADER = 16;
+    // magic, versión, generación, longitud del journal indexada y número de entradas
+    private static final int INDEX_HEADER = 28;
+    // uuid (msb, lsb) y offset
+    private static final int INDEX_ENTRY = 24;
+    // tipo + uuid, cubiertos por la longitud y el crc
+    private static final int RECORD_KEY = 17;
+    private static final int MAX_RECORD = 64 * 1024;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final long TOMBSTONE = -1L;
+    private static final int MIN_RECORDS_TO_COMPACT = 1024;
+    // Los offsets se usan como int sobre un único buffer mapeado: el journal no puede pasar de 2 GB
+    private static final long MAX_JOURNAL_SIZE = Integer.MAX_VALUE;
+    // Crecimiento que se lee por posición antes de volver a mapear el journal
+    private static final long REMAP_GROWTH = 64L * 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final FileStorageScheduler fileStorageScheduler;
+    private final boolean enabled;
+    private final Duration compactionInterval;
+    private final double compactionRatio;
+    private final Path dir;
+    private final Path journalPath;
+    private final Path indexPath;
+    private final Path importMarkerPath;
+
+    // Lecturas con el read lock; anexados, apertura y compactación con el write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Anexados desde la última compactación: uuid → offset del registro (TOMBSTONE si se borró)
+    private final Map<UUID, Long> recent = new HashMap<>();
+    private FileChannel channel;
+    private long generation;
+    private long length;
+    // Registros del journal, y de ellos los que siguen vivos
+    private int records;
+    private int live;
+    private MappedByteBuffer indexMap;
+    private int indexCount;
+    // Mapeado al abrir, al compactar y cada REMAP_GROWTH bytes anexados; lo posterior se lee con channel.read
+    private MappedByteBuffer journalMap;
+    private volatile boolean opened;
+
+    private Disposable compactionTask;
+
+    private record Record(byte type, UUID id, int payloadOffset, int payloadLength, int size) { }
+
+    private record Entry(long msb, long lsb, long offset) { }
+
+    public FileMetadataJournalImpl(ObjectMapper objectMapper,
+                                   FileStorageScheduler fileStorageScheduler,
+                                   @Value("${config.uploads.path:uploads-app}") String uploadDir,
+                                   @Value("${config.uploads.metadata-journal.enabled:true}") boolean enabled,
+                                   @Value("${config.uploads.metadata-journal.compaction-interval:PT10M}") Duration compactionInterval,
+                                   @Value("${config.uploads.metadata-journal.compaction-ratio:0.5}") double compactionRatio) {
+        this.objectMapper = objectMapper;
+        this.fileStorageScheduler = fileStorageScheduler;
+        this.enabled = enabled;
+        this.compactionInterval = compactionInterval;
+        this.compactionRatio = compactionRatio;
+        this.dir = Path.of(uploadDir).toAbsolutePath().normalize();
+        this.journalPath = dir.resolve(JOURNAL_FILE);
+        this.indexPath = dir.resolve(INDEX_FILE);
+        this.importMarkerPath = dir.resolve(IMPORT_MARKER);
+    }
+
+    // Abre (o crea e importa) al arrancar y comprueba periódicamente si compensa compactar
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        Mono.fromRunnable(this::open)
+                .subscribeOn(fileStorageScheduler.io())
+                .subscribe(
+                        v -> { },
+                        e -> log.error("Error opening metadata journal {}: {}", journalPath, e.getMessage())
+                );
+        compactionTask = Flux.interval(compactionInterval, compactionInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::compactIfNeeded)
+                        .subscribeOn(fileStorageScheduler.io())
+                        .onErrorResume(e -> {
+                            log.error("Error compacting metadata journal {}: {}", journalPath, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (compactionTask != null) {
+            compactionTask.dispose();
+        }
+        lock.writeLock().lock();
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing metadata journal {}: {}", journalPath, e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Mono<Void> append(FileStorageService.ResourceDetail resourceDetail) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        if (resourceDetail == null || resourceDetail.id() == null) {
+            return Mono.error(new IllegalArgumentException("Resource detail with id is required"));
+        }
+        return Mono.fromRunnable(() -> write(encode(PUT, resourceDetail.id(), ResourceDetailFormat.payload(resourceDetail))))
+                .subscribeOn(fileStorageScheduler.io())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> delete(UUID resourceId) {
+        if (!enabled || resourceId == null) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> write(encode(DELETE, resourceId, new byte[0])))
+                .subscribeOn(fileStorageScheduler.io())
+                .then();
+    }
+
+    @Override
+    public Mono<FileStorageService.ResourceDetail> find(UUID resourceId) {
+        if (!enabled || resourceId == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            // Abierto, sin compactación en curso y con el registro mapeado, la búsqueda son lecturas de memoria
+            // en el hilo actual; un registro posterior al mapeo se lee del fichero en el scheduler de E/S
+            if (opened && lock.readLock().tryLock()) {
+                try {
+                    long offset = offsetOf(resourceId);
+                    if (offset == TOMBSTONE || offset < journalMap.capacity()) {
+                        return Mono.justOrEmpty(readLocked(resourceId, offset));
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            return Mono.fromCallable(() -> read(resourceId)).subscribeOn(fileStorageScheduler.io());
+        });
+    }
+
+    @Override
+    public Mono<Void> compact() {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> {
+                    open();
+                    lock.writeLock().lock();
+                    try {
+                        compactLocked();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Error compacting metadata journal " + journalPath, e);
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                })
+                .subscribeOn(fileStorageScheduler.io())
+                .then();
+    }
+
+    @Override
+    public int size() {
+        if (!enabled) {
+            return 0;
+        }
+        open();
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bytes del journal cubiertos por el mapeo actual
+    long mappedSize() {
+        open();
+        lock.readLock().lock();
+        try {
+            return journalMap.capacity();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        open();
+        lock.writeLock().lock();
+        try {
+            if (records >= MIN_RECORDS_TO_COMPACT && records - live > compactionRatio * records) {
+                compactLocked();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error compacting metadata journal " + journalPath, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private FileStorageService.ResourceDetail read(UUID resourceId) {
+        open();
+        lock.readLock().lock();
+        try {
+            return readLocked(resourceId, offsetOf(resourceId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FileStorageService.ResourceDetail readLocked(UUID resourceId, long offset) {
+        if (offset == TOMBSTONE) {
+            return null;
+        }
+        // El mapeo termina siempre en un límite de registro: si empieza dentro, está entero
+        boolean mapped = offset < journalMap.capacity();
+        ByteBuffer buf = mapped ? journalMap : readRecord(offset);
+        Record record = parse(buf, mapped ? (int) offset : 0);
+        if (record == null || record.type() != PUT || !record.id().equals(resourceId)) {
+            throw new IllegalStateException("Corrupt metadata journal record at offset " + offset + " for " + resourceId);
+        }
+        return ResourceDetailFormat.decode(resourceId, buf.slice(record.payloadOffset(), record.payloadLength()));
+    }
+
+    // Anexa un registro ya codificado y actualiza el índice en memoria
+    private void write(ByteBuffer record) {
+        open();
+        byte type = record.get(4);
+        UUID id = new UUID(record.getLong(5), record.getLong(13));
+        lock.writeLock().lock();
+        try {
+            if (length + record.remaining() > MAX_JOURNAL_SIZE) {
+                compactLocked();
+                if (length + record.remaining() > MAX_JOURNAL_SIZE) {
+                    throw new IllegalStateException("Metadata journal " + journalPath + " would exceed "
+                            + MAX_JOURNAL_SIZE + " bytes even after compaction");
+                }
+            }
+            boolean wasLive = offsetOf(id) != TOMBSTONE;
+            if (type == DELETE && !wasLive) {
+                return;
+            }
+            long offset = length;
+            long position = offset;
+            try {
+                while (record.hasRemaining()) {
+                    position += channel.write(record, position);
+                }
+            } catch (IOException e) {
+                // No deja un registro a medias delante del siguiente anexado
+                channel.truncate(offset);
+                throw e;
+            }
+            length = position;
+            apply(type, id, offset, wasLive);
+            if (length - journalMap.capacity() >= REMAP_GROWTH) {
+                journalMap = map(length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error appending to metadata journal " + journalPath, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(byte type, UUID id, long offset, boolean wasLive) {
+        recent.put(id, type == PUT ? offset : TOMBSTONE);
+        records++;
+        if (type == PUT && !wasLive) {
+            live++;
+        } else if (type == DELETE && wasLive) {
+            live--;
+        }
+    }
+
+    // Llamar con el lock: primero los anexados recientes, después el índice mapeado
+    private long offsetOf(UUID id) {
+        Long offset = recent.get(id);
+        if (offset != null) {
+            return offset;
+        }
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int low = 0;
+        int high = indexCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = INDEX_HEADER + mid * INDEX_ENTRY;
+            int cmp = compare(indexMap.getLong(position), indexMap.getLong(position + 8), msb, lsb);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return indexMap.getLong(position + 16);
+            }
+        }
+        return TOMBSTONE;
+    }
+
+    // Llamar con el lock: registro anexado después del último mapeo, leído por posición en un buffer propio.
+    // Una longitud inválida o un registro truncado devuelven lo leído y parse lo rechaza
+    private ByteBuffer readRecord(long offset) {
+        try {
+            ByteBuffer header = readFully(ByteBuffer.allocate(4), offset);
+            if (header.limit() < 4) {
+                return header;
+            }
+            int recordLength = header.getInt(0);
+            if (recordLength < RECORD_KEY || recordLength > MAX_RECORD) {
+                return header;
+            }
+            return readFully(ByteBuffer.allocate(4 + recordLength + 4), offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading metadata journal " + journalPath, e);
+        }
+    }
+
+    private ByteBuffer readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                break;
+            }
+        }
+        return buf.flip();
+    }
+
+    private MappedByteBuffer map(long size) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error mapping metadata journal " + journalPath, e);
+        }
+    }
+
+    private void open() {
+        if (opened) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (opened) {
+                return;
+            }
+            recent.clear();
+            records = 0;
+            live = 0;
+            indexMap = null;
+            indexCount = 0;
+            Files.createDirectories(dir);
+            // Una importación interrumpida deja el marcador: el journal a medias se descarta y se importa de nuevo
+            boolean created = Files.exists(importMarkerPath)
+                    || !Files.exists(journalPath) || Files.size(journalPath) < JOURNAL_HEADER;
+            if (created) {
+                Files.write(importMarkerPath, new byte[0]);
+                generation = ThreadLocalRandom.current().nextLong();
+                channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.write(journalHeader(generation), 0);
+                length = JOURNAL_HEADER;
+            } else {
+                channel = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER);
+                channel.read(header, 0);
+                if (header.getInt(0) != JOURNAL_MAGIC || header.getInt(4) != VERSION) {
+                    throw new IllegalStateException("Unrecognized metadata journal " + journalPath);
+                }
+                generation = header.getLong(8);
+                length = channel.size();
+                if (length > MAX_JOURNAL_SIZE) {
+                    throw new IllegalStateException("Metadata journal " + journalPath + " exceeds " + MAX_JOURNAL_SIZE + " bytes");
+                }
+            }
+            journalMap = map(length);
+            replay(created ? JOURNAL_HEADER : loadIndex());
+            opened = true;
+
+            if (created) {
+                importSidecars();
+                Files.delete(importMarkerPath);
+            }
+            log.info("Metadata journal {} opened with {} entries ({} records)", journalPath, live, records);
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException("Error opening metadata journal " + journalPath, e);
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Devuelve desde dónde hay que releer el journal: el final de lo indexado o la cabecera si no hay índice válido
+    private long loadIndex() throws IOException {
+        indexMap = null;
+        indexCount = 0;
+        if (!Files.exists(indexPath)) {
+            return JOURNAL_HEADER;
+        }
+        MappedByteBuffer map;
+        try (FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            map = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+        }
+        if (map.capacity() < INDEX_HEADER
+                || map.getInt(0) != INDEX_MAGIC || map.getInt(4) != VERSION || map.getLong(8) != generation
+                || map.getLong(16) > length || map.capacity() != INDEX_HEADER + (long) map.getInt(24) * INDEX_ENTRY) {
+            log.warn("Ignoring stale metadata index {}, replaying the whole journal", indexPath);
+            return JOURNAL_HEADER;
+        }
+        indexMap = map;
+        indexCount = map.getInt(24);
+        records = indexCount;
+        live = indexCount;
+        return map.getLong(16);
+    }
+
+    private void replay(long from) throws IOException {
+        long position = from;
+        while (position < length) {
+            Record record = parse(journalMap, (int) position);
+            if (record == null || (record.type() != PUT && record.type() != DELETE)) {
+                log.warn("Discarding {} bytes of incomplete metadata journal {} at offset {}", length - position, journalPath, position);
+                channel.truncate(position);
+                length = position;
+                journalMap = map(length);
+                return;
+            }
+            apply(record.type(), record.id(), position, offsetOf(record.id()) != TOMBSTONE);
+            position += record.size();
+        }
+    }
+
+    // Importación única de los <uuid>.json anteriores al journal; termina con el journal en disco (force o
+    // compactación) antes de que open() retire el marcador
+    private void importSidecars() throws IOException {
+        int imported = 0;
+        for (Path json : ResourceDetailFormat.sidecars(dir)) {
+            try {
+                FileStorageService.ResourceDetail detail =
+                        ResourceDetailFormat.readSidecar(objectMapper, json, ResourceDetailFormat.sidecarId(json));
+                write(encode(PUT, detail.id(), ResourceDetailFormat.payload(detail)));
+                imported++;
+            } catch (Exception e) {
+                log.warn("Skipping unreadable metadata file {}: {}", json, e.getMessage());
+            }
+        }
+        if (imported > 0) {
+            compactLocked();
+            log.info("Imported {} metadata files into {}", imported, journalPath);
+        } else {
+            channel.force(true);
+        }
+    }
+
+    // Llamar con el write lock: journal e índice nuevos con los registros vivos ordenados por uuid
+    private void compactLocked() throws IOException {
+        List<Entry> entries = new ArrayList<>(live);
+        for (int i = 0; i < indexCount; i++) {
+            int position = INDEX_HEADER + i * INDEX_ENTRY;
+            long msb = indexMap.getLong(position);
+            long lsb = indexMap.getLong(position + 8);
+            if (!recent.containsKey(new UUID(msb, lsb))) {
+                entries.add(new Entry(msb, lsb, indexMap.getLong(position + 16)));
+            }
+        }
+        recent.forEach((id, offset) -> {
+            if (offset != TOMBSTONE) {
+                entries.add(new Entry(id.getMostSignificantBits(), id.getLeastSignificantBits(), offset));
+            }
+        });
+        entries.sort(Comparator.comparingLong(Entry::msb).thenComparingLong(Entry::lsb));
+
+        long newGeneration = ThreadLocalRandom.current().nextLong();
+        Path journalTmp = dir.resolve(JOURNAL_FILE + ".tmp");
+        Path indexTmp = dir.resolve(INDEX_FILE + ".tmp");
+        MappedByteBuffer source = map(length);
+        long position = JOURNAL_HEADER;
+        List<Entry> compacted = new ArrayList<>(entries.size());
+        try (FileChannel out = FileChannel.open(journalTmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            out.write(journalHeader(newGeneration), 0);
+            for (Entry entry : entries) {
+                int offset = (int) entry.offset();
+                ByteBuffer record = source.slice(offset, 4 + source.getInt(offset) + 4);
+                compacted.add(new Entry(entry.msb(), entry.lsb(), position));
+                while (record.hasRemaining()) {
+                    position += out.write(record, position);
+                }
+            }
+            out.force(true);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexTmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(newGeneration);
+            out.writeLong(position);
+            out.writeInt(compacted.size());
+            for (Entry entry : compacted) {
+                out.writeLong(entry.msb());
+                out.writeLong(entry.lsb());
+                out.writeLong(entry.offset());
+            }
+        }
+
+        // Primero el journal: si falla el movimiento del índice, el viejo no casa con la nueva generación y se relee todo
+        int before = records;
+        channel.close();
+        try {
+            Files.move(journalTmp, journalPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            channel = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        generation = newGeneration;
+        length = position;
+        journalMap = map(length);
+        recent.clear();
+        records = 0;
+        live = 0;
+        try {
+            Files.move(indexTmp, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Error replacing metadata index {}: {}", indexPath, e.getMessage());
+        }
+        replay(loadIndex());
+        log.info("Metadata journal {} compacted: {} -> {} records", journalPath, before, records);
+    }
+
+    private void closeQuietly() {
+        opened = false;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing metadata journal {}: {}", journalPath, e.getMessage());
+        }
+    }
+
+    // Registro en buf a partir de offset; null si está incompleto o el crc no cuadra
+    private static Record parse(ByteBuffer buf, int offset) {
+        if (offset + 4 > buf.limit()) {
+            return null;
+        }
+        int recordLength = buf.getInt(offset);
+        if (recordLength < RECORD_KEY || recordLength > MAX_RECORD || (long) offset + 4 + recordLength + 4 > buf.limit()) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.slice(offset + 4, recordLength));
+        if ((int) crc.getValue() != buf.getInt(offset + 4 + recordLength)) {
+            return null;
+        }
+        UUID id = new UUID(buf.getLong(offset + 5), buf.getLong(offset + 13));
+        return new Record(buf.get(offset + 4), id, offset + 4 + RECORD_KEY, recordLength - RECORD_KEY, 4 + recordLength + 4);
+    }
+
+    private static ByteBuffer encode(byte type, UUID id, byte[] payload) {
+        int recordLength = RECORD_KEY + payload.length;
+        if (recordLength > MAX_RECORD) {
+            throw new IllegalArgumentException("Metadata for " + id + " exceeds " + MAX_RECORD + " bytes");
+        }
+        ByteBuffer buf = ByteBuffer.allocate(4 + recordLength + 4);
+        buf.putInt(recordLength)
+                .put(type)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 4, recordLength);
+        buf.putInt((int) crc.getValue());
+        return buf.flip();
+    }
+
+    private static ByteBuffer journalHeader(long generation) {
+        return ByteBuffer.allocate(JOURNAL_HEADER).putInt(JOURNAL_MAGIC).putInt(VERSION).putLong(generation).flip();
+    }
+
+    private static int compare(long msb, long lsb, long otherMsb, long otherLsb) {
+        int cmp = Long.compare(msb, otherMsb);
+        return cmp != 0 ? cmp : Long.compare(lsb, otherLsb);
+    }
+}
@@ -0,0 +1,200 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.codearp.springboot.reactor.services.files.ImageDerivativeService;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class FilePathIndexImpl implements FilePathIndex {
+
+    private static final int UUID_LENGTH = 36;
+    private static final Pattern SHARD_DIR = Pattern.compile("[0-9a-f]{2}");
+
+    private final Path uploadDir;
+    private final FileStorageScheduler fileStorageScheduler;
+
+    private final Map<UUID, Path> byId = new ConcurrentHashMap<>();
+    // nombre único heredado (uuid-nombre) y su sufijo normalizado (nombre) → ruta
+    private final Map<String, Path> byName = new ConcurrentHashMap<>();
+
+    public FilePathIndexImpl(@Value("${config.uploads.path:uploads-app}") String uploadDir,
+                             FileStorageScheduler fileStorageScheduler) {
+        this.uploadDir = Path.of(uploadDir).toAbsolutePath().normalize();
+        this.fileStorageScheduler = fileStorageScheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload().subscribe(
+                v -> { },
+                e -> log.error("Error loading file path index from {}: {}", uploadDir, e.getMessage())
+        );
+    }
+
+    @Override
+    public Path prepare(UUID resourceId) {
+        Path shard = FilePathIndex.shardOf(uploadDir, resourceId);
+        try {
+            Files.createDirectories(shard);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error creating upload directory " + shard, e);
+        }
+        return shard.resolve(resourceId.toString());
+    }
+
+    @Override
+    public Path metadataPath(UUID resourceId) {
+        String jsonName = resourceId + ".json";
+        Path indexed = byId.get(resourceId);
+        if (indexed != null) {
+            return indexed.resolveSibling(jsonName);
+        }
+        Path sharded = FilePathIndex.shardOf(uploadDir, resourceId).resolve(jsonName);
+        return Files.exists(sharded) ? sharded : uploadDir.resolve(jsonName);
+    }
+
+    @Override
+    public Optional<Path> find(String resourceId) {
+        if (resourceId == null || resourceId.isBlank()) {
+            return Optional.empty();
+        }
+
+        if (FileStorageService.isValidUUID(resourceId)) {
+            UUID id = UUID.fromString(resourceId);
+            Path indexed = byId.get(id);
+            if (indexed != null) {
+                return Optional.of(indexed);
+            }
+            Path sharded = FilePathIndex.shardOf(uploadDir, id).resolve(resourceId);
+            if (Files.isRegularFile(sharded)) {
+                byId.put(id, sharded);
+                return Optional.of(sharded);
+            }
+        } else {
+            Path indexed = byName.get(resourceId);
+            if (indexed == null) {
+                indexed = FileStorageService.normaliceName(resourceId).map(byName::get).orElse(null);
+            }
+            if (indexed != null) {
+                return Optional.of(indexed);
+            }
+        }
+
+        // Distribución plana heredada: ruta directa, sin listar el directorio
+        Path direct = uploadDir.resolve(resourceId).normalize();
+        if (direct.startsWith(uploadDir) && Files.isRegularFile(direct)) {
+            return Optional.of(direct);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Mono<Path> resolve(String resourceId) {
+        if (resourceId == null || resourceId.trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Resource ID cannot be null or empty"));
+        }
+        // Acierto en el índice: sin saltar de hilo
+        if (FileStorageService.isValidUUID(resourceId)) {
+            Path indexed = byId.get(UUID.fromString(resourceId));
+            if (indexed != null) {
+                return Mono.just(indexed);
+            }
+        }
+        return Mono.fromCallable(() -> find(resourceId).orElse(null))
+                .subscribeOn(fileStorageScheduler.io());
+    }
+
+    @Override
+    public void register(UUID resourceId, Path path) {
+        if (resourceId != null && path != null) {
+            byId.put(resourceId, path);
+        }
+    }
+
+    @Override
+    public void remove(UUID resourceId) {
+        if (resourceId == null) {
+            return;
+        }
+        Path removed = byId.remove(resourceId);
+        // Sólo los ficheros planos heredados (uuid-nombre) están indexados también por nombre
+        if (removed != null && removed.getFileName().toString().length() > UUID_LENGTH) {
+            byName.values().remove(removed);
+        }
+    }
+
+    @Override
+    public Mono<Void> reload() {
+        return Mono.fromRunnable(() -> {
+                    if (!FileStorageService.existPathDir(uploadDir)) {
+                        log.warn("Upload directory {} does not exist, file path index is empty", uploadDir);
+                        return;
+                    }
+                    // Nivel 0: ficheros planos heredados; niveles 1-2: subdirectorios ab/cd (se omiten blobs/ y otros)
+                    try (Stream<Path> files = Files.walk(uploadDir, 3)) {
+                        files.filter(this::isInLayout)
+                                .filter(Files::isRegularFile)
+                                .forEach(this::index);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Error scanning upload directory " + uploadDir, e);
+                    }
+                    log.info("File path index loaded with {} entries from {}", byId.size(), uploadDir);
+                })
+                .subscribeOn(fileStorageScheduler.io())
+                .then();
+    }
+
+    @Override
+    public int size() {
+        return byId.size();
+    }
+
+    private boolean isInLayout(Path path) {
+        Path relative = uploadDir.relativize(path);
+        for (int i = 0; i < relative.getNameCount() - 1; i++) {
+            if (!SHARD_DIR.matcher(relative.getName(i).toString()).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void index(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".json") || name.length() < UUID_LENGTH || ImageDerivativeService.isVariant(name)) {
+            return;
+        }
+        // <uuid> o <uuid>-nombre; el resto (<uuid>.json, temporales...) no son recursos
+        if (name.length() > UUID_LENGTH && name.charAt(UUID_LENGTH) != '-') {
+            return;
+        }
+        String prefix = name.substring(0, UUID_LENGTH);
+        if (!FileStorageService.isValidUUID(prefix)) {
+            return;
+        }
+        byId.putIfAbsent(UUID.fromString(prefix), file);
+        if (name.length() > UUID_LENGTH + 1 && name.charAt(UUID_LENGTH) == '-') {
+            byName.putIfAbsent(name, file);
+            byName.putIfAbsent(name.substring(UUID_LENGTH + 1), file);
+        }
+    }
+}
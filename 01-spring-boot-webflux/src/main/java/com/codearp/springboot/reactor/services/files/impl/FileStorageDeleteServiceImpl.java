@@ -1,32 +1,48 @@
 package com.codearp.springboot.reactor.services.files.impl;
 
+import com.codearp.springboot.reactor.services.files.ContentAddressedStore;
+import com.codearp.springboot.reactor.services.files.FileMetadataIndex;
+import com.codearp.springboot.reactor.services.files.FileMetadataJournal;
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
 import com.codearp.springboot.reactor.services.files.FileStorageReadService;
 import com.codearp.springboot.reactor.services.files.FileStorageService;
 import com.codearp.springboot.reactor.services.files.FileStorageDeleteService;
+import com.codearp.springboot.reactor.services.files.ImageDerivativeService;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import java.nio.file.Files;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FileStorageDeleteServiceImpl implements FileStorageDeleteService {
 
-    @Value("${config.uploads.path}")
-    private String uploadDirProperty;
-
     private final FileStorageReadService fileStorageReadService;
 
+    private final FileMetadataIndex fileMetadataIndex;
+
+    private final FileMetadataJournal fileMetadataJournal;
+
+    private final ContentAddressedStore contentAddressedStore;
+
+    private final FilePathIndex filePathIndex;
+
+    private final ImageDerivativeService imageDerivativeService;
+
+    private final FileStorageScheduler fileStorageScheduler;
+
     /**
      * Elimina el fichero asociado a `resourceId` de forma reactiva.
      * - Valida entrada.
-     * - Resuelve la ruta mediante FileStorageService.getPathFileByResourceId(...).
-     * - Ejecuta Files.deleteIfExists(...) en Schedulers.boundedElastic() para no bloquear el event-loop.
+     * - Resuelve la ruta mediante FilePathIndex#resolve(...) (índice en memoria, sin listar el directorio).
+     * - Ejecuta Files.deleteIfExists(...) en fileStorageScheduler.io() para no bloquear el event-loop.
+     * - Anexa el borrado al {@link FileMetadataJournal} (no hace nada si está desactivado).
      * - Si no se resuelve path o el fichero no existe, completa normalmente.
      *
      * @param resourceId identificador del recurso
@@ -41,19 +57,29 @@ public class FileStorageDeleteServiceImpl implements FileStorageDeleteService {
         return fileStorageReadService.existsFileByResourceId( resourceId )
                 .filter( exists -> exists )
                 .flatMap( exists ->
-                        FileStorageService.getPathFileByResourceId( uploadDirProperty, resourceId )
+                        filePathIndex.resolve( resourceId )
                 )
                 .flatMap( pathFile ->
                 {
                     return Mono.fromRunnable(() -> {
                         try {
+                            imageDerivativeService.evict(pathFile);
                             Files.deleteIfExists(pathFile);
-                            Files.deleteIfExists(pathFile.resolve(".json")); // Elimina metadatos si existen
+                            Files.deleteIfExists(pathFile.resolveSibling(resourceId + ".json")); // Elimina metadatos si existen
+                            if (FileStorageService.isValidUUID(resourceId)) {
+                                filePathIndex.remove(UUID.fromString(resourceId));
+                                fileMetadataIndex.remove(UUID.fromString(resourceId));
+                                // Con dedup sólo se ha borrado el enlace; el blob se borra con su última referencia
+                                contentAddressedStore.release(UUID.fromString(resourceId));
+                            }
                             log.info("Deleted file with resourceId {} at path {}", resourceId, pathFile);
                         } catch (Exception e) {
                             throw new RuntimeException("Failed to delete file: " + e.getMessage(), e);
                         }
-                    }).subscribeOn(Schedulers.boundedElastic());
+                    }).subscribeOn(fileStorageScheduler.io())
+                            .then(FileStorageService.isValidUUID(resourceId)
+                                    ? fileMetadataJournal.delete(UUID.fromString(resourceId))
+                                    : Mono.empty());
                 })
                 .then()
                 .doOnError(e -> log.error("Error deleting file with resourceId {}: {}", resourceId, e.getMessage(), e));
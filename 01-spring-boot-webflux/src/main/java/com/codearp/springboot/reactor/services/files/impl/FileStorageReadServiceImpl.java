@@ -1,7 +1,12 @@
 package com.codearp.springboot.reactor.services.files.impl;
 
+import com.codearp.springboot.reactor.services.files.FileMetadataIndex;
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.services.files.FileStorageMetrics;
 import com.codearp.springboot.reactor.services.files.FileStorageReadService;
 import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -9,7 +14,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -36,11 +40,21 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
     // Instancia local de ObjectMapper para parseo JSON
     private final ObjectMapper objectMapper;
 
+    private final FileMetadataIndex fileMetadataIndex;
+
+    // Resolución id → ruta sin listar el directorio de uploads
+    private final FilePathIndex filePathIndex;
+
+    private final FileStorageMetrics fileStorageMetrics;
+
+    private final FileStorageScheduler fileStorageScheduler;
+
+    private final FileStorageIO fileStorageIO;
 
     /**
      * Lee el contenido del recurso indicado por resourceId como un Flux de DataBuffer.
-     * Método reactivo y no bloqueante; usa DataBufferUtils.read(...) para emitir DataBuffer
-     * sin copiar a estructuras en memoria. Recomiendo usar BodyInserters.fromDataBuffers(flux)
+     * Método reactivo y no bloqueante; lee por AsynchronousFileChannel ({@link FileStorageIO#read}) para
+     * emitir DataBuffer sin copiar a estructuras en memoria. Recomiendo usar BodyInserters.fromDataBuffers(flux)
      * en controladores para servir el contenido directamente.
      *
      * @param resourceId identificador del recurso (UUID o nombre único)
@@ -49,14 +63,12 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
     @Override
     public Flux<DataBuffer> readContentFileAsDataBuffer(String resourceId) {
 
-        return FileStorageService.getPathFileByResourceId( uploadDirProperty, resourceId  )
-                .flatMapMany( pathFile -> DataBufferUtils.read(
-                        pathFile,
-                        new DefaultDataBufferFactory(),
-                        FileStorageService.BUFFER_SIZE_FILE_READ
-                ))
+        Flux<DataBuffer> content = filePathIndex.resolve(resourceId)
+                .flatMapMany( pathFile -> fileStorageIO.read(pathFile, FileStorageService.BUFFER_SIZE_FILE_READ))
                 // Sólo registra el error; lo propaga hacia el consumidor para que decida.
                 .doOnError( error -> log.error("Error reading file with resourceId {}: {}", resourceId, error.getMessage()) );
+        return fileStorageMetrics.timed(FileStorageMetrics.READ,
+                fileStorageMetrics.countBytes(FileStorageMetrics.READ, content));
     }
 
     /**
@@ -65,15 +77,15 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
      *
      * Este método es reactivo y no bloqueante:
      * - No realiza operaciones de E/S en el hilo del event-loop principal.
-     * - Las operaciones de lectura de fichero se hacen usando DataBufferUtils.read(...) que
-     *   devuelve un Flux<DataBuffer> y está diseñado para funcionamiento reactivo.
-     * - Se aplica subscribeOn(Schedulers.boundedElastic()) para mover trabajo potencialmente
+     * - Las operaciones de lectura de fichero se hacen usando FileStorageIO#read(...), que lee por
+     *   AsynchronousFileChannel y devuelve un Flux<DataBuffer>.
+     * - Se aplica subscribeOn(fileStorageScheduler.io()) para mover trabajo potencialmente
      *   bloqueante (copias a memoria) a un scheduler apropiado.
      *
      * Flujo (línea a línea):
      * 1. getPathFileByResourceId(...) -> Mono<Path>
      *    - Valida el resourceId y resuelve la ruta del fichero.
-     * 2. flatMapMany(pathFile -> DataBufferUtils.read(...))
+     * 2. flatMapMany(pathFile -> fileStorageIO.read(...))
      *    - Abre una lectura reactiva del fichero devolviendo Flux<DataBuffer>.
      * 3. map(dataBuffer -> { ... })
      *    - Para cada DataBuffer: crea un ByteArrayOutputStream, copia los bytes
@@ -82,7 +94,7 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
      *      — puede aumentar uso de memoria si el fichero es grande; considerar otra estrategia
      *      (por ejemplo devolver Flux<DataBuffer> y dejar que el framework escriba los buffers
      *      directamente en la respuesta).
-     * 4. subscribeOn(Schedulers.boundedElastic())
+     * 4. subscribeOn(fileStorageScheduler.io())
      *    - Indica que la suscripción y el procesamiento se hagan en un scheduler apto para
      *      operaciones potencialmente bloqueantes.
      * 5. doOnError(...)
@@ -98,12 +110,8 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
      */
     public Flux<ByteArrayOutputStream> readContentFileAsByteArrayOutputStream(String resourceId) {
 
-        return FileStorageService.getPathFileByResourceId( uploadDirProperty, resourceId  )
-                .flatMapMany( pathFile -> DataBufferUtils.read(
-                        pathFile,
-                        new DefaultDataBufferFactory(),
-                        FileStorageService.BUFFER_SIZE_FILE_READ
-                ))
+        return filePathIndex.resolve(resourceId)
+                .flatMapMany( pathFile -> fileStorageIO.read(pathFile, FileStorageService.BUFFER_SIZE_FILE_READ))
                 .map( dataBuffer -> {
                     // Convertir DataBuffer a ByteArrayOutputStream
                     ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
@@ -115,14 +123,15 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
                     return outputStream;
                 })
                 // El procesamiento de conversión puede implicar trabajo de copia en memoria,
-                // por eso lo hacemos en boundedElastic para evitar bloquear el event-loop.
-                .subscribeOn(Schedulers.boundedElastic() )
+                // por eso lo hacemos en el scheduler de I/O para evitar bloquear el event-loop.
+                .subscribeOn(fileStorageScheduler.io())
                 .doOnError( error -> log.error("Error reading file with resourceId {}: {}", resourceId, error.getMessage()) );
     }
 
     /**
      * Obtiene los metadatos del archivo asociado al resourceId.
-     * Busca un archivo JSON con el mismo nombre que el resourceId en la
+     * Si resourceId es un UUID se sirven desde {@link FileMetadataIndex} (memoria, o disco en un fallo);
+     * en otro caso busca un archivo JSON con el mismo nombre que el resourceId en la
      * misma carpeta del archivo real.
      *
      * @param resourceId identificador del recurso (UUID o nombre único)
@@ -130,7 +139,11 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
      */
     @Override
     public Mono<FileStorageService.ResourceDetail> getMetadataFileByResourceId(String resourceId) {
-        return FileStorageService.getPathFileByResourceId(uploadDirProperty, resourceId)
+        if (FileStorageService.isValidUUID(resourceId)) {
+            return fileMetadataIndex.findById(UUID.fromString(resourceId));
+        }
+
+        return filePathIndex.resolve(resourceId)
                 .flatMap(pathFile -> Mono.fromCallable(() -> {
                     // Asumimos que los metadatos se guardan en <uuid>.json al mismo nivel del archivo
                     Path jsonPath = pathFile.getParent().resolve(resourceId + ".json");
@@ -139,7 +152,7 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
                     }
                     // Leer el contenido del JSON como String
                     return java.nio.file.Files.readString(jsonPath);
-                }).subscribeOn(Schedulers.boundedElastic()))
+                }).subscribeOn(fileStorageScheduler.io()))
                 .flatMap(content -> {
                     if (content == null) return Mono.empty();
                     try {
@@ -190,7 +203,7 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
     /**
      * Lee el contenido (metadato/JSON) asociado a resourceId y lo devuelve como Mono<ResourceContent>.
      * Reactivo: resolvemos el path de forma reactiva y movemos la lectura/parseo (bloqueante)
-     * a Schedulers.boundedElastic() mediante Mono.fromCallable(...).
+     * a fileStorageScheduler.io() mediante Mono.fromCallable(...).
      *
      * Devuelve Mono.empty() si no existe el fichero o el contenido es null. Errores de lectura/parseo se propagan.
      *
@@ -199,8 +212,8 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
      */
     @Override
     public Mono<FileStorageService.ResourceContent> getResourceContentByResourceId(String resourceId) {
-        return FileStorageService.getPathFileByResourceId(uploadDirProperty, resourceId)
-                // Comprobación de existencia + lectura/parseo en boundedElastic para evitar bloquear el event-loop
+        return filePathIndex.resolve(resourceId)
+                // Comprobación de existencia + lectura/parseo en el scheduler de I/O para evitar bloquear el event-loop
                 .flatMap(pathFile -> Mono.fromCallable(() -> {
                     // comprobar existencia (bloqueante) y leer/parsear (bloqueante)
                     if (!Files.exists(pathFile)) return null;
@@ -255,7 +268,7 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
                             return null;
                         }
                     }
-                }).subscribeOn(Schedulers.boundedElastic()))
+                }).subscribeOn(fileStorageScheduler.io()))
                 // Normalizar la salida: si el resultado es null devolvemos Mono.empty()
                 .flatMap(Mono::justOrEmpty)
                 .doOnError(error -> log.error("Error getting resource content for resourceId {}: {}", resourceId, error.getMessage()));
@@ -263,9 +276,9 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
 
     @Override
     public Mono<Boolean> existsFileByResourceId(String resourceId) {
-        return FileStorageService.getPathFileByResourceId(uploadDirProperty, resourceId)
+        return filePathIndex.resolve(resourceId)
                 .flatMap(pathFile -> Mono.fromCallable(() -> Files.exists(pathFile))
-                        .subscribeOn(Schedulers.boundedElastic())
+                        .subscribeOn(fileStorageScheduler.io())
                 )
                 .defaultIfEmpty(false)
                 .onErrorResume(error -> {
@@ -274,5 +287,9 @@ public class FileStorageReadServiceImpl implements FileStorageReadService {
                 });
     }
 
+    @Override
+    public Mono<Path> getPathFileByResourceId(String resourceId) {
+        return filePathIndex.resolve(resourceId);
+    }
 
 }
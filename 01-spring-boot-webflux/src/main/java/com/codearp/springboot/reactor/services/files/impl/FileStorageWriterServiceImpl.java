@@ -1,23 +1,35 @@
 package com.codearp.springboot.reactor.services.files.impl;
 
+import com.codearp.springboot.reactor.services.files.ContentAddressedStore;
+import com.codearp.springboot.reactor.services.files.FileMetadataIndex;
+import com.codearp.springboot.reactor.services.files.FileMetadataJournal;
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.services.files.FileStorageMetrics;
 import com.codearp.springboot.reactor.services.files.FileStorageService;
 import com.codearp.springboot.reactor.services.files.FileStorageWriterService;
+import com.codearp.springboot.reactor.services.files.ImageDerivativeService;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import java.io.File;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -33,6 +45,21 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
     // Si no hay bean
     private final ObjectMapper objectMapper;
 
+    private final FileMetadataIndex fileMetadataIndex;
+
+    private final ContentAddressedStore contentAddressedStore;
+
+    private final FilePathIndex filePathIndex;
+
+    private final ImageDerivativeService imageDerivativeService;
+
+    private final FileStorageMetrics fileStorageMetrics;
+
+    private final FileStorageScheduler fileStorageScheduler;
+
+    private final FileStorageIO fileStorageIO;
+
+    private final FileMetadataJournal fileMetadataJournal;
 
     /**
      * Guarda un archivo subido en el directorio de uploads de manera reactiva.
@@ -52,7 +79,7 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
      * El flujo reactivo hace lo siguiente:
      * <ol>
      *     <li>Obtiene el content type de manera no bloqueante.</li>
-     *     <li>Guarda el archivo en disco mediante {@link FilePart#transferTo(File)}.</li>
+     *     <li>Guarda el contenido en disco por {@code AsynchronousFileChannel} ({@link FileStorageIO}).</li>
      *     <li>Lee el contenido del archivo de forma reactiva.</li>
      *     <li>Devuelve un objeto {@link FileStorageService.ResourceContent} con nombre, content type, media type y contenido opcional.</li>
      * </ol>
@@ -68,9 +95,6 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
         final UUID uuid = UUID.randomUUID();
         Path uploadsDirPath = Path.of(uploadsPath).toAbsolutePath().normalize();
 
-        // obtener nombre único normalizado => uuid + "-" + filename normalizado
-        String nameResourceContent = uuid.toString();
-
 
         if (!FileStorageService.existPathDir(uploadsDirPath)) {
             return Mono.error(new IllegalArgumentException("Uploads directory does not exist"));
@@ -81,21 +105,24 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
             return Mono.error(new IllegalArgumentException("Invalid file part"));
         }
 
-        // Construir path completo del archivo a guardar path + nombre único normalizado
-        Path filePath = FileStorageService.amountFileToPath(uploadsDirPath, nameResourceContent );
+        // Construir path completo del archivo a guardar: subdirectorio ab/cd del uuid + uuid
+        Path filePath;
+        try {
+            filePath = filePathIndex.prepare(uuid);
+        } catch (UncheckedIOException e) {
+            return Mono.error(e);
+        }
 
         // Evitar path transversal
         if (!filePath.startsWith(uploadsDirPath)) {
             return Mono.error(new IllegalArgumentException("Invalid file path"));
         }
 
-        // Nota: las operaciones de I/O bloqueantes (probeContentType, escritura de ficheros)
-        // se ejecutan en hilos de I/O mediante `subscribeOn(Schedulers.boundedElastic())`
-        // en los lugares correspondientes; un buffer-pool especializado NO está
-        // implementado por simplicidad (puede añadirse en una mejora futura).
-        return FileStorageService.getContentType(filePath)
-                // probeContentType puede ser bloqueante; asegurar ejecución en boundedElastic
-                .subscribeOn(Schedulers.boundedElastic())
+        // Nota: contenido y JSON se escriben por canal asíncrono (FileStorageIO); sólo lo que no tiene
+        // API asíncrona (probeContentType, borrados) se ejecuta en `fileStorageScheduler.io()`.
+        Mono<FileStorageService.ResourceUUID> saved = FileStorageService.getContentType(filePath, fileStorageScheduler.io())
+                // probeContentType puede ser bloqueante; asegurar ejecución en el scheduler de I/O
+                .subscribeOn(fileStorageScheduler.io())
                 .flatMap(pair -> {
                     String finalContentType = pair.getFirst();
                     MediaType finalMediaType = pair.getSecond();
@@ -108,26 +135,28 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
                             finalMediaType != null ? finalMediaType.toString() : null
                     );
 
-                    // Guardar archivo de forma segura: transferir -> persistir metadatos (saveResourceDetail)
-                    // Usar transferTo(Path) evita crear File y posibles operaciones bloqueantes innecesarias
-                    return Mono.defer(() -> filePart.transferTo(filePath))
-                            // saveResourceDetail devuelve Mono<Void> y ya se ejecuta en boundedElastic internamente
+                    // Guardar archivo de forma segura: escribir contenido -> persistir metadatos (saveResourceDetail);
+                    // con dedup el contenido se guarda una vez por SHA-256 y filePath es un enlace al blob
+                    return writeContent(uuid, filePart.content(), filePath)
+                            .doOnNext(size -> {
+                                filePathIndex.register(uuid, filePath);
+                                fileStorageMetrics.recordBytes(FileStorageMetrics.WRITE, size);
+                            })
                             .then(saveResourceDetail(rd));
                 })
                 .thenReturn(new FileStorageService.ResourceUUID(uuid))
                 .onErrorResume(e -> {
                     log.error("Error saving file '{}' (uuid={}): {}", filePath, uuid, e.toString(), e);
-                    // Ejecutar la limpieza en boundedElastic para no bloquear hilos reactor
-                    return Mono.fromRunnable(() -> {
-                                try {
-                                    Files.deleteIfExists(filePath);
-                                    Files.deleteIfExists(uploadsDirPath.resolve(uuid + ".json"));
-                                } catch (Exception ex) {
-                                    log.warn("Cleanup failed for file '{}' or json: {}", filePath, ex.toString(), ex);
-                                }
-                            }).subscribeOn(Schedulers.boundedElastic())
+                    // Los borrados de la limpieza se ejecutan en el scheduler de I/O para no bloquear hilos reactor
+                    filePathIndex.remove(uuid);
+                    return fileStorageIO.deleteIfExists(filePath, filePath.resolveSibling(uuid + ".json"))
+                            .onErrorResume(ex -> {
+                                log.warn("Cleanup failed for file '{}' or json: {}", filePath, ex.toString(), ex);
+                                return Mono.empty();
+                            })
                             .then(Mono.error(new RuntimeException("Error saving file", e)));
                 });
+        return fileStorageMetrics.timed(FileStorageMetrics.WRITE, saved);
     }
 
     /**
@@ -148,18 +177,29 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
         return saveFile( filePart ).flatMap(newResourceUUID -> {
             // Eliminar el recurso antiguo
             UUID oldUuid = UUID.fromString(resourceIdOld);
-            Path uploadsDirPath = Path.of(uploadsPath).toAbsolutePath().normalize();
-            Path oldFilePath = FileStorageService.amountFileToPath(uploadsDirPath, oldUuid.toString() );
 
             return Mono.fromRunnable(() -> {
                         try {
-                            Files.deleteIfExists(oldFilePath);
-                            Files.deleteIfExists(uploadsDirPath.resolve(oldUuid + ".json"));
+                            Path oldJsonPath = filePathIndex.metadataPath(oldUuid);
+                            Optional<Path> oldFilePath = filePathIndex.find(oldUuid.toString());
+                            filePathIndex.remove(oldUuid);
+                            if (oldFilePath.isPresent()) {
+                                imageDerivativeService.evict(oldFilePath.get());
+                                Files.deleteIfExists(oldFilePath.get());
+                            }
+                            Files.deleteIfExists(oldJsonPath);
+                            fileMetadataIndex.remove(oldUuid);
+                            contentAddressedStore.release(oldUuid);
                         } catch (Exception e) {
                             log.warn("Failed to delete old resource file or json for resourceIdOld={}", resourceIdOld, e);
                             log.warn("Deleted manually the old resource may be required {}", resourceIdOld);
                         }
-                    }).subscribeOn(Schedulers.boundedElastic())
+                    }).subscribeOn(fileStorageScheduler.io())
+                    .then(fileMetadataJournal.delete(oldUuid))
+                    .onErrorResume(e -> {
+                        log.warn("Failed to record deletion of resourceIdOld={} in metadata journal: {}", resourceIdOld, e.toString());
+                        return Mono.empty();
+                    })
                     .thenReturn(newResourceUUID);
         })
         // terminar con logging en caso de error, pero propagar el error hacia el suscriptor, si quisieramos detener el error,
@@ -169,37 +209,90 @@ public class FileStorageWriterServiceImpl implements FileStorageWriterService {
     }
 
     /**
-     * Guarda los metadatos del recurso en un archivo JSON.
+     * Guarda en el directorio de uploads un contenido que no llega como {@link FilePart}
+     * (por ejemplo, el generador de datos sintéticos), con el mismo formato de nombre y metadatos
+     * que {@link #saveFile(FilePart)}.
+     *
+     * @param filename nombre original del recurso
+     * @param contentType content type del recurso; si es nulo se usa application/octet-stream
+     * @param content contenido a escribir
+     * @return un {@link Mono} que emite el {@code ResourceUUID} del recurso guardado
+     */
+    @Override
+    public Mono<FileStorageService.ResourceUUID> saveContent(String filename, String contentType, Flux<DataBuffer> content) {
+        final UUID uuid = UUID.randomUUID();
+        Path uploadsDirPath = Path.of(uploadsPath).toAbsolutePath().normalize();
+
+        if (!FileStorageService.existPathDir(uploadsDirPath)) {
+            return Mono.error(new IllegalArgumentException("Uploads directory does not exist"));
+        }
+
+        Path filePath;
+        try {
+            filePath = filePathIndex.prepare(uuid);
+        } catch (UncheckedIOException e) {
+            return Mono.error(e);
+        }
+        String finalContentType = contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+        FileStorageService.ResourceDetail rd = new FileStorageService.ResourceDetail(
+                uuid,
+                filename,
+                finalContentType,
+                MediaType.parseMediaType(finalContentType).toString()
+        );
+
+        Mono<FileStorageService.ResourceUUID> saved = writeContent(uuid, content, filePath)
+                .doOnNext(size -> {
+                    filePathIndex.register(uuid, filePath);
+                    fileStorageMetrics.recordBytes(FileStorageMetrics.WRITE, size);
+                })
+                .then(saveResourceDetail(rd))
+                .thenReturn(new FileStorageService.ResourceUUID(uuid))
+                .doOnError(e -> log.error("Error saving content '{}' (uuid={}): {}", filename, uuid, e.toString()));
+        return fileStorageMetrics.timed(FileStorageMetrics.WRITE, saved);
+    }
+
+    // Emite los bytes escritos; el almacén con dedup no los expone y se mide el enlace ya creado
+    private Mono<Long> writeContent(UUID uuid, Flux<DataBuffer> content, Path filePath) {
+        return contentAddressedStore.isEnabled()
+                ? contentAddressedStore.store(uuid, content, filePath).then(fileStorageIO.size(filePath))
+                : fileStorageIO.write(content, filePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Guarda los metadatos del recurso: un anexado al {@link FileMetadataJournal} o, si está desactivado,
+     * un archivo JSON junto al fichero.
      *
      * @param resourceDetail los detalles del recurso a guardar
-     * @return un {@link Mono} que completa cuando se guarda el JSON, o emite error si falla
+     * @return un {@link Mono} que completa cuando se guardan los metadatos, o emite error si falla
      * @throws IllegalStateException si ocurre un error durante la escritura del archivo JSON
      */
     protected  Mono<Void> saveResourceDetail(FileStorageService.ResourceDetail resourceDetail){
-        String nameResourceDetail = String.format("%s.json", resourceDetail.id() );
-
-        Path uploadsDidPath = Path.of(uploadsPath).toAbsolutePath().normalize();
-        Path jsonFilePath = uploadsDidPath.resolve(nameResourceDetail);
-
-        return Mono.fromCallable(() -> {
-            try {
-                // Construir un ObjectNode para controlar cómo se serializa mediaType (como texto)
-                ObjectNode root = objectMapper.createObjectNode();
-                if (resourceDetail.id() != null) root.put("id", resourceDetail.id().toString());
-                if (resourceDetail.name() != null) root.put("name", resourceDetail.name());
-                if (resourceDetail.contentType() != null) root.put("contentType", resourceDetail.contentType());
-                if (resourceDetail.mediaType() != null) root.put("mediaType", resourceDetail.mediaType().toString());
-
-                String json = objectMapper.writeValueAsString(root);
-                Files.writeString(jsonFilePath, json);
-                return  Void.TYPE ;
-             } catch (Exception e) {
-                 // En caso de fallo, eliminar JSON si existen y registrar el error
-                 try { Files.deleteIfExists(jsonFilePath); } catch (Exception ex) {
-                     log.warn("Failed to delete jsonFilePath on rollback: {}", jsonFilePath, ex);
-                 }
-                 throw new IllegalStateException("Error saving JSON, rolled back", e);
-             }
-         }).subscribeOn(Schedulers.boundedElastic()).then();
-     }
- }
+        if (fileMetadataJournal.isEnabled()) {
+            return fileMetadataJournal.append(resourceDetail)
+                    .doOnSuccess(v -> fileMetadataIndex.put(resourceDetail));
+        }
+        return Mono.defer(() -> {
+            // Junto al fichero del recurso (ya registrado en el índice de rutas)
+            Path jsonFilePath = filePathIndex.metadataPath(resourceDetail.id());
+
+            // Construir un ObjectNode para controlar cómo se serializa mediaType (como texto)
+            ObjectNode root = objectMapper.createObjectNode();
+            if (resourceDetail.id() != null) root.put("id", resourceDetail.id().toString());
+            if (resourceDetail.name() != null) root.put("name", resourceDetail.name());
+            if (resourceDetail.contentType() != null) root.put("contentType", resourceDetail.contentType());
+            if (resourceDetail.mediaType() != null) root.put("mediaType", resourceDetail.mediaType().toString());
+
+            return fileStorageIO.writeJson(jsonFilePath, root)
+                    .doOnNext(written -> fileMetadataIndex.put(resourceDetail))
+                    // En caso de fallo, eliminar JSON si existe y registrar el error
+                    .onErrorResume(e -> fileStorageIO.deleteIfExists(jsonFilePath)
+                            .onErrorResume(ex -> {
+                                log.warn("Failed to delete jsonFilePath on rollback: {}", jsonFilePath, ex);
+                                return Mono.empty();
+                            })
+                            .then(Mono.error(new IllegalStateException("Error saving JSON, rolled back", e))));
+        }).then();
+    }
+}
@@ -0,0 +1,231 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.ImageDerivativeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private static final String PNG = "png";
+    private static final String JPG = "jpg";
+
+    private final NavigableSet<Integer> widths;
+    private final long maxPixels;
+
+    // CPU acotado: a lo sumo `threads` decodificaciones a la vez, el resto espera en cola
+    private final Scheduler scheduler;
+
+    // variante -> true si existe en disco, false si se sirve el original (no es imagen, demasiado pequeña...).
+    // LRU acotado como el índice de metadatos: una entrada olvidada sólo cuesta volver a comprobar el disco
+    private final Map<Path, Boolean> known;
+    // generaciones en curso: peticiones simultáneas de la misma variante comparten el mismo Mono
+    private final Map<Path, Mono<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageDerivativeServiceImpl(@Value("${config.images.derivatives.widths:64,256,1024}") int[] widths,
+                                      @Value("${config.images.derivatives.threads:4}") int threads,
+                                      @Value("${config.images.derivatives.queue-size:256}") int queueSize,
+                                      @Value("${config.images.derivatives.max-pixels:50000000}") long maxPixels,
+                                      @Value("${config.images.derivatives.known-max-entries:10000}") int knownMaxEntries) {
+        this.widths = new TreeSet<>();
+        Arrays.stream(widths).filter(w -> w > 0).forEach(this.widths::add);
+        this.maxPixels = maxPixels;
+        int maxKnown = Math.max(1, knownMaxEntries);
+        this.known = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Boolean> eldest) {
+                return size() > maxKnown;
+            }
+        });
+        this.scheduler = Schedulers.newBoundedElastic(Math.max(1, threads), Math.max(1, queueSize), "image-derivatives");
+        // Sin cache en disco de ImageIO: se lee de ficheros locales
+        ImageIO.setUseCache(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    @Override
+    public Mono<ImageVariant> variant(Path original, MediaType mediaType, int width) {
+        ImageVariant originalVariant = new ImageVariant(original, mediaType);
+        if (mediaType == null || !"image".equals(mediaType.getType()) || width <= 0) {
+            return Mono.just(originalVariant);
+        }
+        Integer allowedWidth = widths.ceiling(width);
+        if (allowedWidth == null) {
+            return Mono.just(originalVariant);
+        }
+
+        // PNG conserva la transparencia de png/gif; el resto se sirve como JPEG
+        boolean png = PNG.equals(mediaType.getSubtype()) || "gif".equals(mediaType.getSubtype());
+        Path target = variantPath(original, allowedWidth, png ? PNG : JPG);
+        ImageVariant variant = new ImageVariant(target, png ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG);
+
+        Boolean exists = known.get(target);
+        if (exists != null) {
+            return Mono.just(exists ? variant : originalVariant);
+        }
+
+        return inFlight.computeIfAbsent(target, key -> Mono.fromCallable(() -> generate(original, key, allowedWidth, png))
+                        .subscribeOn(scheduler)
+                        .doOnNext(generated -> known.put(key, generated))
+                        .onErrorResume(e -> {
+                            // Cola llena o imagen corrupta: se sirve el original sin recordar el fallo
+                            log.warn("Could not generate {} from {}: {}", key.getFileName(), original, e.toString());
+                            return Mono.just(false);
+                        })
+                        .doFinally(signal -> inFlight.remove(key))
+                        .cache())
+                .map(generated -> generated ? variant : originalVariant);
+    }
+
+    @Override
+    public void evict(Path original) {
+        for (Integer width : widths) {
+            for (String format : new String[]{PNG, JPG}) {
+                Path variant = variantPath(original, width, format);
+                known.remove(variant);
+                try {
+                    Files.deleteIfExists(variant);
+                } catch (IOException e) {
+                    log.warn("Error deleting image variant {}: {}", variant, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private boolean generate(Path original, Path target, int width, boolean png) throws IOException {
+        if (Files.exists(target)
+                && !Files.getLastModifiedTime(target).toInstant().isBefore(Files.getLastModifiedTime(original).toInstant())) {
+            return true;
+        }
+
+        BufferedImage source = decode(original, width);
+        if (source == null) {
+            return false;
+        }
+
+        BufferedImage resized = resize(source, width, png);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            if (!ImageIO.write(resized, png ? PNG : "jpeg", tmp.toFile())) {
+                return false;
+            }
+            move(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        log.debug("Image variant {} generated ({}x{})", target.getFileName(), resized.getWidth(), resized.getHeight());
+        return true;
+    }
+
+    /**
+     * Decodifica sólo lo necesario: submuestrea al leer para que la imagen en memoria tenga como mucho
+     * el doble del ancho final, en lugar de la resolución completa de la foto original.
+     */
+    private BufferedImage decode(Path original, int width) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if (sourceWidth <= width) {
+                    return null;
+                }
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    log.warn("Image {} is {}x{}, above the {} pixels limit for variants", original, sourceWidth, sourceHeight, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Reducción por mitades con bilineal: calidad parecida a un filtro de área y mucho más barata
+    private static BufferedImage resize(BufferedImage source, int width, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = currentWidth == width ? height : Math.max(height, currentHeight / 2);
+
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                if (!alpha) {
+                    // JPEG no tiene canal alfa: fondo blanco en lugar de negro
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, currentWidth, currentHeight);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (currentWidth != width);
+
+        return current;
+    }
+
+    private static Path variantPath(Path original, int width, String format) {
+        return original.resolveSibling(original.getFileName() + ".w" + width + "." + format);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Formato en disco de {@link FileStorageService.ResourceDetail} propio de este módulo: dónde están los
+ * {@code <uuid>.json} de metadatos, cómo se leen, y el payload binario de un PUT del journal.
+ * {@link FileMetadataJournalImpl} e {@link FileMetadataIndexImpl} delegan aquí lo que depende de los
+ * campos del registro y de la disposición del directorio de uploads.
+ */
+final class ResourceDetailFormat {
+
+    private ResourceDetailFormat() {
+    }
+
+    /** {@code <uuid>.json} del directorio plano heredado y de los subdirectorios ab/cd **/
+    static List<Path> sidecars(Path uploadDir) throws IOException {
+        try (Stream<Path> stream = Files.walk(uploadDir, 3)) {
+            return stream.filter(path -> sidecarId(path) != null).toList();
+        }
+    }
+
+    /** Id del nombre {@code <uuid>.json}; null si el fichero no es un JSON de metadatos **/
+    static UUID sidecarId(Path json) {
+        String fileName = json.getFileName().toString();
+        if (!fileName.endsWith(".json")) {
+            return null;
+        }
+        String id = fileName.substring(0, fileName.length() - ".json".length());
+        return FileStorageService.isValidUUID(id) ? UUID.fromString(id) : null;
+    }
+
+    static FileStorageService.ResourceDetail readSidecar(ObjectMapper objectMapper, Path json, UUID fallbackId) throws IOException {
+        return toResourceDetail(objectMapper.readTree(json.toFile()), fallbackId);
+    }
+
+    /** Metadatos desde el árbol JSON (mediaType puede venir como texto o como objeto {type, subtype}) **/
+    static FileStorageService.ResourceDetail toResourceDetail(JsonNode node, UUID fallbackId) {
+        UUID id = fallbackId;
+        if (node.hasNonNull("id")) {
+            try { id = UUID.fromString(node.get("id").asText()); } catch (Exception ex) { id = fallbackId; }
+        }
+
+        String name = node.hasNonNull("name") ? node.get("name").asText() : null;
+        String contentType = node.hasNonNull("contentType") ? node.get("contentType").asText() : null;
+
+        MediaType mediaType = null;
+        if (node.hasNonNull("mediaType")) {
+            JsonNode mtNode = node.get("mediaType");
+            try {
+                if (mtNode.isTextual()) {
+                    mediaType = MediaType.parseMediaType(mtNode.asText());
+                } else if (mtNode.has("type") && mtNode.has("subtype")) {
+                    mediaType = MediaType.parseMediaType(mtNode.get("type").asText() + "/" + mtNode.get("subtype").asText());
+                }
+            } catch (Exception ex) { mediaType = null; }
+        }
+
+        if (mediaType == null && contentType != null) {
+            try { mediaType = MediaType.parseMediaType(contentType); } catch (Exception ex) { mediaType = MediaType.APPLICATION_OCTET_STREAM; }
+        }
+
+        return new FileStorageService.ResourceDetail(id, name, contentType, mediaType != null ? mediaType.toString() : null);
+    }
+
+    /** Datos de un PUT del journal: nombre, content type y media type **/
+    static byte[] payload(FileStorageService.ResourceDetail detail) {
+        byte[] name = utf8(detail.name());
+        byte[] contentType = utf8(detail.contentType());
+        byte[] mediaType = utf8(detail.mediaType());
+        ByteBuffer buf = ByteBuffer.allocate(4 + length(name) + 4 + length(contentType) + 4 + length(mediaType));
+        putString(buf, name);
+        putString(buf, contentType);
+        putString(buf, mediaType);
+        return buf.array();
+    }
+
+    static FileStorageService.ResourceDetail decode(UUID id, ByteBuffer payload) {
+        String name = getString(payload);
+        String contentType = getString(payload);
+        return new FileStorageService.ResourceDetail(id, name, contentType, getString(payload));
+    }
+
+    // Cadenas como [longitud][UTF-8]; longitud -1 para null
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void putString(ByteBuffer buf, byte[] value) {
+        if (value == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int size = buf.getInt();
+        if (size < 0) {
+            return null;
+        }
+        byte[] value = new byte[size];
+        buf.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
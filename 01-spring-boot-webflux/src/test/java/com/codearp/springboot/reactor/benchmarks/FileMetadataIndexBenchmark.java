@@ -0,0 +1,133 @@
+package com.codearp.springboot.reactor.benchmarks;
+
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.codearp.springboot.reactor.services.files.impl.FileMetadataIndexImpl;
+import com.codearp.springboot.reactor.services.files.impl.FileMetadataJournalImpl;
+import com.codearp.springboot.reactor.services.files.impl.FilePathIndexImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileMetadataIndexImpl#findById}, que parsea el {@code <uuid>.json} recorriendo el árbol
+ * {@code JsonNode} (mediaType puede venir como texto o como objeto):
+ * <ul>
+ *   <li>{@code readTreeFromDisk}: fallo del índice; lectura del fichero y recorrido del árbol en el scheduler de I/O
+ *       ({@code scheduler}: hilos de plataforma o un hilo virtual por tarea, ver {@link FileStorageScheduler}).</li>
+ *   <li>{@code readTreeLegacyMediaType}: igual, con el mediaType antiguo {type, subtype}.</li>
+ *   <li>{@code indexHit}: acierto del índice en memoria (el caso normal tras el arranque).</li>
+ * </ul>
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="FileMetadataIndexBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileMetadataIndexBenchmark {
+
+    @Param({"1000"})
+    private int files;
+
+    @Param({FileStorageScheduler.BOUNDED_ELASTIC, FileStorageScheduler.VIRTUAL})
+    private String scheduler;
+
+    private Path uploadDir;
+    private FileStorageScheduler fileStorageScheduler;
+    private FileStorageIO fileStorageIO;
+    private FileMetadataIndexImpl fileMetadataIndex;
+    private UUID[] ids;
+    private UUID[] legacyIds;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("metadata-index-benchmark");
+        ObjectMapper objectMapper = new ObjectMapper();
+        ids = new UUID[files];
+        legacyIds = new UUID[files];
+        for (int i = 0; i < files; i++) {
+            ids[i] = UUID.randomUUID();
+            objectMapper.writeValue(metadataFile(ids[i]).toFile(),
+                    new FileStorageService.ResourceDetail(ids[i], "picture-" + i + ".jpg", "image/jpeg", "image/jpeg"));
+
+            legacyIds[i] = UUID.randomUUID();
+            Files.writeString(metadataFile(legacyIds[i]),
+                    "{\"id\":\"" + legacyIds[i] + "\",\"name\":\"doc-" + i + ".pdf\",\"contentType\":\"application/pdf\","
+                            + "\"mediaType\":{\"type\":\"application\",\"subtype\":\"pdf\"}}");
+        }
+
+        fileStorageScheduler = new FileStorageScheduler(new SimpleMeterRegistry(), scheduler, 0, 100000);
+        fileStorageIO = new FileStorageIO(objectMapper, fileStorageScheduler, new SimpleMeterRegistry(), 0);
+        FilePathIndexImpl filePathIndex = new FilePathIndexImpl(uploadDir.toString(), fileStorageScheduler);
+        filePathIndex.reload().block();
+        fileMetadataIndex = new FileMetadataIndexImpl(objectMapper, filePathIndex, uploadDir.toString(), files * 2,
+                fileStorageScheduler, fileStorageIO,
+                // Journal desactivado: se mide la lectura de los <uuid>.json
+                new FileMetadataJournalImpl(objectMapper, fileStorageScheduler, uploadDir.toString(), false, Duration.ofMinutes(10), 0.5));
+        fileMetadataIndex.reload().block();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileStorageIO.shutdown();
+        fileStorageScheduler.shutdown();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public FileStorageService.ResourceDetail readTreeFromDisk() {
+        UUID id = ids[nextIndex()];
+        fileMetadataIndex.remove(id);
+        return fileMetadataIndex.findById(id).block();
+    }
+
+    @Benchmark
+    public FileStorageService.ResourceDetail readTreeLegacyMediaType() {
+        UUID id = legacyIds[nextIndex()];
+        fileMetadataIndex.remove(id);
+        return fileMetadataIndex.findById(id).block();
+    }
+
+    @Benchmark
+    public FileStorageService.ResourceDetail indexHit() {
+        return fileMetadataIndex.findById(ids[nextIndex()]).block();
+    }
+
+    private Path metadataFile(UUID id) throws IOException {
+        Path shard = Files.createDirectories(FilePathIndex.shardOf(uploadDir, id));
+        return shard.resolve(id + ".json");
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % files;
+        return next;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileMetadataIndexBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
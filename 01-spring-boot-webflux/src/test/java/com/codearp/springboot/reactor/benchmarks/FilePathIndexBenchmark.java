@@ -0,0 +1,129 @@
+package com.codearp.springboot.reactor.benchmarks;
+
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageMetrics;
+import com.codearp.springboot.reactor.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import com.codearp.springboot.reactor.services.files.impl.FileMetadataIndexImpl;
+import com.codearp.springboot.reactor.services.files.impl.FileMetadataJournalImpl;
+import com.codearp.springboot.reactor.services.files.impl.FilePathIndexImpl;
+import com.codearp.springboot.reactor.services.files.impl.FileStorageReadServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileStorageReadServiceImpl#getPathFileByResourceId}, la resolución id → ruta de cada descarga:
+ * <ul>
+ *   <li>{@code uuidIndexHit}: uuid ya indexado; se resuelve sin saltar de hilo.</li>
+ *   <li>{@code uuidIndexMiss}: uuid fuera del índice; comprobación del subdirectorio ab/cd en boundedElastic.</li>
+ *   <li>{@code legacyUniqueName}: nombre único heredado (uuid-nombre) del directorio plano.</li>
+ * </ul>
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="FilePathIndexBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilePathIndexBenchmark {
+
+    @Param({"1000"})
+    private int files;
+
+    @Param({FileStorageScheduler.BOUNDED_ELASTIC, FileStorageScheduler.VIRTUAL})
+    private String scheduler;
+
+    private Path uploadDir;
+    private FilePathIndexImpl filePathIndex;
+    private FileStorageReadServiceImpl fileStorageReadService;
+    private FileStorageScheduler fileStorageScheduler;
+    private FileStorageIO fileStorageIO;
+    private UUID[] ids;
+    private String[] legacyNames;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("path-index-benchmark");
+        ids = new UUID[files];
+        legacyNames = new String[files];
+        byte[] content = new byte[64];
+        for (int i = 0; i < files; i++) {
+            ids[i] = UUID.randomUUID();
+            Path shard = Files.createDirectories(FilePathIndex.shardOf(uploadDir, ids[i]));
+            Files.write(shard.resolve(ids[i].toString()), content);
+
+            legacyNames[i] = UUID.randomUUID() + "-picture-" + i + ".jpg";
+            Files.write(uploadDir.resolve(legacyNames[i]), content);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        fileStorageScheduler = new FileStorageScheduler(new SimpleMeterRegistry(), scheduler, 0, 100000);
+        fileStorageIO = new FileStorageIO(objectMapper, fileStorageScheduler, new SimpleMeterRegistry(), 0);
+        filePathIndex = new FilePathIndexImpl(uploadDir.toString(), fileStorageScheduler);
+        filePathIndex.reload().block();
+        fileStorageReadService = new FileStorageReadServiceImpl(objectMapper,
+                new FileMetadataIndexImpl(objectMapper, filePathIndex, uploadDir.toString(), files, fileStorageScheduler,
+                        fileStorageIO,
+                        // Journal desactivado: se mide la lectura de los <uuid>.json
+                        new FileMetadataJournalImpl(objectMapper, fileStorageScheduler, uploadDir.toString(), false, Duration.ofMinutes(10), 0.5)),
+                filePathIndex,
+                new FileStorageMetrics(new SimpleMeterRegistry()),
+                fileStorageScheduler,
+                fileStorageIO);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileStorageIO.shutdown();
+        fileStorageScheduler.shutdown();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public Path uuidIndexHit() {
+        return fileStorageReadService.getPathFileByResourceId(ids[nextIndex()].toString()).block();
+    }
+
+    @Benchmark
+    public Path uuidIndexMiss() {
+        UUID id = ids[nextIndex()];
+        filePathIndex.remove(id);
+        return fileStorageReadService.getPathFileByResourceId(id.toString()).block();
+    }
+
+    @Benchmark
+    public Path legacyUniqueName() {
+        return fileStorageReadService.getPathFileByResourceId(legacyNames[nextIndex()]).block();
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % files;
+        return next;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FilePathIndexBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
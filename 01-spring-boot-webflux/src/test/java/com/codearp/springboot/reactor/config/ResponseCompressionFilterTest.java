@@ -0,0 +1,141 @@
+package com.codearp.springboot.reactor.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterTest {
+
+    private static final List<String> MIME_TYPES = List.of("application/json", "text/html", "text/css");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(true, 1024, MIME_TYPES, 6, meterRegistry);
+
+    private final String json = "[" + "{\"id\":\"1\",\"name\":\"Product\",\"price\":10.0},".repeat(200) + "{}]";
+
+    @Test
+    void givenGzipAccepted_whenJsonResponse_thenCompressedInSeveralBuffersAndCounted() throws IOException {
+        MockServerWebExchange exchange = exchange("gzip, deflate, br");
+
+        filter.filter(exchange, write(MediaType.APPLICATION_JSON, json, false)).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(-1, headers.getContentLength());
+        byte[] body = body(exchange);
+        assertTrue(body.length < json.length() / 4);
+        assertEquals(json, decompress(new GZIPInputStream(new ByteArrayInputStream(body))));
+        assertEquals(json.length(), meterRegistry.get("http.server.compression.bytes").tag("stage", "in").counter().count());
+    }
+
+    @Test
+    void givenOnlyDeflateAccepted_whenFlushedChunks_thenZlibStreamWithEveryChunk() throws IOException {
+        MockServerWebExchange exchange = exchange("deflate");
+
+        filter.filter(exchange, write(MediaType.TEXT_HTML, json, true)).block();
+
+        assertEquals("deflate", exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(json, decompress(new InflaterInputStream(new ByteArrayInputStream(body(exchange)))));
+    }
+
+    @Test
+    void givenSmallKnownLength_whenResponse_thenNotCompressed() throws IOException {
+        MockServerWebExchange exchange = exchange("gzip");
+        String small = "{\"id\":\"1\"}";
+
+        filter.filter(exchange, chainExchange -> {
+            chainExchange.getResponse().getHeaders().setContentLength(small.length());
+            return write(MediaType.APPLICATION_JSON, small, false).filter(chainExchange);
+        }).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(small, new String(body(exchange), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void givenStreamOrAlreadyEncodedOrNoAcceptEncoding_whenResponse_thenNotCompressed() throws IOException {
+        MockServerWebExchange stream = exchange("gzip");
+        filter.filter(stream, write(MediaType.TEXT_EVENT_STREAM, json, true)).block();
+        assertEquals(json, new String(body(stream), StandardCharsets.UTF_8));
+
+        MockServerWebExchange precompressed = exchange("gzip");
+        filter.filter(precompressed, chainExchange -> {
+            chainExchange.getResponse().getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return write(MediaType.parseMediaType("text/css"), json, false).filter(chainExchange);
+        }).block();
+        assertEquals(json, new String(body(precompressed), StandardCharsets.UTF_8));
+
+        MockServerWebExchange identity = exchange(null);
+        filter.filter(identity, write(MediaType.APPLICATION_JSON, json, false)).block();
+        assertNull(identity.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(json, new String(body(identity), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void givenAcceptEncoding_whenNegotiate_thenPreferredSupportedCoding() {
+        assertEquals(ResponseCompressor.GZIP, ResponseCompressor.negotiate("br, gzip, deflate"));
+        assertEquals(ResponseCompressor.DEFLATE, ResponseCompressor.negotiate("gzip;q=0, deflate"));
+        assertEquals(ResponseCompressor.DEFLATE, ResponseCompressor.negotiate("gzip;q=0.5, deflate;q=0.8"));
+        assertEquals(ResponseCompressor.GZIP, ResponseCompressor.negotiate("br, *;q=0.1"));
+        assertNull(ResponseCompressor.negotiate("identity"));
+        assertNull(ResponseCompressor.negotiate("*;q=0"));
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/products");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    // Escribe el cuerpo en trozos de 512 bytes, con writeWith o con un flush por trozo
+    private static WebFilterChain write(MediaType contentType, String content, boolean flushEachChunk) {
+        return chainExchange -> {
+            chainExchange.getResponse().getHeaders().setContentType(contentType);
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            Flux<DataBuffer> chunks = Flux.range(0, (bytes.length + 511) / 512)
+                    .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                            Arrays.copyOfRange(bytes, i * 512, Math.min(bytes.length, (i + 1) * 512))));
+            return flushEachChunk
+                    ? chainExchange.getResponse().writeAndFlushWith(chunks.map(Flux::just))
+                    : chainExchange.getResponse().writeWith(chunks);
+        };
+    }
+
+    private static byte[] body(MockServerWebExchange exchange) {
+        DataBuffer joined = DataBufferUtils.join(exchange.getResponse().getBody()).block();
+        assertNotNull(joined);
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+
+    private static String decompress(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.codearp.springboot.reactor.controllers;
+
+import com.codearp.springboot.reactor.services.files.FileStorageMetrics;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRangeResponsesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 0, 100000);
+
+    private final FileRangeResponses fileRangeResponses =
+            new FileRangeResponses(true, 1024, new FileStorageMetrics(new SimpleMeterRegistry()), fileStorageScheduler);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = tempDir.resolve("abc");
+        Files.writeString(file, "0123456789abcdefghij");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fileStorageScheduler.shutdown();
+    }
+
+    @Test
+    void givenNoRange_whenServe_thenFullContent() {
+        MockServerHttpResponse response = serve(MockServerHttpRequest.get("/files/abc").build());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("0123456789abcdefghij", response.getBodyAsString().block());
+    }
+
+    @Test
+    void givenSingleRange_whenServe_thenPartialContentFromOffset() {
+        MockServerHttpResponse response = serve(MockServerHttpRequest.get("/files/abc")
+                .header(HttpHeaders.RANGE, "bytes=10-14").build());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 10-14/20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(5, response.getHeaders().getContentLength());
+        assertEquals("abcde", response.getBodyAsString().block());
+    }
+
+    @Test
+    void givenSeveralRanges_whenServe_thenMultipartByteranges() {
+        MockServerHttpResponse response = serve(MockServerHttpRequest.get("/files/abc")
+                .header(HttpHeaders.RANGE, "bytes=0-1,-2").build());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("multipart", response.getHeaders().getContentType().getType());
+        assertEquals("byteranges", response.getHeaders().getContentType().getSubtype());
+
+        String body = response.getBodyAsString().block();
+        assertEquals(response.getHeaders().getContentLength(), body.getBytes(StandardCharsets.US_ASCII).length);
+        assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 18-19/20\r\n\r\nij\r\n"));
+    }
+
+    @Test
+    void givenStaleIfRange_whenServe_thenFullContent() {
+        MockServerHttpResponse response = serve(MockServerHttpRequest.get("/files/abc")
+                .header(HttpHeaders.RANGE, "bytes=10-14")
+                .header(HttpHeaders.IF_RANGE, "\"stale-etag\"").build());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(20, response.getBodyAsString().block().length());
+    }
+
+    @Test
+    void givenMatchingIfRange_whenServe_thenPartialContent() {
+        String etag = serve(MockServerHttpRequest.get("/files/abc").build()).getHeaders().getETag();
+
+        MockServerHttpResponse response = serve(MockServerHttpRequest.get("/files/abc")
+                .header(HttpHeaders.RANGE, "bytes=15-")
+                .header(HttpHeaders.IF_RANGE, etag).build());
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("fghij", response.getBodyAsString().block());
+    }
+
+    @Test
+    void givenRangeOutsideFile_whenServe_thenNotSatisfiable() {
+        MockServerHttpResponse response = serve(MockServerHttpRequest.get("/files/abc")
+                .header(HttpHeaders.RANGE, "bytes=50-60").build());
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    private MockServerHttpResponse serve(MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        // La respuesta mock no es ZeroCopyHttpOutputMessage: se ejercita la lectura por buffers
+        fileRangeResponses.write(exchange, file, MediaType.TEXT_PLAIN, "inline; filename=\"abc\"").block();
+        return exchange.getResponse();
+    }
+}
@@ -0,0 +1,91 @@
+package com.codearp.springboot.reactor.controllers;
+
+import com.codearp.springboot.reactor.facade.FileStorageFacade;
+import com.codearp.springboot.reactor.services.files.FileStorageMetrics;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import com.codearp.springboot.reactor.services.files.FileStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+class FilesControllerTest {
+
+    private static final String ID = UUID.randomUUID().toString();
+
+    @TempDir
+    Path tempDir;
+
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 0, 100000);
+
+    private FileStorageFacade fileStorageFacade;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        fileStorageFacade = mock(FileStorageFacade.class);
+        FileRangeResponses fileRangeResponses =
+                new FileRangeResponses(true, 65536, new FileStorageMetrics(new SimpleMeterRegistry()), fileStorageScheduler);
+        client = WebTestClient.bindToController(new FilesController(fileStorageFacade, fileRangeResponses)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fileStorageScheduler.shutdown();
+    }
+
+    @Test
+    void givenStoredFile_whenDownloaded_thenContentWithName() throws IOException {
+        Path file = Files.writeString(tempDir.resolve(ID), "hola");
+        when(fileStorageFacade.getMetadataFileByResourceId(ID)).thenReturn(Mono.just(detail()));
+        when(fileStorageFacade.getPathFileByResourceId(ID)).thenReturn(Mono.just(file));
+
+        client.get().uri("/files/download/{id}", ID).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("Content-Disposition", "attachment; filename=\"hola.txt\"")
+                .expectBody(String.class).isEqualTo("hola");
+    }
+
+    @Test
+    void givenNoMetadata_whenDownloaded_thenNotFound() {
+        when(fileStorageFacade.getMetadataFileByResourceId(ID)).thenReturn(Mono.empty());
+        when(fileStorageFacade.getPathFileByResourceId(ID)).thenReturn(Mono.empty());
+
+        client.get().uri("/files/download/{id}", ID).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void givenFileRemovedAfterLookup_whenDownloaded_thenNotFound() {
+        when(fileStorageFacade.getMetadataFileByResourceId(ID)).thenReturn(Mono.just(detail()));
+        when(fileStorageFacade.getPathFileByResourceId(ID)).thenReturn(Mono.just(tempDir.resolve("gone")));
+
+        client.get().uri("/files/download/{id}", ID).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void givenStorageFailure_whenDownloaded_thenServerErrorInsteadOfNotFound() {
+        when(fileStorageFacade.getMetadataFileByResourceId(ID))
+                .thenReturn(Mono.error(new IllegalArgumentException("Upload directory does not exist")));
+        when(fileStorageFacade.getPathFileByResourceId(ID)).thenReturn(Mono.empty());
+
+        client.get().uri("/files/download/{id}", ID).exchange()
+                .expectStatus().is5xxServerError();
+    }
+
+    private static FileStorageService.ResourceDetail detail() {
+        return new FileStorageService.ResourceDetail(UUID.fromString(ID), "hola.txt", "text/plain", "text/plain");
+    }
+}
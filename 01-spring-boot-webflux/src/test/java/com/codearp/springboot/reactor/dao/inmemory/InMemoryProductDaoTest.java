@@ -0,0 +1,64 @@
+package com.codearp.springboot.reactor.dao.inmemory;
+
+import com.codearp.springboot.reactor.models.documents.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryProductDaoTest {
+
+    private InMemoryProductDao productDao;
+
+    @BeforeEach
+    void setUp() {
+        productDao = new InMemoryProductDao(Duration.ZERO, 4);
+    }
+
+    @Test
+    void givenNewProduct_whenSave_thenIdAssignedAndFound() {
+        Product saved = productDao.save(Product.builder().withName("Apple iPod").withPrice(46.89).build()).block();
+
+        assertNotNull(saved);
+        assertNotNull(saved.getId());
+        StepVerifier.create(productDao.findById(saved.getId()))
+                .expectNext(saved)
+                .verifyComplete();
+    }
+
+    @Test
+    void givenSavedProducts_whenFindAllByIdAndDelete_thenMissingIdsSkipped() {
+        List<Product> saved = productDao.saveAll(Flux.range(0, 100)
+                        .map(i -> Product.builder().withName("Product " + i).withPrice(1.0 + i).build()))
+                .collectList()
+                .block();
+        assertNotNull(saved);
+
+        StepVerifier.create(productDao.findAllById(List.of(saved.get(0).getId(), "missing", saved.get(99).getId())))
+                .expectNext(saved.get(0), saved.get(99))
+                .verifyComplete();
+
+        StepVerifier.create(productDao.deleteById(saved.get(0).getId()).then(productDao.count()))
+                .expectNext(99L)
+                .verifyComplete();
+        StepVerifier.create(productDao.existsById(saved.get(0).getId()))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void givenLatency_whenFindById_thenDelayed() {
+        InMemoryProductDao slowDao = new InMemoryProductDao(Duration.ofMillis(50), 4);
+
+        StepVerifier.withVirtualTime(() -> slowDao.findById("missing"))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(49))
+                .thenAwait(Duration.ofMillis(1))
+                .verifyComplete();
+    }
+}
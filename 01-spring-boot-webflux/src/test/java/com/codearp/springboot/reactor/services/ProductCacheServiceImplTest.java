@@ -0,0 +1,136 @@
+package com.codearp.springboot.reactor.services;
+
+import com.codearp.springboot.reactor.models.documents.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheServiceImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCacheServiceImpl productCacheService;
+    private AtomicInteger loads;
+    private Function<String, Mono<Product>> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCacheService = new ProductCacheServiceImpl(meterRegistry, true, 1024 * 1024,
+                Duration.ofMinutes(10), Duration.ofMinutes(8));
+        loads = new AtomicInteger();
+        loader = id -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return Product.builder().withId(id).withName("Product " + id).withPrice(10.0).build();
+        });
+    }
+
+    @Test
+    void givenCachedProduct_whenGet_thenLoadedOnceAndHitCounted() {
+        productCacheService.get("a", loader).block();
+        Product cached = productCacheService.get("a", loader).block();
+
+        assertNotNull(cached);
+        assertEquals("Product a", cached.getName());
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void givenCachedProduct_whenCallerMutatesIt_thenCacheKeepsOriginal() {
+        productCacheService.get("a", loader).block().setName("changed");
+
+        Product cached = productCacheService.get("a", loader).block();
+        assertNotNull(cached);
+        cached.setPrice(99.0);
+
+        Product again = productCacheService.get("a", loader).block();
+        assertNotNull(again);
+        assertEquals("Product a", again.getName());
+        assertEquals(10.0, again.getPrice());
+    }
+
+    @Test
+    void givenMissingProduct_whenGet_thenEmptyAndNotCached() {
+        StepVerifier.create(productCacheService.get("missing", id -> Mono.empty()))
+                .verifyComplete();
+
+        assertEquals(0, productCacheService.size());
+    }
+
+    @Test
+    void givenInvalidation_whenGet_thenReloaded() {
+        productCacheService.get("a", loader).block();
+        productCacheService.invalidate("a");
+        productCacheService.get("a", loader).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void givenInvalidationDuringLoad_whenLoadCompletes_thenStaleValueNotStored() {
+        Sinks.One<Product> pending = Sinks.one();
+        Mono<Product> staleLoad = productCacheService.get("a", id -> pending.asMono());
+
+        StepVerifier.create(staleLoad)
+                .then(() -> {
+                    productCacheService.invalidate("a");
+                    pending.tryEmitValue(Product.builder().withId("a").withName("stale").build());
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals("Product a", productCacheService.get("a", loader).block().getName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void givenMaxWeight_whenManyProducts_thenWeightStaysBounded() {
+        SimpleMeterRegistry smallRegistry = new SimpleMeterRegistry();
+        ProductCacheServiceImpl small = new ProductCacheServiceImpl(smallRegistry, true, 1000,
+                Duration.ofMinutes(10), Duration.ofMinutes(8));
+
+        for (int i = 0; i < 50; i++) {
+            small.get("p" + i, loader).block();
+        }
+        small.cleanUp();
+
+        assertTrue(small.size() < 50);
+        assertTrue(smallRegistry.get("cache.weight").gauge().value() <= 1000);
+        assertTrue(smallRegistry.get("cache.evictions").functionCounter().count() > 0);
+    }
+
+    @Test
+    void givenEntryOlderThanRefreshAfter_whenGet_thenServedAndReloadedInBackground() {
+        ProductCacheServiceImpl refreshing = new ProductCacheServiceImpl(meterRegistry, true, 1024 * 1024,
+                Duration.ofMinutes(10), Duration.ZERO);
+
+        refreshing.get("a", loader).block();
+        Product served = refreshing.get("a", loader).block();
+
+        assertNotNull(served);
+        assertEquals(2, loads.get());
+        assertEquals(1, refreshing.size());
+    }
+
+    @Test
+    void givenDisabled_whenGet_thenAlwaysLoads() {
+        ProductCacheServiceImpl disabled = new ProductCacheServiceImpl(meterRegistry, false, 1024 * 1024,
+                Duration.ofMinutes(10), Duration.ofMinutes(8));
+
+        disabled.get("a", loader).block();
+        disabled.get("a", loader).block();
+
+        assertEquals(2, loads.get());
+        assertEquals(0, disabled.size());
+    }
+}
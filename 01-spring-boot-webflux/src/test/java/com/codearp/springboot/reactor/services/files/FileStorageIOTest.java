@@ -0,0 +1,108 @@
+package com.codearp.springboot.reactor.services.files;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStorageIOTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(meterRegistry, FileStorageScheduler.BOUNDED_ELASTIC, 2, 16);
+
+    private final FileStorageIO fileStorageIO =
+            new FileStorageIO(new ObjectMapper(), fileStorageScheduler, meterRegistry, 2);
+
+    @AfterEach
+    void tearDown() {
+        fileStorageIO.shutdown();
+        fileStorageScheduler.shutdown();
+    }
+
+    @Test
+    void givenBuffers_whenWriteAndRead_thenSameBytesAndWrittenCount() throws IOException {
+        Path file = tempDir.resolve("content.bin");
+        byte[] first = "hola ".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "mundo".getBytes(StandardCharsets.UTF_8);
+
+        StepVerifier.create(fileStorageIO.write(Flux.just(
+                                DefaultDataBufferFactory.sharedInstance.wrap(first),
+                                DefaultDataBufferFactory.sharedInstance.wrap(second)),
+                        file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+                .expectNext((long) first.length + second.length)
+                .verifyComplete();
+        assertEquals("hola mundo", Files.readString(file));
+
+        // Buffers de 4 bytes: varias lecturas encadenadas del mismo canal
+        StepVerifier.create(DataBufferUtils.join(fileStorageIO.read(file, 4))
+                        .map(buffer -> {
+                            String text = buffer.toString(StandardCharsets.UTF_8);
+                            DataBufferUtils.release(buffer);
+                            return text;
+                        }))
+                .expectNext("hola mundo")
+                .verifyComplete();
+        // Pool de canales publicado con las métricas de executor de Micrometer
+        assertNotNull(meterRegistry.find("executor.completed").tag("name", "file.storage.aio").functionCounter());
+    }
+
+    @Test
+    void givenExistingFile_whenWriteCreateNew_thenFailsAndKeepsContent() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("existing.bin"), "original");
+
+        StepVerifier.create(fileStorageIO.write(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{1, 2})),
+                        file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+                .expectError(FileAlreadyExistsException.class)
+                .verify();
+        assertEquals("original", Files.readString(file));
+    }
+
+    @Test
+    void givenValue_whenWriteJsonOverLongerFile_thenReplacedAndReadable() throws IOException {
+        Path json = Files.writeString(tempDir.resolve("meta.json"), "x".repeat(256));
+
+        StepVerifier.create(fileStorageIO.writeJson(json, Map.of("name", "picture.jpg")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(fileStorageIO.readJson(json, JsonNode.class))
+                .assertNext(node -> assertEquals("picture.jpg", node.get("name").asText()))
+                .verifyComplete();
+    }
+
+    @Test
+    void givenMissingFile_whenReadJson_thenEmpty() {
+        StepVerifier.create(fileStorageIO.readJson(tempDir.resolve("missing.json"), JsonNode.class))
+                .verifyComplete();
+    }
+
+    @Test
+    void givenFiles_whenDeleteIfExists_thenRemovedAndMissingIgnored() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("a.bin"), "a");
+
+        StepVerifier.create(fileStorageIO.deleteIfExists(file, tempDir.resolve("missing.bin")))
+                .verifyComplete();
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,84 @@
+package com.codearp.springboot.reactor.services.files;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStorageSchedulerTest {
+
+    @Test
+    void givenVirtualType_whenSubscribeOnIo_thenRunsOnVirtualThreadAndCountsSubmission() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FileStorageScheduler fileStorageScheduler = new FileStorageScheduler(meterRegistry, FileStorageScheduler.VIRTUAL, 0, 16);
+        try {
+            Thread thread = Mono.fromCallable(Thread::currentThread)
+                    .subscribeOn(fileStorageScheduler.io())
+                    .block();
+
+            assertNotNull(thread);
+            assertTrue(thread.isVirtual());
+            assertTrue(meterRegistry.get("file.storage.io.scheduler.tasks.submitted")
+                    .tag("scheduler", FileStorageScheduler.VIRTUAL)
+                    .counters().stream().mapToDouble(c -> c.count()).sum() >= 1);
+        } finally {
+            fileStorageScheduler.shutdown();
+        }
+    }
+
+    @Test
+    void givenVirtualTypeWithMaxThreads_whenManyBlockingTasks_thenAtMostMaxRunAtOnce() {
+        FileStorageScheduler fileStorageScheduler =
+                new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.VIRTUAL, 2, 16);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try {
+            Long completed = Flux.range(0, 8)
+                    .flatMap(i -> Mono.fromRunnable(() -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            running.decrementAndGet();
+                        }
+                    }).subscribeOn(fileStorageScheduler.io()).thenReturn(i))
+                    .count()
+                    .block(Duration.ofSeconds(10));
+
+            assertEquals(8L, completed);
+            assertEquals(2, maxRunning.get());
+        } finally {
+            fileStorageScheduler.shutdown();
+        }
+    }
+
+    @Test
+    void givenBoundedElasticType_whenSubscribeOnIo_thenRunsOnPlatformThread() {
+        FileStorageScheduler fileStorageScheduler =
+                new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 2, 16);
+        try {
+            Thread thread = Mono.fromCallable(Thread::currentThread)
+                    .subscribeOn(fileStorageScheduler.io())
+                    .block();
+
+            assertNotNull(thread);
+            assertFalse(thread.isVirtual());
+            assertTrue(thread.getName().startsWith("file-io"));
+        } finally {
+            fileStorageScheduler.shutdown();
+        }
+    }
+
+    @Test
+    void givenUnknownType_whenCreate_thenRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new FileStorageScheduler(new SimpleMeterRegistry(), "elastic", 0, 16));
+    }
+}
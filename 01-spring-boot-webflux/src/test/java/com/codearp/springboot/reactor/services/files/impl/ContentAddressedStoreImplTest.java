@@ -0,0 +1,129 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.ContentAddressedStore;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentAddressedStoreImplTest {
+
+    // SHA-256 de "hola mundo"
+    private static final String HOLA_MUNDO_SHA256 = "0b894166d3336435c800bea36ff21b29eaa801a52f584c006c49289a0dcf6e2f";
+
+    @TempDir
+    Path tempDir;
+
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 0, 100000);
+
+    private ContentAddressedStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ContentAddressedStoreImpl(tempDir.toString(), true, fileStorageScheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fileStorageScheduler.shutdown();
+    }
+
+    @Test
+    void givenSameContentTwice_whenStore_thenOneBlobWithTwoReferences() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        StepVerifier.create(store.store(first, content("hola ", "mundo"), tempDir.resolve(first.toString())))
+                .expectNext(HOLA_MUNDO_SHA256)
+                .verifyComplete();
+        StepVerifier.create(store.store(second, content("hola mundo"), tempDir.resolve(second.toString())))
+                .expectNext(HOLA_MUNDO_SHA256)
+                .verifyComplete();
+
+        assertEquals(2, store.references(HOLA_MUNDO_SHA256));
+        assertEquals(1, blobCount());
+        assertEquals("hola mundo", Files.readString(tempDir.resolve(first.toString())));
+        assertEquals("hola mundo", Files.readString(tempDir.resolve(second.toString())));
+    }
+
+    @Test
+    void givenTwoReferences_whenRelease_thenBlobRemovedWithLastOne() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        store.store(first, content("hola mundo"), tempDir.resolve(first.toString())).block();
+        store.store(second, content("hola mundo"), tempDir.resolve(second.toString())).block();
+
+        Files.delete(tempDir.resolve(first.toString()));
+        store.release(first);
+        assertEquals(1, store.references(HOLA_MUNDO_SHA256));
+        assertEquals(1, blobCount());
+
+        Files.delete(tempDir.resolve(second.toString()));
+        store.release(second);
+        assertEquals(0, store.references(HOLA_MUNDO_SHA256));
+        assertEquals(0, blobCount());
+    }
+
+    @Test
+    void givenConcurrentUploadsOfSameContent_whenStore_thenOneBlobWithAllReferences() throws IOException {
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(16).toList();
+
+        Flux.fromIterable(ids)
+                .flatMap(id -> store.store(id, content("hola mundo"), tempDir.resolve(id.toString()))
+                        .subscribeOn(Schedulers.parallel()))
+                .blockLast(Duration.ofSeconds(10));
+
+        assertEquals(ids.size(), store.references(HOLA_MUNDO_SHA256));
+        assertEquals(1, blobCount());
+    }
+
+    @Test
+    void givenLinkFails_whenStore_thenErrorAndNoOrphanBlob() throws IOException {
+        UUID id = UUID.randomUUID();
+        Path target = Files.writeString(tempDir.resolve(id.toString()), "ocupado");
+
+        StepVerifier.create(store.store(id, content("hola mundo"), target))
+                .expectError()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(0, store.references(HOLA_MUNDO_SHA256));
+        assertEquals(0, blobCount());
+        assertEquals("ocupado", Files.readString(target));
+    }
+
+    private static Flux<DataBuffer> content(String... chunks) {
+        return Flux.fromArray(chunks)
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private long blobCount() throws IOException {
+        Path blobs = tempDir.resolve("blobs");
+        if (!Files.isDirectory(blobs)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(blobs, 2)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().equals(HOLA_MUNDO_SHA256))
+                    .count();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileMetadataJournalImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 2, 16);
+
+    private final List<FileMetadataJournalImpl> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(FileMetadataJournalImpl::shutdown);
+        fileStorageScheduler.shutdown();
+    }
+
+    @Test
+    void givenAppendedDetails_whenFind_thenLatestVersionAndDeletedEmpty() {
+        FileMetadataJournalImpl journal = open(true);
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+
+        journal.append(detail(kept, "first.txt")).block();
+        journal.append(detail(kept, "second.txt")).block();
+        journal.append(detail(deleted, "deleted.txt")).block();
+        journal.delete(deleted).block();
+        // Borrar algo que no existe no anexa nada
+        journal.delete(UUID.randomUUID()).block();
+
+        StepVerifier.create(journal.find(kept))
+                .assertNext(detail -> {
+                    assertEquals("second.txt", detail.name());
+                    assertEquals("text/plain", detail.contentType());
+                    assertEquals("text/plain", detail.mediaType());
+                })
+                .verifyComplete();
+        StepVerifier.create(journal.find(deleted)).verifyComplete();
+        assertEquals(1, journal.size());
+        assertFalse(Files.exists(tempDir.resolve(kept + ".json")));
+    }
+
+    @Test
+    void givenJournalWithTornTail_whenReopen_thenReplaysCompleteRecordsAndKeepsAppending() throws IOException {
+        FileMetadataJournalImpl journal = open(true);
+        UUID id = UUID.randomUUID();
+        journal.append(new FileStorageService.ResourceDetail(id, "hola.txt", null, null)).block();
+        journal.shutdown();
+
+        // Caída a mitad de un anexado: longitud escrita pero no el registro completo
+        Path file = tempDir.resolve(FileMetadataJournalImpl.JOURNAL_FILE);
+        long complete = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(7).putInt(64).put(new byte[]{1, 2, 3}).flip());
+        }
+
+        FileMetadataJournalImpl reopened = open(true);
+        StepVerifier.create(reopened.find(id))
+                .assertNext(detail -> {
+                    assertEquals("hola.txt", detail.name());
+                    assertNull(detail.contentType());
+                })
+                .verifyComplete();
+        assertEquals(complete, Files.size(file));
+
+        UUID next = UUID.randomUUID();
+        reopened.append(detail(next, "next.txt")).block();
+        reopened.shutdown();
+        StepVerifier.create(open(true).find(next))
+                .assertNext(detail -> assertEquals("next.txt", detail.name()))
+                .verifyComplete();
+    }
+
+    @Test
+    void givenDeletedRecords_whenCompact_thenOnlyLiveRecordsRemainAndIndexIsUsedOnReopen() throws IOException {
+        FileMetadataJournalImpl journal = open(true);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            journal.append(detail(id, "file-" + i + ".txt")).block();
+        }
+        for (int i = 0; i < 200; i += 2) {
+            journal.delete(ids.get(i)).block();
+        }
+        long before = Files.size(tempDir.resolve(FileMetadataJournalImpl.JOURNAL_FILE));
+
+        journal.compact().block();
+
+        assertTrue(Files.size(tempDir.resolve(FileMetadataJournalImpl.JOURNAL_FILE)) < before);
+        assertTrue(Files.exists(tempDir.resolve(FileMetadataJournalImpl.INDEX_FILE)));
+        assertEquals(100, journal.size());
+        // Tras compactar se sigue anexando detrás de los registros copiados
+        UUID late = UUID.randomUUID();
+        journal.append(detail(late, "late.txt")).block();
+        journal.shutdown();
+
+        FileMetadataJournalImpl reopened = open(true);
+        assertEquals(101, reopened.size());
+        StepVerifier.create(reopened.find(ids.get(7)))
+                .assertNext(detail -> assertEquals("file-7.txt", detail.name()))
+                .verifyComplete();
+        StepVerifier.create(reopened.find(ids.get(8))).verifyComplete();
+        StepVerifier.create(reopened.find(late))
+                .assertNext(detail -> assertEquals("late.txt", detail.name()))
+                .verifyComplete();
+    }
+
+    @Test
+    void givenRecordsAppendedAfterMapping_whenFind_thenReadFromFileWithoutRemapping() throws IOException {
+        FileMetadataJournalImpl journal = open(true);
+        long mapped = journal.mappedSize();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            journal.append(detail(id, "file-" + i + ".txt")).block();
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            String name = "file-" + i + ".txt";
+            StepVerifier.create(journal.find(ids.get(i)))
+                    .assertNext(detail -> assertEquals(name, detail.name()))
+                    .verifyComplete();
+        }
+        assertEquals(mapped, journal.mappedSize());
+
+        // Compactar sí vuelve a mapear el journal entero
+        journal.compact().block();
+        assertEquals(Files.size(tempDir.resolve(FileMetadataJournalImpl.JOURNAL_FILE)), journal.mappedSize());
+        StepVerifier.create(journal.find(ids.get(499)))
+                .assertNext(detail -> assertEquals("file-499.txt", detail.name()))
+                .verifyComplete();
+    }
+
+    @Test
+    void givenExistingJsonSidecars_whenJournalCreated_thenImportedOnceAndKept() throws IOException {
+        UUID flat = UUID.randomUUID();
+        UUID sharded = UUID.randomUUID();
+        Files.writeString(tempDir.resolve(flat + ".json"),
+                "{\"id\":\"" + flat + "\",\"name\":\"flat.txt\",\"contentType\":\"text/plain\"}");
+        Path shard = Files.createDirectories(FilePathIndex.shardOf(tempDir, sharded));
+        // mediaType serializado como objeto {type, subtype}, como lo escribían versiones antiguas
+        Files.writeString(shard.resolve(sharded + ".json"),
+                "{\"id\":\"" + sharded + "\",\"name\":\"sharded.png\",\"contentType\":\"image/png\","
+                        + "\"mediaType\":{\"type\":\"image\",\"subtype\":\"png\"}}");
+
+        FileMetadataJournalImpl journal = open(true);
+        assertEquals(2, journal.size());
+        StepVerifier.create(journal.find(flat))
+                .assertNext(detail -> assertEquals("text/plain", detail.mediaType()))
+                .verifyComplete();
+        StepVerifier.create(journal.find(sharded))
+                .assertNext(detail -> {
+                    assertEquals("sharded.png", detail.name());
+                    assertEquals("image/png", detail.mediaType());
+                })
+                .verifyComplete();
+        assertTrue(Files.exists(tempDir.resolve(flat + ".json")));
+
+        // Ya importados: un JSON nuevo no se vuelve a leer al reabrir
+        journal.shutdown();
+        Files.writeString(tempDir.resolve(UUID.randomUUID() + ".json"), "{\"name\":\"later.txt\"}");
+        assertEquals(2, open(true).size());
+    }
+
+    @Test
+    void givenImportInterrupted_whenReopened_thenJournalRebuiltFromSidecars() throws IOException {
+        UUID first = UUID.randomUUID();
+        Files.writeString(tempDir.resolve(first + ".json"), "{\"name\":\"first.txt\",\"contentType\":\"text/plain\"}");
+        FileMetadataJournalImpl journal = open(true);
+        assertEquals(1, journal.size());
+        assertFalse(Files.exists(tempDir.resolve(FileMetadataJournalImpl.IMPORT_MARKER)));
+        journal.shutdown();
+
+        // Caída a mitad de la importación: el marcador sigue ahí y el journal no tiene todos los JSON
+        Files.write(tempDir.resolve(FileMetadataJournalImpl.IMPORT_MARKER), new byte[0]);
+        UUID second = UUID.randomUUID();
+        Files.writeString(tempDir.resolve(second + ".json"), "{\"name\":\"second.txt\",\"contentType\":\"text/plain\"}");
+
+        FileMetadataJournalImpl reopened = open(true);
+        assertEquals(2, reopened.size());
+        StepVerifier.create(reopened.find(second))
+                .assertNext(detail -> assertEquals("second.txt", detail.name()))
+                .verifyComplete();
+        assertFalse(Files.exists(tempDir.resolve(FileMetadataJournalImpl.IMPORT_MARKER)));
+    }
+
+    @Test
+    void givenSidecarWrittenWhileJournalDisabled_whenIndexFinds_thenFallsBackToJson() throws IOException {
+        FileMetadataJournalImpl journal = open(true);
+        assertEquals(0, journal.size());
+        UUID id = UUID.randomUUID();
+        Path shard = Files.createDirectories(FilePathIndex.shardOf(tempDir, id));
+        Files.writeString(shard.resolve(id + ".json"), "{\"name\":\"later.txt\",\"contentType\":\"text/plain\"}");
+
+        FileStorageIO fileStorageIO = new FileStorageIO(new ObjectMapper(), fileStorageScheduler, new SimpleMeterRegistry(), 1);
+        try {
+            FileMetadataIndexImpl index = new FileMetadataIndexImpl(new ObjectMapper(),
+                    new FilePathIndexImpl(tempDir.toString(), fileStorageScheduler), tempDir.toString(), 100,
+                    fileStorageScheduler, fileStorageIO, journal);
+
+            StepVerifier.create(index.findById(id))
+                    .assertNext(detail -> {
+                        assertEquals(id, detail.id());
+                        assertEquals("later.txt", detail.name());
+                    })
+                    .verifyComplete();
+        } finally {
+            fileStorageIO.shutdown();
+        }
+    }
+
+    @Test
+    void givenDisabledJournal_whenAppend_thenNothingWritten() {
+        FileMetadataJournalImpl journal = open(false);
+        UUID id = UUID.randomUUID();
+
+        journal.append(detail(id, "hola.txt")).block();
+
+        StepVerifier.create(journal.find(id)).verifyComplete();
+        assertFalse(Files.exists(tempDir.resolve(FileMetadataJournalImpl.JOURNAL_FILE)));
+    }
+
+    private FileMetadataJournalImpl open(boolean enabled) {
+        FileMetadataJournalImpl journal = new FileMetadataJournalImpl(new ObjectMapper(), fileStorageScheduler,
+                tempDir.toString(), enabled, Duration.ofMinutes(10), 0.5);
+        journals.add(journal);
+        return journal;
+    }
+
+    private static FileStorageService.ResourceDetail detail(UUID id, String name) {
+        return new FileStorageService.ResourceDetail(id, name, "text/plain", "text/plain");
+    }
+}
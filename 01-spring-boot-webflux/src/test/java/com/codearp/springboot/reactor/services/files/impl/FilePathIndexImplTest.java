@@ -0,0 +1,80 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilePathIndexImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 0, 100000);
+
+    private FilePathIndex filePathIndex;
+
+    @BeforeEach
+    void setUp() {
+        filePathIndex = new FilePathIndexImpl(tempDir.toString(), fileStorageScheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fileStorageScheduler.shutdown();
+    }
+
+    @Test
+    void givenNewResource_whenPrepare_thenShardedPath() {
+        UUID id = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+
+        Path path = filePathIndex.prepare(id);
+
+        assertEquals(tempDir.toAbsolutePath().normalize().resolve("55/0e/" + id), path);
+        assertTrue(Files.isDirectory(path.getParent()));
+    }
+
+    @Test
+    void givenShardedAndLegacyFiles_whenReload_thenResolvedWithoutListing() throws IOException {
+        UUID sharded = UUID.randomUUID();
+        Path shardedPath = filePathIndex.prepare(sharded);
+        Files.writeString(shardedPath, "hola");
+
+        UUID legacy = UUID.randomUUID();
+        Path legacyPath = tempDir.resolve(legacy + "-foto.png");
+        Files.writeString(legacyPath, "mundo");
+
+        StepVerifier.create(filePathIndex.reload()).verifyComplete();
+
+        assertEquals(2, filePathIndex.size());
+        assertEquals(shardedPath, filePathIndex.find(sharded.toString()).orElseThrow());
+        assertEquals(legacyPath.toAbsolutePath().normalize(), filePathIndex.find(legacy.toString()).orElseThrow());
+        assertEquals(legacyPath.toAbsolutePath().normalize(), filePathIndex.find("foto.png").orElseThrow());
+        assertEquals(shardedPath.resolveSibling(sharded + ".json"), filePathIndex.metadataPath(sharded));
+    }
+
+    @Test
+    void givenRemovedResource_whenResolve_thenEmpty() throws IOException {
+        UUID id = UUID.randomUUID();
+        Path path = filePathIndex.prepare(id);
+        Files.writeString(path, "hola");
+        filePathIndex.register(id, path);
+
+        filePathIndex.remove(id);
+        Files.delete(path);
+
+        StepVerifier.create(filePathIndex.resolve(id.toString())).verifyComplete();
+    }
+}
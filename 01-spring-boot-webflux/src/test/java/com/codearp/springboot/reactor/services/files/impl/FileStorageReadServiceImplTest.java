@@ -1,8 +1,13 @@
 package com.codearp.springboot.reactor.services.files.impl;
 
+import com.codearp.springboot.reactor.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.services.files.FileStorageMetrics;
 import com.codearp.springboot.reactor.services.files.FileStorageReadService;
 import com.codearp.springboot.reactor.services.files.FileStorageService;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +24,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,15 +36,34 @@ class FileStorageReadServiceImplTest {
     Path tempDir;
 
 
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 0, 100000);
+
+    private final FileStorageIO fileStorageIO =
+            new FileStorageIO(new ObjectMapper(), fileStorageScheduler, new SimpleMeterRegistry(), 2);
+
     private FileStorageReadService fileStorageReadService;
 
     @BeforeEach
     void setUp() {
-        fileStorageReadService = new FileStorageReadServiceImpl( new ObjectMapper() );
+        FilePathIndexImpl filePathIndex = new FilePathIndexImpl( tempDir.toString(), fileStorageScheduler );
+        fileStorageReadService = new FileStorageReadServiceImpl( new ObjectMapper(),
+                // Journal desactivado: los metadatos se leen de los <uuid>.json
+                new FileMetadataIndexImpl( new ObjectMapper(), filePathIndex, tempDir.toString(), 100, fileStorageScheduler, fileStorageIO,
+                        new FileMetadataJournalImpl( new ObjectMapper(), fileStorageScheduler, tempDir.toString(), false, Duration.ofMinutes(10), 0.5 ) ),
+                filePathIndex,
+                new FileStorageMetrics( new SimpleMeterRegistry() ),
+                fileStorageScheduler,
+                fileStorageIO );
         ((FileStorageReadServiceImpl) fileStorageReadService)
                 .setUploadDirProperty( tempDir.toString() );
     }
 
+    @AfterEach
+    void tearDown() {
+        fileStorageIO.shutdown();
+        fileStorageScheduler.shutdown();
+    }
 
     @Test
     void readContentFileAsDataBuffer() throws Exception {
@@ -50,7 +75,7 @@ class FileStorageReadServiceImplTest {
         java.nio.file.Files.write(file, content.getBytes(StandardCharsets.UTF_8));
 
         // Now the service should return a path
-        Path path = FileStorageService.getPathFileByResourceId(tempDir.toString(), resourceId.toString())
+        Path path = FileStorageService.getPathFileByResourceId(tempDir.toString(), resourceId.toString(), fileStorageScheduler.io())
                 .block();
         assertNotNull(path);
         assertTrue(path.startsWith(tempDir));
@@ -93,8 +118,27 @@ class FileStorageReadServiceImplTest {
     }
 
     @Test
-    void getMetadataFileByResourceId() {
-        // Todo implement test
+    void getMetadataFileByResourceId() throws IOException {
+        UUID resourceId = UUID.randomUUID();
+        Files.writeString(tempDir.resolve(resourceId.toString()), "hola mundo");
+        // mediaType serializado como objeto {type, subtype}, como lo escribían versiones antiguas
+        Files.writeString(tempDir.resolve(resourceId + ".json"),
+                "{\"id\":\"" + resourceId + "\",\"name\":\"hola.txt\",\"contentType\":\"text/plain\","
+                        + "\"mediaType\":{\"type\":\"text\",\"subtype\":\"plain\"}}");
+
+        StepVerifier.create(fileStorageReadService.getMetadataFileByResourceId(resourceId.toString()))
+                .assertNext(detail -> {
+                    assertEquals(resourceId, detail.id());
+                    assertEquals("hola.txt", detail.name());
+                    assertEquals("text/plain", detail.mediaType());
+                })
+                .verifyComplete();
+
+        // Segunda lectura desde el índice: aunque el JSON ya no exista se devuelve el mismo detalle
+        Files.delete(tempDir.resolve(resourceId + ".json"));
+        StepVerifier.create(fileStorageReadService.getMetadataFileByResourceId(resourceId.toString()))
+                .assertNext(detail -> assertEquals("hola.txt", detail.name()))
+                .verifyComplete();
     }
 
     @Test
@@ -1,8 +1,14 @@
 package com.codearp.springboot.reactor.services.files.impl;
 
+import com.codearp.springboot.reactor.services.files.FilePathIndex;
+import com.codearp.springboot.reactor.services.files.FileStorageIO;
+import com.codearp.springboot.reactor.services.files.FileStorageMetrics;
 import com.codearp.springboot.reactor.services.files.FileStorageService;
 import com.codearp.springboot.reactor.services.files.FileStorageWriterService;
+import com.codearp.springboot.reactor.services.files.FileStorageScheduler;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,13 +16,16 @@ import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,32 +39,53 @@ class FileStorageWriterServiceImplTest {
     @Mock
     FilePart filePart;
 
+    private final FileStorageScheduler fileStorageScheduler =
+            new FileStorageScheduler(new SimpleMeterRegistry(), FileStorageScheduler.BOUNDED_ELASTIC, 0, 100000);
+
+    private final FileStorageIO fileStorageIO =
+            new FileStorageIO(new ObjectMapper(), fileStorageScheduler, new SimpleMeterRegistry(), 2);
+
+    private FileMetadataJournalImpl fileMetadataJournal;
+
     private FileStorageWriterService fileStorageWriterService;
 
     @BeforeEach
     void setUp() {
+        FilePathIndexImpl filePathIndex = new FilePathIndexImpl(tempDir.toString(), fileStorageScheduler);
+        fileMetadataJournal = new FileMetadataJournalImpl(new ObjectMapper(), fileStorageScheduler, tempDir.toString(),
+                true, Duration.ofMinutes(10), 0.5);
         fileStorageWriterService =
-                new FileStorageWriterServiceImpl(new ObjectMapper());
+                new FileStorageWriterServiceImpl(new ObjectMapper(),
+                        new FileMetadataIndexImpl(new ObjectMapper(), filePathIndex, tempDir.toString(), 100, fileStorageScheduler,
+                                fileStorageIO, fileMetadataJournal),
+                        new ContentAddressedStoreImpl(tempDir.toString(), false, fileStorageScheduler),
+                        filePathIndex,
+                        new ImageDerivativeServiceImpl(new int[]{64, 256, 1024}, 1, 16, 50_000_000L, 10_000),
+                        new FileStorageMetrics(new SimpleMeterRegistry()),
+                        fileStorageScheduler,
+                        fileStorageIO,
+                        fileMetadataJournal);
         ((FileStorageWriterServiceImpl) fileStorageWriterService)
                 .setUploadsPath(tempDir.toString());
     }
 
+    @AfterEach
+    void tearDown() {
+        fileMetadataJournal.shutdown();
+        fileStorageIO.shutdown();
+        fileStorageScheduler.shutdown();
+    }
+
     @Test
     void givenFilePart_whenSaveResource_thenCreatedSuccelly() {
         // given
         byte[] content = "hola mundo".getBytes();
 
-//      Flux<DataBuffer> dataBufferFlux = DataBufferUtils.read(
-//              new ByteArrayResource(content),
-//              new DefaultDataBufferFactory(),
-//              content.length
-//      );
-//      Mockito.when(filePart.content()).thenReturn(dataBufferFlux); // Not needed for this test
+        // El contenido se escribe por canal asíncrono desde filePart.content()
+        Mockito.when(filePart.content())
+                .thenReturn(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(content)));
         Mockito.when(filePart.filename()).thenReturn("test.txt");
 
-        Mockito.when(filePart.transferTo(Mockito.any(Path.class)))
-                .thenReturn(Mono.empty()); // Simulate successful file transfer
-
         // when
         Mono<FileStorageService.ResourceUUID> result =
                 fileStorageWriterService.saveFile(filePart);
@@ -65,6 +95,13 @@ class FileStorageWriterServiceImplTest {
                 .assertNext(uuid -> {
                     assertNotNull(uuid);
                     assertNotNull(uuid.uuid());
+                    Path saved = FilePathIndex.shardOf(tempDir.toAbsolutePath().normalize(), uuid.uuid()).resolve(uuid.uuid().toString());
+                    assertArrayEquals(content, assertDoesNotThrow(() -> Files.readAllBytes(saved)));
+                    // Metadatos en el journal, sin <uuid>.json junto al fichero
+                    assertFalse(Files.exists(saved.resolveSibling(uuid.uuid() + ".json")));
+                    FileStorageService.ResourceDetail detail = fileMetadataJournal.find(uuid.uuid()).block();
+                    assertNotNull(detail);
+                    assertEquals("test.txt", detail.name());
                 })
                 .verifyComplete();
     }
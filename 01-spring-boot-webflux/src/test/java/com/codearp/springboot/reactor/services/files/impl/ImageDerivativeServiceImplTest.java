@@ -0,0 +1,109 @@
+package com.codearp.springboot.reactor.services.files.impl;
+
+import com.codearp.springboot.reactor.services.files.ImageDerivativeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDerivativeServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageDerivativeServiceImpl imageDerivativeService;
+
+    private Path original;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imageDerivativeService = new ImageDerivativeServiceImpl(new int[]{64, 256, 1024}, 2, 16, 50_000_000L, 10_000);
+        original = tempDir.resolve("550e8400-e29b-41d4-a716-446655440000");
+        ImageIO.write(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageDerivativeService.shutdown();
+    }
+
+    @Test
+    void givenWidth_whenVariant_thenResizedToNextAllowedWidth() throws IOException {
+        ImageDerivativeService.ImageVariant variant = imageDerivativeService.variant(original, MediaType.IMAGE_PNG, 200).block();
+
+        assertNotNull(variant);
+        assertEquals(original.resolveSibling(original.getFileName() + ".w256.png"), variant.path());
+        assertEquals(MediaType.IMAGE_PNG, variant.mediaType());
+        BufferedImage resized = ImageIO.read(variant.path().toFile());
+        assertEquals(256, resized.getWidth());
+        assertEquals(128, resized.getHeight());
+        assertTrue(ImageDerivativeService.isVariant(variant.path().getFileName().toString()));
+    }
+
+    @Test
+    void givenWidthAboveOriginal_whenVariant_thenOriginal() {
+        ImageDerivativeService.ImageVariant variant = imageDerivativeService.variant(original, MediaType.IMAGE_PNG, 1000).block();
+
+        assertNotNull(variant);
+        assertEquals(original, variant.path());
+    }
+
+    @Test
+    void givenNotAnImage_whenVariant_thenOriginal() throws IOException {
+        Path text = tempDir.resolve("notes");
+        Files.writeString(text, "hola mundo");
+
+        assertEquals(text, imageDerivativeService.variant(text, MediaType.TEXT_PLAIN, 64).block().path());
+        assertEquals(text, imageDerivativeService.variant(text, MediaType.IMAGE_JPEG, 64).block().path());
+    }
+
+    @Test
+    void givenMoreVariantsThanKnownEntries_whenRequestedAgain_thenStillServedFromDisk() throws IOException {
+        ImageDerivativeServiceImpl smallIndex = new ImageDerivativeServiceImpl(new int[]{64, 256}, 1, 16, 50_000_000L, 1);
+        try {
+            Path first = smallIndex.variant(original, MediaType.IMAGE_PNG, 64).block().path();
+            smallIndex.variant(original, MediaType.IMAGE_PNG, 256).block();
+            Files.writeString(tempDir.resolve("notes"), "hola");
+            smallIndex.variant(tempDir.resolve("notes"), MediaType.IMAGE_PNG, 64).block();
+
+            assertEquals(first, smallIndex.variant(original, MediaType.IMAGE_PNG, 64).block().path());
+        } finally {
+            smallIndex.shutdown();
+        }
+    }
+
+    @Test
+    void givenConcurrentRequests_whenVariant_thenSameVariant() {
+        List<ImageDerivativeService.ImageVariant> variants = Flux.range(0, 8)
+                .flatMap(i -> Mono.defer(() -> imageDerivativeService.variant(original, MediaType.IMAGE_JPEG, 64)))
+                .collectList()
+                .block();
+
+        assertNotNull(variants);
+        assertEquals(1, variants.stream().map(ImageDerivativeService.ImageVariant::path).distinct().count());
+        assertEquals(MediaType.IMAGE_JPEG, variants.get(0).mediaType());
+        assertTrue(Files.exists(variants.get(0).path()));
+    }
+
+    @Test
+    void givenVariant_whenEvict_thenDeleted() {
+        Path variant = imageDerivativeService.variant(original, MediaType.IMAGE_PNG, 64).block().path();
+
+        imageDerivativeService.evict(original);
+
+        assertFalse(Files.exists(variant));
+        assertTrue(Files.exists(original));
+    }
+}
@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Genera {@code <fichero>.gz} junto a cada recurso estático comprimible, al construir (fase process-resources,
+ * ver el pom). El {@code EncodedResourceResolver} de Spring ({@code spring.web.resources.chain.compressed}) los
+ * sirve con {@code Content-Encoding: gzip} a los clientes que lo aceptan, sin comprimir en cada petición; por
+ * eso se usa el nivel máximo.
+ * <p>
+ * Sólo se escribe la variante si ocupa menos que el original (sin umbral de tamaño: no cuesta CPU al servirla) y
+ * se omiten las que ya están al día.
+ * <p>
+ * Uso (programa de un solo fichero, Java 11+): {@code java PrecompressStaticResources.java <directorio>}
+ */
+public class PrecompressStaticResources {
+
+    private static final Set<String> EXTENSIONS = Set.of("css", "js", "mjs", "html", "svg", "json", "txt", "xml", "map");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java PrecompressStaticResources.java <static-dir>");
+            System.exit(2);
+        }
+        Path root = Path.of(args[0]);
+        if (!Files.isDirectory(root)) {
+            System.out.println("[precompress] " + root + " does not exist, nothing to do");
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(Files::isRegularFile).filter(PrecompressStaticResources::compressible).toList();
+        }
+        int written = 0;
+        for (Path file : files) {
+            if (gzip(file)) {
+                written++;
+            }
+        }
+        System.out.println("[precompress] " + written + " of " + files.size() + " static resources gzipped in " + root);
+    }
+
+    private static boolean compressible(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && EXTENSIONS.contains(name.substring(dot + 1));
+    }
+
+    private static boolean gzip(Path file) throws IOException {
+        Path target = file.resolveSibling(file.getFileName() + ".gz");
+        FileTime modified = Files.getLastModifiedTime(file);
+        if (Files.exists(target) && Files.getLastModifiedTime(target).compareTo(modified) >= 0) {
+            return false;
+        }
+
+        byte[] content = Files.readAllBytes(file);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 8192) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        }
+        if (Files.size(tmp) >= content.length) {
+            Files.delete(tmp);
+            Files.deleteIfExists(target);
+            return false;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        // Misma fecha que el original: Last-Modified y la comprobación "al día" no dependen de la variante
+        Files.setLastModifiedTime(target, modified);
+        return true;
+    }
+}